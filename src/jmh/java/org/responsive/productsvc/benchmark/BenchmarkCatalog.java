@@ -0,0 +1,48 @@
+package org.responsive.productsvc.benchmark;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic catalog used by the benchmarks.
+ */
+public final class BenchmarkCatalog {
+
+    private static final String[] CATEGORIES = {"Kids", "Adults", "Teens", "Family", "Office"};
+    private static final String[] AGE_GROUPS = {"3-6", "5-10", "6-12", "10+", "18+", "18-45"};
+
+    private BenchmarkCatalog() {}
+
+    public static String[] types(int typeCount) {
+        String[] types = new String[typeCount];
+        for (int i = 0; i < typeCount; i++) {
+            types[i] = "Type" + i;
+        }
+        return types;
+    }
+
+    public static ProductRecord[] products(int size, String[] types) {
+        SplittableRandom random = new SplittableRandom(42);
+        ProductRecord[] products = new ProductRecord[size];
+        for (int i = 0; i < size; i++) {
+            Map<String, String> attributes = new HashMap<>();
+            int attributeCount = 2 + random.nextInt(4);
+            for (int a = 0; a < attributeCount; a++) {
+                attributes.put("attr" + a, "value-" + random.nextInt(1000));
+            }
+            products[i] = new ProductRecord(
+                "p" + i,
+                "Product " + i,
+                types[i % types.length],
+                CATEGORIES[random.nextInt(CATEGORIES.length)],
+                100 + random.nextInt(10_000),
+                AGE_GROUPS[random.nextInt(AGE_GROUPS.length)],
+                attributes
+            );
+        }
+        return products;
+    }
+}
@@ -0,0 +1,60 @@
+package org.responsive.productsvc.benchmark;
+
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.factory.CacheFactory;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.List;
+
+/**
+ * Replays a skewed trace against every strategy and prints the getById hit rate. Reads follow a Zipfian
+ * distribution and misses are back-filled like ProductServiceImpl.getById does; optionally, every
+ * {@code SCAN_EVERY} reads a burst of one-off puts walks the cold tail of the catalog, the way
+ * recommend() and warmups populate the cache.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=org.responsive.productsvc.benchmark.HitRateSimulation
+ * </pre>
+ */
+public final class HitRateSimulation {
+
+    private static final List<String> STRATEGIES = List.of("KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU");
+    private static final int CATALOG_SIZE = 100_000;
+    private static final int CAPACITY = 1_000;
+    private static final int READS = 2_000_000;
+    private static final int SCAN_EVERY = 5_000;
+    private static final int SCAN_LENGTH = 2_000;
+
+    private HitRateSimulation() {}
+
+    public static void main(String[] args) {
+        ProductRecord[] catalog = BenchmarkCatalog.products(CATALOG_SIZE, BenchmarkCatalog.types(20));
+        System.out.printf("%-12s %14s %14s%n", "strategy", "zipf", "zipf+scans");
+        for (String strategy : STRATEGIES) {
+            double plain = replay(strategy, catalog, false);
+            double scanned = replay(strategy, catalog, true);
+            System.out.printf("%-12s %13.2f%% %13.2f%%%n", strategy, plain * 100, scanned * 100);
+        }
+    }
+
+    private static double replay(String strategy, ProductRecord[] catalog, boolean withScans) {
+        ProductCache cache = new CacheFactory().create(strategy, CAPACITY);
+        KeyDistribution keys = KeyDistribution.of(KeyDistribution.ZIPFIAN, catalog.length);
+        int scanCursor = catalog.length / 2;
+        long hits = 0;
+        for (int i = 1; i <= READS; i++) {
+            ProductRecord product = catalog[keys.next()];
+            if (cache.getById(product.id()).isPresent()) hits++;
+            else cache.put(product);
+
+            if (withScans && i % SCAN_EVERY == 0) {
+                for (int s = 0; s < SCAN_LENGTH; s++) {
+                    cache.put(catalog[scanCursor]);
+                    scanCursor = scanCursor + 1 < catalog.length ? scanCursor + 1 : catalog.length / 2;
+                }
+            }
+        }
+        return (double) hits / READS;
+    }
+}
@@ -0,0 +1,51 @@
+package org.responsive.productsvc.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples indexes in [0, size) either uniformly or with a Zipfian skew (rank 0 is the hottest).
+ * The Zipfian CDF is precomputed once so sampling is a single binary search.
+ */
+public final class KeyDistribution {
+
+    public static final String UNIFORM = "UNIFORM";
+    public static final String ZIPFIAN = "ZIPFIAN";
+
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    private final int size;
+    private final double[] cdf;
+
+    private KeyDistribution(int size, double[] cdf) {
+        this.size = size;
+        this.cdf = cdf;
+    }
+
+    public static KeyDistribution of(String name, int size) {
+        return switch (name == null ? UNIFORM : name.toUpperCase()) {
+            case ZIPFIAN -> new KeyDistribution(size, zipfCdf(size, ZIPF_EXPONENT));
+            default -> new KeyDistribution(size, null);
+        };
+    }
+
+    public int next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (cdf == null) return random.nextInt(size);
+        int idx = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(size - 1, idx >= 0 ? idx : -idx - 1);
+    }
+
+    private static double[] zipfCdf(int size, double exponent) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+}
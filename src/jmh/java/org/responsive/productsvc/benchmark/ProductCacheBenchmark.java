@@ -0,0 +1,92 @@
+package org.responsive.productsvc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.factory.CacheFactory;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of every {@link ProductCache} strategy built by {@link CacheFactory}.
+ *
+ * <p>Thread count is set on the command line (e.g. {@code -t 32}); allocation rate comes from {@code -prof gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCacheBenchmark {
+
+    @Param({"KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU"})
+    public String strategy;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public String distribution;
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    @Param({"1000"})
+    public int capacity;
+
+    @Param({"20"})
+    public int typeCount;
+
+    @Param({"0.9"})
+    public double readRatio;
+
+    private ProductCache cache;
+    private ProductRecord[] catalog;
+    private KeyDistribution keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        catalog = BenchmarkCatalog.products(catalogSize, BenchmarkCatalog.types(typeCount));
+        keys = KeyDistribution.of(distribution, catalogSize);
+        cache = new CacheFactory().create(strategy, capacity);
+        for (int i = 0; i < capacity * 2; i++) {
+            cache.put(catalog[keys.next()]);
+        }
+    }
+
+    @Benchmark
+    public Optional<ProductRecord> getById() {
+        return cache.getById(catalog[keys.next()].id());
+    }
+
+    @Benchmark
+    public List<ProductRecord> getByType() {
+        return cache.getByType(catalog[keys.next()].type());
+    }
+
+    @Benchmark
+    public void put() {
+        cache.put(catalog[keys.next()]);
+    }
+
+    /** Removes a key and reinserts it so the cache does not drain over the run. */
+    @Benchmark
+    public void removeAndPut() {
+        ProductRecord product = catalog[keys.next()];
+        cache.remove(product.id());
+        cache.put(product);
+    }
+
+    /** getById-or-put mix following {@code readRatio}; a miss is back-filled like the service does. */
+    @Benchmark
+    public Object mixed() {
+        ProductRecord product = catalog[keys.next()];
+        if (ThreadLocalRandom.current().nextDouble() < readRatio) {
+            Optional<ProductRecord> hit = cache.getById(product.id());
+            if (hit.isPresent()) return hit;
+        }
+        cache.put(product);
+        return product;
+    }
+}
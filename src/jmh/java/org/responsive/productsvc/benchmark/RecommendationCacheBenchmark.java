@@ -0,0 +1,122 @@
+package org.responsive.productsvc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.factory.CacheFactory;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput of {@link org.responsive.productsvc.cache.CompositeKeyRecommendationCache} for
+ * query-shaped keys, including the cost of building the key on every call.
+ *
+ * {@code getIfPresent} and {@code hit} look up by raw query params as {@code recommend()} does; run with
+ * {@code -prof gc} to check that {@code hit} allocates nothing ({@code gc.alloc.rate.norm} ~0 B/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationCacheBenchmark {
+
+    private static final int RESULT_SIZE = 20;
+
+    @Param({"UNIFORM", "ZIPFIAN"})
+    public String distribution;
+
+    @Param({"1000", "10000"})
+    public int queryCount;
+
+    @Param({"200"})
+    public int capacity;
+
+    @Param({"0.9"})
+    public double readRatio;
+
+    private RecommendationCache cache;
+    private Query[] queries;
+    private List<List<ProductRecord>> results;
+    private KeyDistribution keys;
+    private int[] cached;
+
+    record Query(Long minPrice, Long maxPrice, String type, String category, Integer age) {}
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] types = BenchmarkCatalog.types(20);
+        ProductRecord[] catalog = BenchmarkCatalog.products(RESULT_SIZE * 50, types);
+        queries = new Query[queryCount];
+        results = new ArrayList<>(queryCount);
+        for (int i = 0; i < queryCount; i++) {
+            queries[i] = new Query(
+                (long) (i % 50) * 100,
+                i % 3 == 0 ? null : (long) (i % 50) * 100 + 2_000,
+                types[i % types.length],
+                i % 2 == 0 ? "Kids" : null,
+                i % 5 == 0 ? null : 3 + i % 15
+            );
+            int from = (i * RESULT_SIZE) % (catalog.length - RESULT_SIZE);
+            results.add(Arrays.asList(Arrays.copyOfRange(catalog, from, from + RESULT_SIZE)));
+        }
+        keys = KeyDistribution.of(distribution, queryCount);
+        cache = new CacheFactory().createRecommendationCache(capacity);
+        for (int i = 0; i < capacity * 2; i++) {
+            int q = keys.next();
+            cache.put(key(queries[q]), results.get(q));
+        }
+        cached = IntStream.range(0, queryCount)
+                                           .filter(q -> cache.get(key(queries[q])).isPresent())
+                                           .toArray();
+    }
+
+    @Benchmark
+    public Optional<List<ProductRecord>> get() {
+        return cache.get(key(queries[keys.next()]));
+    }
+
+    @Benchmark
+    public List<ProductRecord> getIfPresent() {
+        Query q = queries[keys.next()];
+        return cache.getIfPresent(q.minPrice(), q.maxPrice(), q.type(), q.category(), q.age());
+    }
+
+    /** {@code getIfPresent} restricted to keys cached at setup. */
+    @Benchmark
+    public List<ProductRecord> hit() {
+        Query q = queries[cached[ThreadLocalRandom.current().nextInt(cached.length)]];
+        return cache.getIfPresent(q.minPrice(), q.maxPrice(), q.type(), q.category(), q.age());
+    }
+
+    @Benchmark
+    public void put() {
+        int q = keys.next();
+        cache.put(key(queries[q]), results.get(q));
+    }
+
+    /** get-or-put mix following {@code readRatio}, as {@code recommend()} does on a miss. */
+    @Benchmark
+    public Object mixed() {
+        int q = keys.next();
+        String key = key(queries[q]);
+        if (ThreadLocalRandom.current().nextDouble() < readRatio) {
+            Optional<List<ProductRecord>> hit = cache.get(key);
+            if (hit.isPresent()) return hit;
+        }
+        cache.put(key, results.get(q));
+        return key;
+    }
+
+    private static String key(Query q) {
+        return RecommendationKeyUtil.buildKey(q.minPrice(), q.maxPrice(), q.type(), q.category(), q.age());
+    }
+}
@@ -0,0 +1,63 @@
+package org.responsive.productsvc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.index.CatalogIndex;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * {@code recommendSimilarProducts} before and after the catalog index: the old path scans the whole
+ * catalog, sorts the matches by price distance and takes the first {@code limit}; the index walks the
+ * base product's price columns outward. The old path is measured in memory, without the findAll round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimilarProductsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int catalogSize;
+
+    @Param({"20"})
+    public int typeCount;
+
+    @Param({"5", "50"})
+    public int limit;
+
+    private List<ProductRecord> catalog;
+    private CatalogIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        catalog = Arrays.asList(BenchmarkCatalog.products(catalogSize, BenchmarkCatalog.types(typeCount)));
+        index = new CatalogIndex(true);
+        index.beginLoad();
+        index.completeLoad(catalog);
+    }
+
+    @Benchmark
+    public List<ProductRecord> scanAndSort() {
+        ProductRecord base = catalog.get(ThreadLocalRandom.current().nextInt(catalogSize));
+        return catalog.stream()
+                      .filter(p -> !p.id().equals(base.id()))
+                      .filter(p -> p.type().equalsIgnoreCase(base.type())
+                          || p.category().equalsIgnoreCase(base.category()))
+                      .sorted(Comparator.comparingLong(p -> Math.abs(p.price() - base.price())))
+                      .limit(limit)
+                      .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductRecord> catalogIndex() {
+        return index.similar("p" + ThreadLocalRandom.current().nextInt(catalogSize), limit);
+    }
+}
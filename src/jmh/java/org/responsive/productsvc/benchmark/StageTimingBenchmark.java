@@ -0,0 +1,111 @@
+package org.responsive.productsvc.benchmark;
+
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
+import org.responsive.productsvc.cache.KeyBasedLRUCache;
+import org.responsive.productsvc.cache.MissingProductGuard;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import org.responsive.productsvc.config.StageTimingFilter;
+import org.responsive.productsvc.controller.ProductRecommendationController;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.index.CatalogIndex;
+import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.service.ProductReadThrough;
+import org.responsive.productsvc.service.impl.ProductRecommendationServiceImpl;
+import org.responsive.productsvc.util.StageTimer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Cost of per-stage timing on {@code GET /api/recommendations/{productId}} (answered from the CatalogIndex):
+ * {@code OFF} has no registry and no {@link StageTimingFilter}, {@code ON} records every stage into Prometheus
+ * histograms, {@code SAMPLED} additionally builds the {@code Server-Timing} header on every request. The request
+ * runs through MockMvc, so controller dispatch and Jackson are included but no socket.
+ *
+ * MockMvc timings vary far more than the instrumentation costs, so {@code instrumentation} measures the
+ * added work of one such request on its own: the filter's bookkeeping plus the two stages it records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StageTimingBenchmark {
+
+    public enum Timing { OFF, ON, SAMPLED }
+
+    @Param({"OFF", "ON", "SAMPLED"})
+    public Timing timing;
+
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"5"})
+    public int limit;
+
+    private ProductRecommendationServiceImpl service;
+    private MockMvc mockMvc;
+    private StageTimer.Operation operation;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<ProductRecord> catalog = Arrays.asList(BenchmarkCatalog.products(catalogSize, BenchmarkCatalog.types(20)));
+        CatalogIndex index = new CatalogIndex(true);
+        index.beginLoad();
+        index.completeLoad(catalog);
+
+        StageTimer stageTimer = timing == Timing.OFF
+            ? StageTimer.noop()
+            : new StageTimer(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        operation = stageTimer.operation("recommendations.similar");
+        RecommendationCache recommendationCache = new CompositeKeyRecommendationCache(1000);
+        ProductReadThrough reads = new ProductReadThrough(new KeyBasedLRUCache(1000), recommendationCache,
+                                                          new MissingProductGuard(1000, 0.01, Duration.ofMinutes(1), 100),
+                                                          index);
+        service = new ProductRecommendationServiceImpl(Mockito.mock(ProductRepository.class), recommendationCache,
+                                                       reads, new SingleFlightLoader(Duration.ofSeconds(2)), stageTimer);
+        StandaloneMockMvcBuilder builder = MockMvcBuilders.standaloneSetup(new ProductRecommendationController(service));
+        if (timing != Timing.OFF) {
+            builder.addFilters(new StageTimingFilter(timing == Timing.SAMPLED ? 1.0 : 0.0, "X-Debug-Timing"));
+        }
+        mockMvc = builder.build();
+    }
+
+    @Benchmark
+    public MvcResult request() throws Exception {
+        return mockMvc.perform(get("/api/recommendations/p" + ThreadLocalRandom.current().nextInt(catalogSize))
+                                   .param("limit", String.valueOf(limit)))
+                      .andReturn();
+    }
+
+    @Benchmark
+    public String instrumentation() {
+        StageTimer.Request request = StageTimer.begin(timing == Timing.SAMPLED);
+        long t = operation.start();
+        t = operation.stop(StageTimer.Stage.FILTER_SORT, t);
+        String header = request.serverTiming();
+        operation.stop(StageTimer.Stage.SERIALIZATION, t);
+        StageTimer.end();
+        return header;
+    }
+
+    @Benchmark
+    public List<ProductRecord> serviceOnly() {
+        return service.recommendSimilarProducts("p" + ThreadLocalRandom.current().nextInt(catalogSize), limit);
+    }
+}
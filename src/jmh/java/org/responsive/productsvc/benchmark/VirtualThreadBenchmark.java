@@ -0,0 +1,107 @@
+package org.responsive.productsvc.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.factory.CacheFactory;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.concurrent.*;
+
+/**
+ * Request handling on a fixed pool of platform threads (Tomcat's default 200 workers) versus one virtual
+ * thread per request, during a slow-Mongo incident.
+ *
+ * Each operation is a burst of {@code requests} getById calls against a real {@link ProductCache}. A
+ * {@code missRatio} share of them misses and "queries Mongo": it takes one of {@code mongoPoolSize}
+ * connections and sleeps {@code mongoLatencyMs}. The score is the time until every cache hit of the burst
+ * has been answered, i.e. how long hits queue behind blocked misses. Misses are drained before the next
+ * burst.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"PLATFORM_POOL", "VIRTUAL"})
+    public String executor;
+
+    @Param({"20", "100"})
+    public int mongoLatencyMs;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"0.2"})
+    public double missRatio;
+
+    @Param({"100"})
+    public int mongoPoolSize;
+
+    @Param({"KEY_BASED"})
+    public String strategy;
+
+    private ExecutorService pool;
+    private ProductCache cache;
+    private ProductRecord[] catalog;
+    private Semaphore mongoConnections;
+    private CountDownLatch missesDone;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = "VIRTUAL".equals(executor)
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(200);
+        catalog = BenchmarkCatalog.products(requests, BenchmarkCatalog.types(20));
+        cache = new CacheFactory().create(strategy, requests);
+        mongoConnections = new Semaphore(mongoPoolSize);
+        int misses = (int) (requests * missRatio);
+        // the first `misses` products are never cached
+        for (int i = misses; i < requests; i++) cache.put(catalog[i]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public void hitLatencyDuringSlowMongo() throws InterruptedException {
+        int misses = (int) (requests * missRatio);
+        CountDownLatch hitsDone = new CountDownLatch(requests - misses);
+        missesDone = new CountDownLatch(misses);
+        // interleave hits and misses the way they arrive
+        for (int i = 0; i < requests; i++) {
+            int index = (int) ((i * 7919L) % requests);
+            pool.execute(() -> {
+                if (cache.getById(catalog[index].id()).isPresent()) {
+                    hitsDone.countDown();
+                } else {
+                    queryMongo();
+                    missesDone.countDown();
+                }
+            });
+        }
+        hitsDone.await();
+    }
+
+    @TearDown(Level.Invocation)
+    public void drainMisses() throws InterruptedException {
+        missesDone.await();
+    }
+
+    private void queryMongo() {
+        try {
+            mongoConnections.acquire();
+            try {
+                Thread.sleep(mongoLatencyMs);
+            } finally {
+                mongoConnections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.responsive.productsvc.cache;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * The hottest product ids and recommendation keys, saved at shutdown so the next start can warm the caches.
+ * Only keys are kept: warmup reloads every value from Mongo, so a stale value never survives a restart.
+ *
+ * File layout (big-endian), written and read through a memory mapping:
+ * <pre>
+ *   int   magic "PCSN"
+ *   short version (1)
+ *   long  created-at epoch millis
+ *   int   product id count, int recommendation key count
+ *   keys  u16 UTF-8 length + bytes each, product ids then recommendation keys, hottest first
+ *   int   CRC32 of everything above
+ * </pre>
+ * A file of another version, a truncated file or a checksum mismatch is rejected as a whole.
+ */
+public record CacheSnapshot(Instant createdAt, List<String> productIds, List<String> recommendationKeys) {
+
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x5043534E; // "PCSN"
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Long.BYTES + 2 * Integer.BYTES;
+    private static final int MAX_KEY_BYTES = 0xFFFF;
+
+    public CacheSnapshot {
+        productIds = List.copyOf(productIds);
+        recommendationKeys = List.copyOf(recommendationKeys);
+    }
+
+    /** Writes to a sibling temp file and moves it over {@code path}, so a crash never leaves half a snapshot. */
+    public void write(Path path) throws IOException {
+        List<byte[]> products = encode(productIds);
+        List<byte[]> recommendations = encode(recommendationKeys);
+        long size = HEADER_BYTES + Integer.BYTES;
+        for (byte[] key : products) size += Short.BYTES + key.length;
+        for (byte[] key : recommendations) size += Short.BYTES + key.length;
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC);
+            out.putShort((short) VERSION);
+            out.putLong(createdAt.toEpochMilli());
+            out.putInt(products.size());
+            out.putInt(recommendations.size());
+            for (byte[] key : products) putKey(out, key);
+            for (byte[] key : recommendations) putKey(out, key);
+            out.putInt(checksum(out, out.position()));
+            out.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * The snapshot at {@code path}, or empty if there is none.
+     *
+     * @throws IOException if the file cannot be read, is of an unknown version or is corrupt
+     */
+    public static Optional<CacheSnapshot> read(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a cache snapshot: " + path);
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (in.getInt() != MAGIC) throw new IOException("Not a cache snapshot: " + path);
+            int version = in.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported cache snapshot version " + version + " (expected " + VERSION + ")");
+            }
+            int end = (int) size - Integer.BYTES;
+            if (in.getInt(end) != checksum(in, end)) throw new IOException("Cache snapshot checksum mismatch: " + path);
+
+            Instant createdAt = Instant.ofEpochMilli(in.getLong());
+            int productCount = in.getInt();
+            int recommendationCount = in.getInt();
+            List<String> productIds = readKeys(in, productCount, end);
+            List<String> recommendationKeys = readKeys(in, recommendationCount, end);
+            return Optional.of(new CacheSnapshot(createdAt, productIds, recommendationKeys));
+        } catch (RuntimeException e) {
+            // BufferUnderflowException / IndexOutOfBounds from a file whose counts lie
+            throw new IOException("Corrupt cache snapshot: " + path, e);
+        }
+    }
+
+    private static List<byte[]> encode(List<String> keys) {
+        List<byte[]> encoded = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            // a key this long is not worth warming; skip rather than truncate
+            if (bytes.length <= MAX_KEY_BYTES) encoded.add(bytes);
+        }
+        return encoded;
+    }
+
+    private static void putKey(ByteBuffer out, byte[] key) {
+        out.putShort((short) key.length);
+        out.put(key);
+    }
+
+    private static List<String> readKeys(ByteBuffer in, int count, int end) throws IOException {
+        if (count < 0 || count > (end - in.position()) / Short.BYTES) throw new IOException("Corrupt cache snapshot");
+        List<String> keys = new ArrayList<>(count);
+        byte[] buffer = new byte[256];
+        for (int i = 0; i < count; i++) {
+            int length = Short.toUnsignedInt(in.getShort());
+            if (in.position() + length > end) throw new IOException("Corrupt cache snapshot");
+            if (buffer.length < length) buffer = new byte[length];
+            in.get(buffer, 0, length);
+            keys.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+        }
+        return keys;
+    }
+
+    private static int checksum(ByteBuffer buffer, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, length));
+        return (int) crc.getValue();
+    }
+}
@@ -1,63 +1,419 @@
 package org.responsive.productsvc.cache;
 
 import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.RecommendationFilter;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * A simple thread-safe LRU cache for recommendation results keyed by composite query params.
+ *
+ * Results are stored once as immutable lists and handed out without copying. Entries are keyed by
+ * {@link RecommendationKey}; {@link #getIfPresent} looks them up through a probe key owned by the cache and
+ * guarded by its lock, so a hit allocates nothing.
+ *
+ * Every cached key carries its {@link RecommendationFilter} and is indexed twice: by scope (its
+ * type, else its category, else unscoped) and by the ids of the products in its result. A product write
+ * then only has to look at the keys scoped to the product's type or category, the unscoped keys and the
+ * keys whose result contains the product.
+ *
+ * With a TTL every entry records when it was written. A read past the TTL removes the entry and misses; a
+ * {@link TimerWheel} advanced on every operation drops the expired entries nobody reads. Once an entry is
+ * within {@code refreshAhead} of its TTL, the next read hands its key to the refresher on the bounded
+ * {@code refreshExecutor} and keeps returning the old value until the new one is stored. A refresh whose
+ * entry was invalidated or replaced in the meantime is discarded; a full or failing executor just lets the
+ * entry expire.
  */
 public class CompositeKeyRecommendationCache implements RecommendationCache {
 
+    private static final String UNSCOPED = "";
+
+    // ticks per TTL on the timer wheel: expired entries linger at most ttl / TICKS_PER_TTL
+    private static final int TICKS_PER_TTL = 64;
+
     private final int capacity;
-    private final Map<String, List<ProductRecord>> map;
-    private final Object lock = new Object();
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+    private final TimerWheel<RecommendationKey> expiryWheel;
+    private volatile Function<String, List<ProductRecord>> refresher;
+    private final LinkedHashMap<RecommendationKey, Entry> map;
+    private final Map<String, Set<RecommendationKey>> keysByScope = new HashMap<>();
+    private final Map<String, Set<RecommendationKey>> keysByProductId = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private long evictions;
+    private long weight;
+    private long expirations;
+    private long refreshes;
+    private final Set<RecommendationKey> refreshing = new HashSet<>();
+    private final RecommendationKey probe = RecommendationKey.probe();
+
+    private record Entry(List<ProductRecord> value, long weight, long writtenAt) {}
 
+    /** Entries never expire; only LRU and invalidation remove them. */
     public CompositeKeyRecommendationCache(int capacity) {
+        this(capacity, Duration.ZERO, Duration.ZERO, Runnable::run, System::nanoTime);
+    }
+
+    /**
+     * @param ttl             maximum age of a served result; zero disables expiry
+     * @param refreshAhead    how long before the TTL a read triggers a background refresh; zero disables it
+     * @param refreshExecutor runs refreshes; should be bounded and reject rather than queue without limit
+     */
+    public CompositeKeyRecommendationCache(int capacity, Duration ttl, Duration refreshAhead, Executor refreshExecutor,
+                                           LongSupplier nanoClock) {
         this.capacity = Math.max(1, capacity);
-        // LinkedHashMap with access-order inside synchronized wrapper
-        this.map = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f, true) {
+        this.ttlNanos = Math.max(0, ttl.toNanos());
+        long ahead = Math.min(Math.max(0, refreshAhead.toNanos()), ttlNanos);
+        this.refreshAfterNanos = ttlNanos == 0 || ahead == 0 ? Long.MAX_VALUE : ttlNanos - ahead;
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+        this.expiryWheel = ttlNanos == 0 ? null
+            : new TimerWheel<>(Math.max(1, ttlNanos / TICKS_PER_TTL), 2 * TICKS_PER_TTL, nanoClock.getAsLong());
+        // LinkedHashMap with access-order, guarded by lock
+        this.map = new LinkedHashMap<>(capacity, 0.75f, true) {
             private static final long serialVersionUID = 1L;
             @Override
-            protected boolean removeEldestEntry(Map.Entry<String, List<ProductRecord>> eldest) {
-                return size() > CompositeKeyRecommendationCache.this.capacity;
+            protected boolean removeEldestEntry(Map.Entry<RecommendationKey, Entry> eldest) {
+                if (size() <= CompositeKeyRecommendationCache.this.capacity) return false;
+                unindex(eldest.getKey(), eldest.getValue());
+                evictions++;
+                return true;
             }
-        });
+        };
+    }
+
+    /**
+     * Recomputes the result of a key for refresh-ahead; without one, entries simply expire. Set once: a second
+     * refresher would silently replace the first.
+     */
+    @Override
+    public void refreshWith(Function<String, List<ProductRecord>> refresher) {
+        lock.lock();
+        try {
+            if (this.refresher != null) throw new IllegalStateException("recommendation refresher already set");
+            this.refresher = refresher;
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public Optional<List<ProductRecord>> get(String key) {
         if (key == null) return Optional.empty();
-        List<ProductRecord> v;
-        synchronized (lock) {
-            v = map.get(key);
-            if (v == null) return Optional.empty();
-            // return a defensive copy
-            return Optional.of(Collections.unmodifiableList(new ArrayList<>(v)));
+        return Optional.ofNullable(get(RecommendationKey.parse(key)));
+    }
+
+    @Override
+    public List<ProductRecord> getIfPresent(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        return get(null, minPrice, maxPrice, type, category, age);
+    }
+
+    private List<ProductRecord> get(RecommendationKey key) {
+        return get(key, null, null, null, null, null);
+    }
+
+    // looks up key, or the probe set to the params when key is null
+    private List<ProductRecord> get(RecommendationKey key, Long minPrice, Long maxPrice, String type,
+                                    String category, Integer age) {
+        RecommendationKey toRefresh = null;
+        Entry hit;
+        lock.lock();
+        try {
+            long now = nanoClock.getAsLong();
+            expireDueLocked(now);
+            if (key == null) key = probe.set(minPrice, maxPrice, type, category, age);
+            Entry e = map.get(key);
+            if (e == null) return null;
+            long elapsed = now - e.writtenAt();
+            if (ttlNanos > 0 && elapsed >= ttlNanos) {
+                removeLocked(key);
+                expirations++;
+                return null;
+            }
+            if (elapsed >= refreshAfterNanos && refresher != null) {
+                // the probe is reused: refresh under the stored key
+                RecommendationKey stored = storedKeyLocked(key);
+                if (refreshing.add(stored)) toRefresh = stored;
+            }
+            hit = e;
+        } finally {
+            lock.unlock();
         }
+        if (toRefresh != null) refreshAsync(toRefresh, hit);
+        return hit.value();
     }
 
     @Override
     public void put(String key, List<ProductRecord> value) {
         if (key == null || value == null) return;
-        synchronized (lock) {
-            map.put(key, new ArrayList<>(value));
+        RecommendationKey parsed = RecommendationKey.parse(key);
+        // stored once, shared by every hit
+        List<ProductRecord> shared = List.copyOf(value);
+        lock.lock();
+        try {
+            putLocked(parsed, shared);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putLocked(RecommendationKey key, List<ProductRecord> value) {
+        long now = nanoClock.getAsLong();
+        expireDueLocked(now);
+        Entry entry = new Entry(value, ProductWeigher.weigh(value), now);
+        removeLocked(key);
+        map.put(key, entry);
+        index(key, entry);
+        if (expiryWheel != null) expiryWheel.schedule(key, now + ttlNanos);
+    }
+
+    /** Drops the entries whose TTL has passed; also done as part of every read and write. */
+    public void cleanUp() {
+        lock.lock();
+        try {
+            expireDueLocked(nanoClock.getAsLong());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void expireDueLocked(long now) {
+        if (expiryWheel == null || !expiryWheel.due(now)) return;
+        expiryWheel.advance(now, key -> {
+            // the wheel still holds timers of rewritten and removed keys
+            Entry e = map.get(key);
+            if (e != null && now - e.writtenAt() >= ttlNanos) {
+                removeLocked(key);
+                expirations++;
+            }
+        });
+    }
+
+    private void refreshAsync(RecommendationKey key, Entry previous) {
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    List<ProductRecord> fresh = refresher.apply(key.toString());
+                    List<ProductRecord> shared = fresh == null ? null : List.copyOf(fresh);
+                    lock.lock();
+                    try {
+                        // invalidated or rewritten while loading: the fresh result may predate that write
+                        if (shared != null && map.get(key) == previous) {
+                            putLocked(key, shared);
+                            refreshes++;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                } catch (RuntimeException e) {
+                    // keep serving the old value; it expires at its TTL
+                } finally {
+                    doneRefreshing(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            doneRefreshing(key);
+        }
+    }
+
+    private void doneRefreshing(RecommendationKey key) {
+        lock.lock();
+        try {
+            refreshing.remove(key);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void remove(String key) {
         if (key == null) return;
-        synchronized (lock) {
-            map.remove(key);
+        RecommendationKey parsed = RecommendationKey.parse(key);
+        lock.lock();
+        try {
+            removeLocked(parsed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(String productId, ProductRecord current) {
+        lock.lock();
+        try {
+            Set<RecommendationKey> stale = new HashSet<>();
+            collectStaleLocked(productId, current, stale);
+            stale.forEach(this::removeLocked);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidateAll(Collection<ProductRecord> saved) {
+        lock.lock();
+        try {
+            Set<RecommendationKey> stale = new HashSet<>();
+            for (ProductRecord p : saved) {
+                collectStaleLocked(p.id(), p, stale);
+            }
+            stale.forEach(this::removeLocked);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void clear() {
-        synchronized (lock) {
+        lock.lock();
+        try {
             map.clear();
+            keysByScope.clear();
+            keysByProductId.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
         }
     }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long expirations() {
+        lock.lock();
+        try {
+            return expirations;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long refreshes() {
+        lock.lock();
+        try {
+            return refreshes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int scheduledExpiries() {
+        lock.lock();
+        try {
+            return expiryWheel == null ? 0 : expiryWheel.scheduled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> hotKeys(int limit) {
+        lock.lock();
+        try {
+            return HotKeys.mostRecentFirst(map, limit).stream().map(RecommendationKey::toString).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void collectStaleLocked(String productId, ProductRecord current, Set<RecommendationKey> stale) {
+        stale.addAll(keysByProductId.getOrDefault(productId, Set.of()));
+        if (current == null) return;
+        for (String scope : scopesOf(current)) {
+            for (RecommendationKey key : keysByScope.getOrDefault(scope, Set.of())) {
+                if (!stale.contains(key) && key.filter().matches(current)) stale.add(key);
+            }
+        }
+    }
+
+    // the key instance held by the map, for a lookup made with the probe
+    private RecommendationKey storedKeyLocked(RecommendationKey key) {
+        if (key != probe) return key;
+        String scope = scopeOf(probe.filter());
+        for (RecommendationKey stored : keysByScope.getOrDefault(scope, Set.of())) {
+            if (stored.equals(probe)) return stored;
+        }
+        return RecommendationKey.of(probe.filter());
+    }
+
+    private void removeLocked(RecommendationKey key) {
+        Entry removed = map.remove(key);
+        if (removed != null) unindex(key, removed);
+    }
+
+    private void index(RecommendationKey key, Entry entry) {
+        weight += entry.weight();
+        keysByScope.computeIfAbsent(scopeOf(key.filter()), k -> new HashSet<>()).add(key);
+        for (ProductRecord p : entry.value()) {
+            keysByProductId.computeIfAbsent(p.id(), k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private void unindex(RecommendationKey key, Entry entry) {
+        weight -= entry.weight();
+        String scope = scopeOf(key.filter());
+        var scoped = keysByScope.get(scope);
+        if (scoped != null) {
+            scoped.remove(key);
+            if (scoped.isEmpty()) keysByScope.remove(scope);
+        }
+        for (ProductRecord p : entry.value()) {
+            var keys = keysByProductId.get(p.id());
+            if (keys == null) continue;
+            keys.remove(key);
+            if (keys.isEmpty()) keysByProductId.remove(p.id());
+        }
+    }
+
+    private static String scopeOf(RecommendationFilter filter) {
+        if (filter.type() != null) return "type:" + filter.type();
+        if (filter.category() != null) return "category:" + filter.category();
+        return UNSCOPED;
+    }
+
+    private static List<String> scopesOf(ProductRecord p) {
+        List<String> scopes = new ArrayList<>(3);
+        if (p.type() != null) scopes.add("type:" + p.type().trim().toLowerCase());
+        if (p.category() != null) scopes.add("category:" + p.category().trim().toLowerCase());
+        scopes.add(UNSCOPED);
+        return scopes;
+    }
 }
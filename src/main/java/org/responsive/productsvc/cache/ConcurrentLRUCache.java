@@ -0,0 +1,264 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-striped LRU. Ids are hashed onto a fixed, power-of-two number of segments; each segment is an
+ * access-ordered LinkedHashMap with its own lock and a share of the capacity. Readers of different
+ * segments never contend, and the total never exceeds {@code capacity}. Eviction is per segment, so the
+ * global order is an approximation of LRU.
+ *
+ * With {@code maxBytes} set, the total {@link ProductWeigher} weight of all segments is kept within it: an
+ * insert evicts its own segment's least recently used entries first and, if that is not enough, takes the
+ * rest from the other segments one at a time. A product heavier than the whole budget is not cached, and its
+ * previous version is dropped.
+ */
+public class ConcurrentLRUCache implements ProductCache {
+
+    // Segments smaller than this degrade LRU quality more than striping helps
+    private static final int MIN_SEGMENT_CAPACITY = 16;
+
+    private final int capacity;
+    private final long maxBytes;
+    private final Segment[] segments;
+    private final int segmentMask;
+    // total weight of all segments, kept only with maxBytes set
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    public ConcurrentLRUCache(int capacity) {
+        this(capacity, defaultConcurrencyLevel(), 0);
+    }
+
+    /**
+     * A cache with the default number of segments whose entries weigh at most {@code maxBytes} in total (zero
+     * for no bound). A factory rather than a {@code (int, long)} constructor, which an int argument would
+     * silently turn into a concurrency level.
+     */
+    public static ConcurrentLRUCache withMaxBytes(int capacity, long maxBytes) {
+        return new ConcurrentLRUCache(capacity, defaultConcurrencyLevel(), maxBytes);
+    }
+
+    /** @param maxBytes bound on the total weight of the entries; zero for none */
+    public ConcurrentLRUCache(int capacity, int concurrencyLevel, long maxBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.maxBytes = Math.max(0, maxBytes);
+        int wanted = concurrencyLevel <= 1 ? 1 : Integer.highestOneBit(concurrencyLevel - 1) << 1;
+        int allowed = Integer.highestOneBit(Math.max(1, this.capacity / MIN_SEGMENT_CAPACITY));
+        int count = Math.min(wanted, allowed);
+
+        this.segments = new Segment[count];
+        this.segmentMask = count - 1;
+        int base = this.capacity / count;
+        int remainder = this.capacity % count;
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(base + (i < remainder ? 1 : 0), this.maxBytes > 0 ? totalWeight : null);
+        }
+    }
+
+    private static int defaultConcurrencyLevel() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        if (id == null) return Optional.empty();
+        Segment segment = segmentFor(id);
+        segment.lock();
+        try {
+            return Optional.ofNullable(segment.map.get(id));
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        if (type == null) return Collections.emptyList();
+        List<ProductRecord> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                for (ProductRecord p : segment.map.values()) {
+                    if (type.equals(p.type())) result.add(p);
+                }
+            } finally {
+                segment.unlock();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        long productWeight = ProductWeigher.weigh(product);
+        if (maxBytes > 0 && productWeight > maxBytes) {
+            // would evict everything else and then itself
+            remove(product.id());
+            return;
+        }
+        int index = segmentIndex(product.id());
+        Segment segment = segments[index];
+        segment.lock();
+        try {
+            var previous = segment.map.put(product.id(), product);
+            segment.addWeight(productWeight - ProductWeigher.weigh(previous));
+            // the product just put is the most recent entry, so it is never the one evicted here
+            while (overBudget() && segment.map.size() > 1) segment.evictEldest();
+        } finally {
+            segment.unlock();
+        }
+        if (overBudget()) trimOthers(index);
+    }
+
+    private boolean overBudget() {
+        return maxBytes > 0 && totalWeight.get() > maxBytes;
+    }
+
+    // starts after the inserting segment so the overflow is spread, and holds one segment lock at a time
+    private void trimOthers(int index) {
+        for (int i = 1; i < segments.length && overBudget(); i++) {
+            Segment other = segments[(index + i) & segmentMask];
+            other.lock();
+            try {
+                while (overBudget() && !other.map.isEmpty()) other.evictEldest();
+            } finally {
+                other.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) return;
+        Segment segment = segmentFor(id);
+        segment.lock();
+        try {
+            segment.addWeight(-ProductWeigher.weigh(segment.map.remove(id)));
+        } finally {
+            segment.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                segment.map.clear();
+                segment.addWeight(-segment.weight);
+            } finally {
+                segment.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                size += segment.map.size();
+            } finally {
+                segment.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long evictions() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                evictions += segment.evictions;
+            } finally {
+                segment.unlock();
+            }
+        }
+        return evictions;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                bytes += segment.weight;
+            } finally {
+                segment.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    /** The per-segment LRU orders interleaved; recency across segments is approximate. */
+    @Override
+    public List<String> hotIds(int limit) {
+        List<List<String>> perSegment = new ArrayList<>(segments.length);
+        for (Segment segment : segments) {
+            segment.lock();
+            try {
+                perSegment.add(HotKeys.mostRecentFirst(segment.map, limit));
+            } finally {
+                segment.unlock();
+            }
+        }
+        return HotKeys.interleave(perSegment, limit);
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    private Segment segmentFor(String id) {
+        return segments[segmentIndex(id)];
+    }
+
+    private int segmentIndex(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & segmentMask;
+    }
+
+    private static final class Segment extends ReentrantLock {
+        private static final long serialVersionUID = 1L;
+
+        private final LinkedHashMap<String, ProductRecord> map;
+        // shared by all segments; null without a byte budget
+        private final AtomicLong totalWeight;
+        // guarded by this lock
+        private long evictions;
+        private long weight;
+
+        Segment(int capacity, AtomicLong totalWeight) {
+            this.totalWeight = totalWeight;
+            this.map = new LinkedHashMap<>(capacity, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ProductRecord> eldest) {
+                    if (size() <= capacity) return false;
+                    evictions++;
+                    addWeight(-ProductWeigher.weigh(eldest.getValue()));
+                    return true;
+                }
+            };
+        }
+
+        void addWeight(long delta) {
+            weight += delta;
+            if (totalWeight != null) totalWeight.addAndGet(delta);
+        }
+
+        void evictEldest() {
+            evictions++;
+            addWeight(-ProductWeigher.weigh(map.pollFirstEntry().getValue()));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.responsive.productsvc.cache;
+
+/**
+ * Count-min sketch of 4-bit counters used as the TinyLFU admission filter. Four counters per key are
+ * spread over a table of longs (16 counters each); the estimate is their minimum. After a sample of
+ * 10x capacity increments every counter is halved, so the popularity of old keys fades.
+ * Not thread-safe: the owning cache guards it.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int capacity) {
+        int expected = Math.max(16, capacity);
+        int length = Integer.highestOneBit(expected - 1) << 1;
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * expected;
+    }
+
+    int frequency(String key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long h = slot(hash, depth);
+            int shift = counterShift(h);
+            frequency = Math.min(frequency, (int) ((table[index(h)] >>> shift) & MAX_COUNT));
+        }
+        return frequency;
+    }
+
+    void increment(String key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int depth = 0; depth < SEEDS.length; depth++) {
+            long h = slot(hash, depth);
+            int index = index(h);
+            int shift = counterShift(h);
+            if (((table[index] >>> shift) & MAX_COUNT) != MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private static long slot(int hash, int depth) {
+        long h = (hash + SEEDS[depth]) * SEEDS[depth];
+        return h + (h >>> 32);
+    }
+
+    private int index(long h) {
+        return (int) h & tableMask;
+    }
+
+    private static int counterShift(long h) {
+        return (int) ((h >>> 40) & 15) << 2;
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 17;
+        h *= 0xed5ad4bb;
+        h ^= h >>> 11;
+        h *= 0xac4c1b51;
+        return h ^ (h >>> 15);
+    }
+}
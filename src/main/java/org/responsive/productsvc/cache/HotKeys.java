@@ -0,0 +1,45 @@
+package org.responsive.productsvc.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.SequencedMap;
+import java.util.Set;
+
+/**
+ * Helpers for {@link ProductCache#hotIds} and {@link RecommendationCache#hotKeys}: the keys of access-ordered
+ * maps, most recently used first.
+ */
+final class HotKeys {
+
+    private HotKeys() {}
+
+    /** Up to {@code limit} keys of an access-ordered map, most recently used first. Caller holds its lock. */
+    static <K> List<K> mostRecentFirst(SequencedMap<K, ?> lru, int limit) {
+        List<K> keys = new ArrayList<>(Math.min(Math.max(0, limit), lru.size()));
+        for (K key : lru.sequencedKeySet().reversed()) {
+            if (keys.size() >= limit) break;
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Round-robin merge of per-segment hottest-first lists: the hottest key of every segment, then the
+     * second hottest of every segment, and so on.
+     */
+    static List<String> interleave(List<List<String>> lists, int limit) {
+        Set<String> merged = new LinkedHashSet<>();
+        for (int rank = 0; merged.size() < limit; rank++) {
+            boolean any = false;
+            for (List<String> list : lists) {
+                if (rank >= list.size()) continue;
+                any = true;
+                merged.add(list.get(rank));
+                if (merged.size() >= limit) break;
+            }
+            if (!any) break;
+        }
+        return new ArrayList<>(merged);
+    }
+}
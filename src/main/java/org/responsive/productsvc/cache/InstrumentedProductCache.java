@@ -0,0 +1,121 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outermost {@link ProductCache} layer: counts id lookups and type lookups as hits or misses. A type lookup
+ * is {@link #getTypeIfComplete}, which decides whether the type is answered from the cache. Counters are
+ * {@link LongAdder}s, so concurrent readers do not contend on them.
+ */
+public class InstrumentedProductCache implements ProductCache {
+
+    private final ProductCache delegate;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder typeHits = new LongAdder();
+    private final LongAdder typeMisses = new LongAdder();
+
+    public InstrumentedProductCache(ProductCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        var hit = delegate.getById(id);
+        (hit.isPresent() ? hits : misses).increment();
+        return hit;
+    }
+
+    @Override
+    public Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        Map<String, ProductRecord> found = delegate.getAllById(ids);
+        hits.add(found.size());
+        misses.add(ids.size() - found.size());
+        return found;
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        return delegate.getByType(type);
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        delegate.put(product);
+    }
+
+    @Override
+    public void putAll(Collection<ProductRecord> products) {
+        delegate.putAll(products);
+    }
+
+    @Override
+    public void putType(String type, List<ProductRecord> products) {
+        delegate.putType(type, products);
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        var complete = delegate.getTypeIfComplete(type);
+        (complete.isPresent() ? typeHits : typeMisses).increment();
+        return complete;
+    }
+
+    @Override
+    public void remove(String id) {
+        delegate.remove(id);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long evictions() {
+        return delegate.evictions();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return delegate.estimatedBytes();
+    }
+
+    @Override
+    public Map<String, Integer> sizeByType() {
+        return delegate.sizeByType();
+    }
+
+    @Override
+    public List<String> hotIds(int limit) {
+        return delegate.hotIds(limit);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long typeHits() {
+        return typeHits.sum();
+    }
+
+    public long typeMisses() {
+        return typeMisses.sum();
+    }
+}
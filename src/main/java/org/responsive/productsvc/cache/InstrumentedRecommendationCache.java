@@ -0,0 +1,107 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Outermost {@link RecommendationCache} layer: counts lookups as hits or misses with {@link LongAdder}s.
+ */
+public class InstrumentedRecommendationCache implements RecommendationCache {
+
+    private final RecommendationCache delegate;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public InstrumentedRecommendationCache(RecommendationCache delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> get(String key) {
+        var hit = delegate.get(key);
+        (hit.isPresent() ? hits : misses).increment();
+        return hit;
+    }
+
+    @Override
+    public List<ProductRecord> getIfPresent(Long minPrice, Long maxPrice, String type, String category,
+                                            Integer age) {
+        List<ProductRecord> hit = delegate.getIfPresent(minPrice, maxPrice, type, category, age);
+        (hit != null ? hits : misses).increment();
+        return hit;
+    }
+
+    @Override
+    public void put(String key, List<ProductRecord> value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void remove(String key) {
+        delegate.remove(key);
+    }
+
+    @Override
+    public void invalidate(String productId, ProductRecord current) {
+        delegate.invalidate(productId, current);
+    }
+
+    @Override
+    public void invalidateAll(Collection<ProductRecord> saved) {
+        delegate.invalidateAll(saved);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long evictions() {
+        return delegate.evictions();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return delegate.estimatedBytes();
+    }
+
+    @Override
+    public long expirations() {
+        return delegate.expirations();
+    }
+
+    @Override
+    public long refreshes() {
+        return delegate.refreshes();
+    }
+
+    @Override
+    public void refreshWith(Function<String, List<ProductRecord>> refresher) {
+        delegate.refreshWith(refresher);
+    }
+
+    @Override
+    public List<String> hotKeys(int limit) {
+        return delegate.hotKeys(limit);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+}
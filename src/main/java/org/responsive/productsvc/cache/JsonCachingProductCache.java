@@ -0,0 +1,103 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wraps the configured {@link ProductCache} and drops a product's {@link ProductJsonCache} entry whenever the
+ * product is written to or removed from the cache. Hits by id and by complete type are
+ * {@link ProductJsonCache#admit admitted}, so only products served from the cache keep their JSON.
+ */
+public class JsonCachingProductCache implements ProductCache {
+
+    private final ProductCache delegate;
+    private final ProductJsonCache json;
+
+    public JsonCachingProductCache(ProductCache delegate, ProductJsonCache json) {
+        this.delegate = delegate;
+        this.json = json;
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        var hit = delegate.getById(id);
+        hit.ifPresent(json::admit);
+        return hit;
+    }
+
+    @Override
+    public Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        return delegate.getAllById(ids);
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        return delegate.getByType(type);
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        delegate.put(product);
+        json.invalidate(product.id());
+    }
+
+    @Override
+    public void putAll(Collection<ProductRecord> products) {
+        delegate.putAll(products);
+        products.forEach(p -> json.invalidate(p.id()));
+    }
+
+    @Override
+    public void putType(String type, List<ProductRecord> products) {
+        delegate.putType(type, products);
+        products.forEach(p -> json.invalidate(p.id()));
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        var complete = delegate.getTypeIfComplete(type);
+        complete.ifPresent(products -> products.forEach(json::admit));
+        return complete;
+    }
+
+    @Override
+    public void remove(String id) {
+        delegate.remove(id);
+        json.invalidate(id);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        json.clear();
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public long evictions() {
+        return delegate.evictions();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return delegate.estimatedBytes();
+    }
+
+    @Override
+    public Map<String, Integer> sizeByType() {
+        return delegate.sizeByType();
+    }
+
+    @Override
+    public List<String> hotIds(int limit) {
+        return delegate.hotIds(limit);
+    }
+}
@@ -1,53 +1,236 @@
 package org.responsive.productsvc.cache;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
 import org.responsive.productsvc.dto.ProductRecord;
 
+/**
+ * Single LRU over product ids with a secondary type index, so getByType costs O(result) rather than a
+ * scan of the whole cache. The index follows every eviction and removal.
+ *
+ * With {@code maxBytes} set, least recently used entries are also evicted until the total
+ * {@link ProductWeigher} weight is within it. A product heavier than the whole budget is not cached (and its
+ * previous version is dropped) rather than flushing every other entry.
+ */
 public class KeyBasedLRUCache implements ProductCache {
     private final int capacity;
-    private final Map<String, ProductRecord> map;
+    private final long maxBytes;
+    private final LinkedHashMap<String, ProductRecord> map;
+    private final TypeIndex typeIndex = new TypeIndex();
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private long evictions;
+    private long weight;
 
     public KeyBasedLRUCache(int capacity) {
-        this.capacity = capacity;
+        this(capacity, 0);
+    }
+
+    /** @param maxBytes bound on the total weight of the entries; zero for none */
+    public KeyBasedLRUCache(int capacity, long maxBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.maxBytes = Math.max(0, maxBytes);
         // accessOrder = true for LRU
-        this.map = Collections.synchronizedMap(new LinkedHashMap<>(capacity, 0.75f, true) {
+        this.map = new LinkedHashMap<>(this.capacity, 0.75f, true) {
             private static final long serialVersionUID = 1L;
             @Override
             protected boolean removeEldestEntry(Map.Entry<String, ProductRecord> eldest) {
-                return size() > KeyBasedLRUCache.this.capacity;
+                if (size() <= KeyBasedLRUCache.this.capacity) return false;
+                typeIndex.evict(eldest.getValue());
+                evictions++;
+                weight -= ProductWeigher.weigh(eldest.getValue());
+                return true;
             }
-        });
+        };
     }
 
     @Override
     public Optional<ProductRecord> getById(String id) {
-        return Optional.ofNullable(map.get(id));
+        lock.lock();
+        try {
+            return Optional.ofNullable(map.get(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        Map<String, ProductRecord> hits = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (String id : ids) {
+                ProductRecord p = map.get(id);
+                if (p != null) hits.put(id, p);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return hits;
     }
 
     @Override
     public List<ProductRecord> getByType(String type) {
-        synchronized (map) {
-            return map.values()
-                      .stream()
-                      .filter(p -> p.type() != null && p.type().equals(type))
-                      .collect(Collectors.toList());
+        lock.lock();
+        try {
+            return typeIndex.get(type);
+        } finally {
+            lock.unlock();
         }
     }
 
     @Override
     public void put(ProductRecord product) {
         if (product == null || product.id() == null) return;
-        map.put(product.id(), product);
+        lock.lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductRecord> products) {
+        lock.lock();
+        try {
+            for (ProductRecord product : products) {
+                if (product != null && product.id() != null) putLocked(product);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putType(String type, List<ProductRecord> products) {
+        if (type == null || products == null) return;
+        lock.lock();
+        try {
+            // anything still indexed under this type but absent from the fresh load is stale
+            Set<String> loaded = new HashSet<>();
+            products.forEach(p -> loaded.add(p.id()));
+            new ArrayList<>(typeIndex.bucket(type)).stream()
+                .filter(p -> !loaded.contains(p.id()))
+                .forEach(p -> {
+                    weight -= ProductWeigher.weigh(map.remove(p.id()));
+                    typeIndex.evict(p);
+                });
+
+            products.forEach(this::putLocked);
+            // the byte bound may have evicted some of them
+            if (products.size() <= capacity && loaded.stream().allMatch(map::containsKey)) {
+                typeIndex.markComplete(type);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        lock.lock();
+        try {
+            return typeIndex.isComplete(type) ? Optional.of(typeIndex.get(type)) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
     public void remove(String id) {
-        map.remove(id);
+        lock.lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeLocked(String id) {
+        var removed = map.remove(id);
+        if (removed != null) {
+            typeIndex.evict(removed);
+            weight -= ProductWeigher.weigh(removed);
+        }
     }
 
     @Override
     public void clear() {
-        map.clear();
+        lock.lock();
+        try {
+            map.clear();
+            typeIndex.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<String> hotIds(int limit) {
+        lock.lock();
+        try {
+            return HotKeys.mostRecentFirst(map, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putLocked(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        long productWeight = ProductWeigher.weigh(product);
+        if (maxBytes > 0 && productWeight > maxBytes) {
+            // would evict everything else and then itself
+            removeLocked(product.id());
+            return;
+        }
+        weight += productWeight;
+        var previous = map.put(product.id(), product);
+        if (previous != null) {
+            typeIndex.replace(previous);
+            weight -= ProductWeigher.weigh(previous);
+        }
+        typeIndex.add(product);
+        if (maxBytes > 0) trimToBytesLocked();
+    }
+
+    private void trimToBytesLocked() {
+        while (weight > maxBytes && !map.isEmpty()) {
+            ProductRecord eldest = map.pollFirstEntry().getValue();
+            typeIndex.evict(eldest);
+            evictions++;
+            weight -= ProductWeigher.weigh(eldest);
+        }
     }
 }
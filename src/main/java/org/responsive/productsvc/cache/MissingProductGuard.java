@@ -0,0 +1,152 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.service.ProductWriteListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Answers "does this product id definitely not exist?" without touching Mongo.
+ *
+ * A {@link BloomFilter} of every known id (filled by {@link #rebuild}, then updated on saves) rejects most
+ * unknown ids outright. Ids that pass the filter but turn out missing (false positives, deleted products)
+ * are remembered in a small negative cache for {@code negativeTtl}. Until the first rebuild completes only
+ * the negative cache is consulted.
+ *
+ * A miss is only recorded if no product write happened while the lookup ran, so a concurrent create cannot
+ * leave its own id negatively cached.
+ *
+ * Only writes made through this instance reach {@link #onSaved}. A product created through another instance
+ * reads as missing here until the next periodic {@link #rebuild}, so the rebuild interval bounds that window.
+ */
+public class MissingProductGuard implements ProductWriteListener {
+
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long negativeTtlNanos;
+    private final int negativeMaxEntries;
+
+    private volatile BloomFilter filter;
+    // receives writes while a rebuild is reading the id snapshot
+    private volatile BloomFilter building;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final ConcurrentHashMap<String, Long> negatives = new ConcurrentHashMap<>();
+    private final AtomicLong writeEpoch = new AtomicLong();
+
+    private final LongAdder filterRejections = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+
+    public MissingProductGuard(long expectedInsertions, double fpp, Duration negativeTtl, int negativeMaxEntries) {
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.negativeMaxEntries = Math.max(1, negativeMaxEntries);
+    }
+
+    /** True when {@code id} certainly does not exist; false means "look it up". */
+    public boolean isDefinitelyMissing(String id) {
+        if (id == null) return true;
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(id)) {
+            filterRejections.increment();
+            return true;
+        }
+        Long expiresAt = negatives.get(id);
+        if (expiresAt == null) return false;
+        if (expiresAt - System.nanoTime() > 0) {
+            negativeHits.increment();
+            return true;
+        }
+        negatives.remove(id, expiresAt);
+        return false;
+    }
+
+    /** Write epoch to capture before a lookup and pass to {@link #recordMiss}. */
+    public long epoch() {
+        return writeEpoch.get();
+    }
+
+    /** Remembers that {@code id} was not found by a lookup that started at {@code epochBeforeLookup}. */
+    public void recordMiss(String id, long epochBeforeLookup) {
+        if (id == null || negativeTtlNanos <= 0) return;
+        if (negatives.size() >= negativeMaxEntries) purgeExpired();
+        if (negatives.size() >= negativeMaxEntries) return;
+        negatives.put(id, System.nanoTime() + negativeTtlNanos);
+        // a write raced with the lookup: the miss may already be stale
+        if (writeEpoch.get() != epochBeforeLookup) negatives.remove(id);
+    }
+
+    /**
+     * Replaces the filter with one built from the opened {@code ids} stream. The stream is opened only after
+     * the new filter starts receiving saves, so an id saved during the rebuild is never lost.
+     */
+    public void rebuild(Supplier<Stream<String>> ids) {
+        // held across the id cursor; a ReentrantLock does not pin a virtual thread while it blocks
+        rebuildLock.lock();
+        try {
+            BloomFilter next = new BloomFilter(expectedInsertions, fpp);
+            building = next;
+            try (Stream<String> stream = ids.get()) {
+                stream.forEach(id -> {
+                    if (id != null) next.put(id);
+                });
+                filter = next;
+            } finally {
+                building = null;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        writeEpoch.incrementAndGet();
+        // read building before filter: if the rebuild finished in between, filter already is the new one
+        BloomFilter next = building;
+        BloomFilter current = filter;
+        if (next != null) next.put(product.id());
+        if (current != null) current.put(product.id());
+        negatives.remove(product.id());
+    }
+
+    @Override
+    public void onDeleted(String id) {
+        // a Bloom filter cannot forget; the next lookup misses once and is negatively cached
+        writeEpoch.incrementAndGet();
+    }
+
+    public boolean isFilterReady() {
+        return filter != null;
+    }
+
+    public long filterRejections() {
+        return filterRejections.sum();
+    }
+
+    public long negativeHits() {
+        return negativeHits.sum();
+    }
+
+    public int negativeSize() {
+        return negatives.size();
+    }
+
+    /** Memory held by the Bloom filter's bit array. */
+    public long filterBytes() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.bitCount() / 8;
+    }
+
+    private void purgeExpired() {
+        long now = System.nanoTime();
+        negatives.entrySet().removeIf(e -> e.getValue() - now <= 0);
+    }
+}
@@ -0,0 +1,205 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Product cache bounded in bytes and kept outside the Java heap. Records are encoded with
+ * {@link ProductRecordCodec} and appended to a ring of direct ByteBuffer segments; the only on-heap state
+ * is the id -> (segment, offset) index. When the ring wraps, the oldest segment is recycled and every
+ * entry still pointing into it is dropped, so eviction is FIFO at segment granularity. Overwritten and
+ * removed records leave dead bytes behind until their segment is recycled.
+ *
+ * Type queries are not served from this tier; see {@link TieredProductCache}. Direct memory is limited by
+ * {@code -XX:MaxDirectMemorySize}, which must be at least the configured capacity.
+ */
+public class OffHeapProductCache implements ProductCache {
+
+    private static final int MIN_SEGMENT_BYTES = 4 * 1024;
+    private static final int MAX_SEGMENT_BYTES = 64 * 1024 * 1024;
+    private static final int HEADER_BYTES = Integer.BYTES;
+
+    private final int segmentBytes;
+    private final ByteBuffer[] segments;
+    private final int[] writePositions;
+    private final List<List<String>> idsBySegment;
+    private final Map<String, Long> index = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int current;
+    // guarded by the write lock
+    private long evictions;
+
+    public OffHeapProductCache(long capacityBytes) {
+        long capacity = Math.max(2L * MIN_SEGMENT_BYTES, capacityBytes);
+        // at least 8 segments so that recycling one drops at most ~1/8 of the entries
+        this.segmentBytes = (int) Math.max(MIN_SEGMENT_BYTES, Math.min(MAX_SEGMENT_BYTES, capacity / 8));
+        int count = (int) Math.max(2, capacity / segmentBytes);
+
+        this.segments = new ByteBuffer[count];
+        this.writePositions = new int[count];
+        this.idsBySegment = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = ByteBuffer.allocateDirect(segmentBytes);
+            idsBySegment.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        if (id == null) return Optional.empty();
+        byte[] bytes;
+        lock.readLock().lock();
+        try {
+            Long location = index.get(id);
+            if (location == null) return Optional.empty();
+            ByteBuffer segment = segments[segmentOf(location)];
+            int offset = offsetOf(location);
+            bytes = new byte[segment.getInt(offset)];
+            segment.get(offset + HEADER_BYTES, bytes);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return Optional.of(ProductRecordCodec.decode(bytes));
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        byte[] bytes = ProductRecordCodec.encode(product);
+        int needed = HEADER_BYTES + bytes.length;
+        lock.writeLock().lock();
+        try {
+            if (needed > segmentBytes) {
+                // larger than a segment: never cacheable, and the old version must not be served
+                index.remove(product.id());
+                return;
+            }
+            if (writePositions[current] + needed > segmentBytes) {
+                current = (current + 1) % segments.length;
+                recycle(current);
+            }
+            int offset = writePositions[current];
+            ByteBuffer segment = segments[current];
+            segment.putInt(offset, bytes.length);
+            segment.put(offset + HEADER_BYTES, bytes);
+            writePositions[current] = offset + needed;
+            idsBySegment.get(current).add(product.id());
+            index.put(product.id(), ((long) current << 32) | offset);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            index.clear();
+            for (int i = 0; i < segments.length; i++) {
+                writePositions[i] = 0;
+                idsBySegment.get(i).clear();
+            }
+            current = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long evictions() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Direct memory written so far, including dead bytes of overwritten entries not yet recycled. */
+    @Override
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long used = 0;
+            for (int position : writePositions) used += position;
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Most recently written first: the order in which segments will be recycled, reversed. */
+    @Override
+    public List<String> hotIds(int limit) {
+        Set<String> ids = new LinkedHashSet<>();
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < segments.length && ids.size() < limit; i++) {
+                int segment = Math.floorMod(current - i, segments.length);
+                List<String> written = idsBySegment.get(segment);
+                for (int j = written.size() - 1; j >= 0 && ids.size() < limit; j--) {
+                    String id = written.get(j);
+                    Long location = index.get(id);
+                    // an overwritten copy comes after the live one and is dropped by the set
+                    if (location != null && segmentOf(location) == segment) ids.add(id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new ArrayList<>(ids);
+    }
+
+    public long capacityBytes() {
+        return (long) segmentBytes * segments.length;
+    }
+
+    private void recycle(int segment) {
+        for (String id : idsBySegment.get(segment)) {
+            Long location = index.get(id);
+            if (location != null && segmentOf(location) == segment) {
+                index.remove(id);
+                evictions++;
+            }
+        }
+        idsBySegment.get(segment).clear();
+        writePositions[segment] = 0;
+    }
+
+    private static int segmentOf(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offsetOf(long location) {
+        return (int) location;
+    }
+}
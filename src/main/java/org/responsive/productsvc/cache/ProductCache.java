@@ -1,13 +1,78 @@
 package org.responsive.productsvc.cache;
 
 import org.responsive.productsvc.dto.ProductRecord;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProductCache {
     Optional<ProductRecord> getById(String id);
+
+    /** The cached products among {@code ids}, keyed by id; ids that miss are absent from the map. */
+    default Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        Map<String, ProductRecord> hits = new LinkedHashMap<>();
+        ids.forEach(id -> getById(id).ifPresent(p -> hits.put(id, p)));
+        return hits;
+    }
+
+    /**
+     * Products of {@code type} that happen to be cached. This may be a partial view of the type and must not
+     * be served as the full list; {@link #getTypeIfComplete(String)} returns only a complete one.
+     */
     List<ProductRecord> getByType(String type);
+
     void put(ProductRecord product);
+
+    /** Caches a batch of writes; strategies guarded by a single lock take it once for the whole batch. */
+    default void putAll(Collection<ProductRecord> products) {
+        products.forEach(this::put);
+    }
+
+    /**
+     * Caches the full result of a repository lookup by type. Strategies that can track it mark the type
+     * complete, so later {@link #getTypeIfComplete(String)} calls may be answered without the repository.
+     */
+    default void putType(String type, List<ProductRecord> products) {
+        products.forEach(this::put);
+    }
+
+    /**
+     * The cached products of {@code type}, present only while every product of the type is cached, i.e. since
+     * the last {@link #putType} no entry of that type was evicted or removed. The check and the copy are one
+     * atomic step. Strategies that do not track this always return empty.
+     */
+    default Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        return Optional.empty();
+    }
+
     void remove(String id);
     void clear();
+
+    /** Entries currently cached. */
+    int size();
+
+    /** Entries dropped so far to make room; removals and overwrites do not count. */
+    default long evictions() {
+        return 0;
+    }
+
+    /** Approximate memory held by the cached entries (see {@link ProductWeigher}). */
+    default long estimatedBytes() {
+        return 0;
+    }
+
+    /** Cached entries per type, for strategies that partition by type; empty otherwise. */
+    default Map<String, Integer> sizeByType() {
+        return Map.of();
+    }
+
+    /**
+     * Up to {@code limit} cached ids, the ones most worth keeping first (most recently or, for TinyLFU, most
+     * frequently used). Written to the warm-restart snapshot; strategies with no usable order return none.
+     */
+    default List<String> hotIds(int limit) {
+        return List.of();
+    }
 }
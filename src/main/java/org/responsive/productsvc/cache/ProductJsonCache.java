@@ -0,0 +1,164 @@
+package org.responsive.productsvc.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * UTF-8 JSON of products served from {@link ProductCache} hits, so a repeated hit can be written to the
+ * response without running Jackson again.
+ *
+ * Only products {@link #admit}ted by {@link JsonCachingProductCache}, on a hit by id or by complete type, have
+ * their bytes kept. Everything else (catalog pages, {@code ?ids=} lookups, write responses, recommendation
+ * lists) is encoded and not stored, so a scan of the catalog cannot flush the hot set.
+ *
+ * Each entry keeps the record it was admitted with, and the bytes are only reused for that same record (by
+ * identity, which is what an on-heap {@link ProductCache} hit returns, or else by equality). A stale entry can
+ * therefore never be served; {@link JsonCachingProductCache} still drops entries on every cache write so they
+ * do not linger. At most {@code maxEntries} products are held, the least recently served evicted first.
+ */
+public class ProductJsonCache {
+
+    private static final class Entry {
+        final ProductRecord product;
+        // null until the first response after admission encodes it; guarded by lock
+        byte[] json;
+
+        Entry(ProductRecord product) {
+            this.product = product;
+        }
+
+        boolean matches(ProductRecord other) {
+            return product == other || product.equals(other);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxEntries;
+    private final ReentrantLock lock = new ReentrantLock();
+    // access order, eldest first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // JSON held, guarded by lock
+    private long bytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ProductJsonCache(ObjectMapper objectMapper, int maxEntries) {
+        this.objectMapper = objectMapper;
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /** Marks {@code product} as served from the product cache, so its JSON is kept once encoded. */
+    public void admit(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        lock.lock();
+        try {
+            Entry entry = entries.get(product.id());
+            if (entry != null && entry.matches(product)) return;
+            if (entry != null) bytes -= length(entry);
+            entries.put(product.id(), new Entry(product));
+            if (entries.size() > maxEntries) bytes -= length(entries.pollFirstEntry().getValue());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** The JSON of {@code product}; callers must not modify the returned array. */
+    public byte[] toJson(ProductRecord product) {
+        String id = product.id();
+        if (id == null) return encode(product);
+
+        Entry entry;
+        lock.lock();
+        try {
+            entry = entries.get(id);
+            if (entry != null && entry.json != null && entry.matches(product)) {
+                hits.increment();
+                return entry.json;
+            }
+        } finally {
+            lock.unlock();
+        }
+        misses.increment();
+        // encoded outside the lock; only an admitted entry for this same record keeps the bytes
+        byte[] json = encode(product);
+        if (entry != null && entry.matches(product)) {
+            lock.lock();
+            try {
+                if (entries.get(id) == entry && entry.json == null) {
+                    entry.json = json;
+                    bytes += json.length;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return json;
+    }
+
+    public void invalidate(String id) {
+        if (id == null) return;
+        lock.lock();
+        try {
+            Entry removed = entries.remove(id);
+            if (removed != null) bytes -= length(removed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            entries.clear();
+            bytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Encoded JSON held; the records themselves are the product cache's own instances. */
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return bytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static int length(Entry entry) {
+        return entry.json == null ? 0 : entry.json.length;
+    }
+
+    private byte[] encode(ProductRecord product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize product " + product.id(), e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compact binary form of a {@link ProductRecord}: varint lengths, UTF-8 strings, a fixed 8-byte price.
+ * Nullable strings and the attribute map encode their length as {@code n + 1}, with 0 meaning null.
+ */
+final class ProductRecordCodec {
+
+    private ProductRecordCodec() {}
+
+    static byte[] encode(ProductRecord p) {
+        Writer out = new Writer(64 + (p.attributes() == null ? 0 : p.attributes().size() * 24));
+        out.string(p.id());
+        out.string(p.name());
+        out.string(p.type());
+        out.string(p.category());
+        out.fixedLong(p.price());
+        out.string(p.recommendedAgeGroup());
+        Map<String, String> attributes = p.attributes();
+        if (attributes == null) {
+            out.varint(0);
+        } else {
+            out.varint(attributes.size() + 1);
+            attributes.forEach((k, v) -> {
+                out.string(k);
+                out.string(v);
+            });
+        }
+        return out.toByteArray();
+    }
+
+    static ProductRecord decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        String id = in.string();
+        String name = in.string();
+        String type = in.string();
+        String category = in.string();
+        long price = in.fixedLong();
+        String ageGroup = in.string();
+        int count = in.varint();
+        Map<String, String> attributes = null;
+        if (count > 0) {
+            attributes = new LinkedHashMap<>(Math.max(4, (count - 1) * 4 / 3 + 1));
+            for (int i = 0; i < count - 1; i++) {
+                attributes.put(in.string(), in.string());
+            }
+        }
+        return new ProductRecord(id, name, type, category, price, ageGroup, attributes);
+    }
+
+    private static final class Writer {
+        private byte[] buf;
+        private int pos;
+
+        Writer(int initial) {
+            this.buf = new byte[initial];
+        }
+
+        void varint(int value) {
+            ensure(5);
+            while ((value & ~0x7F) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void fixedLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buf[pos++] = (byte) (value >>> shift);
+            }
+        }
+
+        void string(String s) {
+            if (s == null) {
+                varint(0);
+                return;
+            }
+            byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length + 1);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, buf, pos, utf8.length);
+            pos += utf8.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        private void ensure(int extra) {
+            if (pos + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + extra));
+            }
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] buf;
+        private int pos;
+
+        Reader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        int varint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buf[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        long fixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buf[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        String string() {
+            int len = varint();
+            if (len == 0) return null;
+            String s = new String(buf, pos, len - 1, StandardCharsets.UTF_8);
+            pos += len - 1;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rough retained heap size of a cached product, for size metrics. Assumes compressed oops and compact
+ * (Latin-1) strings: a record with its strings, its attributes map and the cache's map entry. Estimates,
+ * not measurements, but proportional to what the product really costs.
+ */
+public final class ProductWeigher {
+
+    // LinkedHashMap entry (40) + ProductRecord with six references and a long (40)
+    private static final int ENTRY_OVERHEAD = 80;
+    private static final int MAP_OVERHEAD = 48;
+    private static final int MAP_ENTRY_OVERHEAD = 32;
+
+    private ProductWeigher() {}
+
+    public static long weigh(ProductRecord p) {
+        if (p == null) return 0;
+        long bytes = ENTRY_OVERHEAD
+            + string(p.id()) + string(p.name()) + string(p.type()) + string(p.category())
+            + string(p.recommendedAgeGroup());
+        Map<String, String> attributes = p.attributes();
+        if (attributes != null) {
+            bytes += MAP_OVERHEAD;
+            for (Map.Entry<String, String> e : attributes.entrySet()) {
+                bytes += MAP_ENTRY_OVERHEAD + string(e.getKey()) + string(e.getValue());
+            }
+        }
+        return bytes;
+    }
+
+    /** A cached result list, counting its products in full: the list keeps them alive on its own. */
+    public static long weigh(List<ProductRecord> products) {
+        long bytes = MAP_OVERHEAD;
+        for (ProductRecord p : products) bytes += weigh(p);
+        return bytes;
+    }
+
+    // String object (24) + byte[] header (16) + contents, padded to 8
+    private static long string(String s) {
+        if (s == null) return 0;
+        return 24 + ((16 + s.length() + 7) & ~7);
+    }
+}
@@ -1,16 +1,80 @@
 package org.responsive.productsvc.cache;
 
 import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 /**
- * Cache for recommendation query results keyed by a normalized string.
+ * Cache for recommendation query results keyed by a normalized string. Cached lists are immutable and shared
+ * between callers.
  */
 public interface RecommendationCache {
     Optional<List<ProductRecord>> get(String key);
     void put(String key, List<ProductRecord> value);
     void remove(String key);
+
+    /**
+     * The cached result for these raw query params, or null: {@link #get} without building the
+     * {@link RecommendationKeyUtil#buildKey} string, so implementations can answer a hit without allocating.
+     */
+    default List<ProductRecord> getIfPresent(Long minPrice, Long maxPrice, String type, String category,
+                                             Integer age) {
+        return get(RecommendationKeyUtil.buildKey(minPrice, maxPrice, type, category, age)).orElse(null);
+    }
+
+    /**
+     * Drops every cached result a write of {@code productId} can change: results that contain the product
+     * (they hold its previous version) and results whose filters {@code current} matches. {@code current}
+     * is null when the product was deleted. Implementations that cannot tell which results are affected
+     * clear everything.
+     */
+    default void invalidate(String productId, ProductRecord current) {
+        clear();
+    }
+
+    /** {@link #invalidate} for a batch of saved products, in one pass where the implementation allows. */
+    default void invalidateAll(Collection<ProductRecord> saved) {
+        saved.forEach(p -> invalidate(p.id(), p));
+    }
+
     void clear();
+
+    /** Results currently cached. */
+    int size();
+
+    /** Results dropped so far to make room; invalidations do not count. */
+    default long evictions() {
+        return 0;
+    }
+
+    /** Approximate memory held by the cached results (see {@link ProductWeigher}). */
+    default long estimatedBytes() {
+        return 0;
+    }
+
+    /** Results dropped so far because their TTL passed. */
+    default long expirations() {
+        return 0;
+    }
+
+    /** Results replaced so far by a background refresh before their TTL passed. */
+    default long refreshes() {
+        return 0;
+    }
+
+    /**
+     * Recomputes the result of a key; implementations with refresh-ahead call it off the request path for
+     * entries close to expiry, and reject a second refresher. Others ignore it.
+     */
+    default void refreshWith(Function<String, List<ProductRecord>> refresher) {
+    }
+
+    /** Up to {@code limit} cached keys, most recently used first, for the warm-restart snapshot. */
+    default List<String> hotKeys(int limit) {
+        return List.of();
+    }
 }
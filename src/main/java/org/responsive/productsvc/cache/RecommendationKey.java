@@ -0,0 +1,128 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+
+import java.util.Objects;
+
+/**
+ * Key of a cached recommendation result: the normalized filters of the query, with the hash computed once.
+ * {@link #toString()} is the {@link RecommendationKeyUtil#buildKey} string, used for snapshots and refreshes.
+ *
+ * Stored keys are immutable. A cache may also keep one mutable probe that it {@link #set}s from the raw query
+ * params under its lock: type and category are hashed and compared ignoring case and surrounding blanks, so
+ * a lookup neither builds the key string nor lower-cases anything. A probe never goes into a map.
+ */
+public final class RecommendationKey {
+
+    private Long minPrice;
+    private Long maxPrice;
+    private String type;
+    private String category;
+    private Integer age;
+    private int hash;
+    // stored keys only
+    private RecommendationFilter filter;
+    // a key string not built by buildKey, compared as is
+    private String opaque;
+
+    private RecommendationKey() {}
+
+    public static RecommendationKey of(RecommendationFilter filter) {
+        RecommendationKey key = new RecommendationKey();
+        key.set(filter.minPrice(), filter.maxPrice(), filter.type(), filter.category(), filter.age());
+        key.filter = filter;
+        return key;
+    }
+
+    /**
+     * The key of a {@link RecommendationKeyUtil#buildKey} string. Any other string becomes a key that only
+     * equals the same string and whose filter matches every product, so every write invalidates it.
+     */
+    public static RecommendationKey parse(String key) {
+        try {
+            return of(RecommendationKeyUtil.parseKey(key));
+        } catch (IllegalArgumentException e) {
+            RecommendationKey opaque = new RecommendationKey();
+            opaque.opaque = key;
+            opaque.filter = RecommendationFilter.ANY;
+            opaque.hash = key.hashCode();
+            return opaque;
+        }
+    }
+
+    /** A mutable key for lookups; the caller guards it. */
+    static RecommendationKey probe() {
+        return new RecommendationKey();
+    }
+
+    /** Points this probe at raw query params, as given to {@link RecommendationKeyUtil#buildKey}. */
+    RecommendationKey set(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.type = type;
+        this.category = category;
+        this.age = age;
+        int h = Objects.hashCode(minPrice);
+        h = 31 * h + Objects.hashCode(maxPrice);
+        h = 31 * h + foldedHash(type);
+        h = 31 * h + foldedHash(category);
+        this.hash = 31 * h + Objects.hashCode(age);
+        return this;
+    }
+
+    public RecommendationFilter filter() {
+        return filter != null ? filter : RecommendationFilter.of(minPrice, maxPrice, type, category, age);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RecommendationKey k) || hash != k.hash) return false;
+        if (opaque != null || k.opaque != null) return Objects.equals(opaque, k.opaque);
+        return Objects.equals(minPrice, k.minPrice) && Objects.equals(maxPrice, k.maxPrice)
+            && Objects.equals(age, k.age) && sameText(type, k.type) && sameText(category, k.category);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return opaque != null ? opaque : RecommendationKeyUtil.buildKey(minPrice, maxPrice, type, category, age);
+    }
+
+    // blank counts as absent and surrounding blanks are ignored, as in RecommendationFilter.of
+
+    private static boolean sameText(String a, String b) {
+        int aFrom = from(a), bFrom = from(b);
+        int length = to(a) - aFrom;
+        return length == to(b) - bFrom && (length == 0 || a.regionMatches(true, aFrom, b, bFrom, length));
+    }
+
+    private static int foldedHash(String s) {
+        int h = 0;
+        for (int i = from(s), end = to(s); i < end; i++) {
+            // equal under regionMatches(ignoreCase) implies equal here
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+        }
+        return h;
+    }
+
+    private static int from(String s) {
+        if (s == null || s.isBlank()) return 0;
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int to(String s) {
+        if (s == null || s.isBlank()) return 0;
+        int i = s.length();
+        int from = from(s);
+        while (i > from && s.charAt(i - 1) <= ' ') i--;
+        return i;
+    }
+}
@@ -0,0 +1,115 @@
+package org.responsive.productsvc.cache;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent cache-miss loads of the same key: the first caller runs the loader, callers that
+ * arrive while it is in flight wait on its {@link CompletableFuture} and get the same value or exception.
+ *
+ * Keys are plain strings, so callers namespace them ("product:p1", "recommendation:..."). A waiter gives up
+ * on the shared load after {@code timeout} and runs the loader itself, so a stuck load degrades to the
+ * uncoalesced behaviour instead of blocking everyone. The loader should populate the cache before it
+ * returns, so callers arriving after the flight has landed hit the cache.
+ *
+ * Every loader run is timed and reported to {@code loadTimes} with the key's namespace (the part before
+ * the first ':'), successful or not.
+ */
+public class SingleFlightLoader {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final long timeoutNanos;
+    private final ObjLongConsumer<String> loadTimes;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlightLoader(Duration timeout) {
+        this(timeout, (namespace, nanos) -> {});
+    }
+
+    public SingleFlightLoader(Duration timeout, ObjLongConsumer<String> loadTimes) {
+        this.timeoutNanos = timeout.toNanos();
+        this.loadTimes = loadTimes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (T) await(key, existing, loader);
+        }
+
+        loads.increment();
+        try {
+            T value = timed(key, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            failures.increment();
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private Object await(String key, CompletableFuture<Object> flight, Supplier<?> loader) {
+        try {
+            return flight.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return timed(key, loader);
+        } catch (ExecutionException e) {
+            // rethrow what the shared load threw
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException r) throw r;
+            if (cause instanceof Error err) throw err;
+            throw new CompletionException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for in-flight load");
+        }
+    }
+
+    private <T> T timed(String key, Supplier<T> loader) {
+        long start = System.nanoTime();
+        try {
+            return loader.get();
+        } finally {
+            int colon = key.indexOf(':');
+            loadTimes.accept(colon < 0 ? key : key.substring(0, colon), System.nanoTime() - start);
+        }
+    }
+
+    /** Loads actually executed (one per flight). */
+    public long loads() {
+        return loads.sum();
+    }
+
+    /** Calls that joined an in-flight load instead of running their own. */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /** Flights whose loader threw; every waiter of the flight got the same exception. */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /** Waiters that timed out on a flight and loaded on their own. */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,206 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The configured on-heap strategy as L1 in front of a larger {@link OffHeapProductCache} L2. Writes go to
+ * both levels, and an L1 miss that hits L2 is promoted back into L1. Type queries and type completeness
+ * are answered by L1 alone.
+ *
+ * A promotion must not bring back a copy that a concurrent write replaced or removed. Every write bumps a
+ * version for its id's stripe and marks the stripe busy until both levels are written; a promotion that saw
+ * the stripe busy is skipped, and one whose stripe changed while it ran is undone.
+ */
+public class TieredProductCache implements ProductCache {
+
+    private static final int STRIPES = 64;
+
+    private final ProductCache l1;
+    private final ProductCache l2;
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+    private final AtomicIntegerArray writing = new AtomicIntegerArray(STRIPES);
+
+    public TieredProductCache(ProductCache l1, ProductCache l2) {
+        this.l1 = l1;
+        this.l2 = l2;
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        var hit = l1.getById(id);
+        if (hit.isPresent() || id == null) return hit;
+        long version = versions.get(stripe(id));
+        hit = l2.getById(id);
+        hit.ifPresent(product -> promote(product, version));
+        return hit;
+    }
+
+    @Override
+    public Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        Map<String, ProductRecord> hits = l1.getAllById(ids);
+        if (hits.size() == ids.size()) return hits;
+        List<String> missing = ids.stream().filter(id -> id != null && !hits.containsKey(id)).toList();
+        long[] before = new long[missing.size()];
+        for (int i = 0; i < before.length; i++) before[i] = versions.get(stripe(missing.get(i)));
+        Map<String, ProductRecord> fromL2 = l2.getAllById(missing);
+        if (fromL2.isEmpty()) return hits;
+        for (int i = 0; i < before.length; i++) {
+            ProductRecord product = fromL2.get(missing.get(i));
+            if (product != null) promote(product, before[i]);
+        }
+        Map<String, ProductRecord> all = new LinkedHashMap<>(hits);
+        all.putAll(fromL2);
+        return all;
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        return l1.getByType(type);
+    }
+
+    // version was read before the L2 lookup that found the product
+    private void promote(ProductRecord product, long version) {
+        int stripe = stripe(product.id());
+        if (writing.get(stripe) != 0 || versions.get(stripe) != version) return;
+        l1.put(product);
+        // a write began meanwhile: it may already have passed L1, so drop what may be the older copy
+        if (writing.get(stripe) != 0 || versions.get(stripe) != version) l1.remove(product.id());
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        beginWrite(product.id());
+        try {
+            l1.put(product);
+            l2.put(product);
+        } finally {
+            endWrite(product.id());
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductRecord> products) {
+        List<String> ids = idsOf(products);
+        ids.forEach(this::beginWrite);
+        try {
+            l1.putAll(products);
+            l2.putAll(products);
+        } finally {
+            ids.forEach(this::endWrite);
+        }
+    }
+
+    @Override
+    public void putType(String type, List<ProductRecord> products) {
+        List<String> ids = idsOf(products);
+        ids.forEach(this::beginWrite);
+        try {
+            l1.putType(type, products);
+            products.forEach(l2::put);
+        } finally {
+            ids.forEach(this::endWrite);
+        }
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        return l1.getTypeIfComplete(type);
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) return;
+        beginWrite(id);
+        try {
+            l1.remove(id);
+            l2.remove(id);
+        } finally {
+            endWrite(id);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < STRIPES; i++) {
+            writing.incrementAndGet(i);
+            versions.incrementAndGet(i);
+        }
+        try {
+            l1.clear();
+            l2.clear();
+        } finally {
+            for (int i = 0; i < STRIPES; i++) writing.decrementAndGet(i);
+        }
+    }
+
+    // busy first, then the version: a promotion reading the old version still sees the stripe busy
+    private void beginWrite(String id) {
+        int stripe = stripe(id);
+        writing.incrementAndGet(stripe);
+        versions.incrementAndGet(stripe);
+    }
+
+    private void endWrite(String id) {
+        writing.decrementAndGet(stripe(id));
+    }
+
+    private static int stripe(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static List<String> idsOf(Collection<ProductRecord> products) {
+        List<String> ids = new ArrayList<>(products.size());
+        for (ProductRecord product : products) {
+            if (product != null && product.id() != null) ids.add(product.id());
+        }
+        return ids;
+    }
+
+    /** L2 holds every written product; L1 is a subset of it. */
+    @Override
+    public int size() {
+        return l2.size();
+    }
+
+    /** Products that left L2; an L1 eviction only demotes the product. */
+    @Override
+    public long evictions() {
+        return l2.evictions();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return l1.estimatedBytes() + l2.estimatedBytes();
+    }
+
+    @Override
+    public Map<String, Integer> sizeByType() {
+        return l1.sizeByType();
+    }
+
+    /** L1's order first, then the rest of L2. */
+    @Override
+    public List<String> hotIds(int limit) {
+        Set<String> ids = new LinkedHashSet<>(l1.hotIds(limit));
+        if (ids.size() < limit) {
+            for (String id : l2.hotIds(limit)) {
+                if (ids.size() >= limit) break;
+                ids.add(id);
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+}
@@ -0,0 +1,73 @@
+package org.responsive.productsvc.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timer wheel: a deadline goes into the bucket of its tick, and {@link #advance} only visits the
+ * buckets of the ticks that passed since the last call, instead of scanning every scheduled key. Deadlines
+ * more than one lap away stay in their bucket until the lap that reaches them.
+ *
+ * Nothing is ever unscheduled: the owner checks on {@code expired} whether the key's current deadline has
+ * really passed (it may have been rewritten or removed since). Not thread-safe; the owner holds its lock.
+ */
+final class TimerWheel<K> {
+
+    private record Timer<K>(K key, long deadline) {}
+
+    private final long tickNanos;
+    private final List<List<Timer<K>>> buckets;
+    private final int mask;
+    private long currentTick;
+
+    TimerWheel(long tickNanos, int bucketCount, long nowNanos) {
+        this.tickNanos = Math.max(1, tickNanos);
+        int size = Integer.highestOneBit(Math.max(2, bucketCount - 1)) << 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) buckets.add(new ArrayList<>());
+        this.mask = size - 1;
+        this.currentTick = Math.floorDiv(nowNanos, this.tickNanos);
+    }
+
+    void schedule(K key, long deadlineNanos) {
+        // the first tick that starts at or after the deadline, and never one that was already visited
+        long tick = Math.max(Math.floorDiv(deadlineNanos - 1, tickNanos) + 1, currentTick + 1);
+        buckets.get((int) (tick & mask)).add(new Timer<>(key, deadlineNanos));
+    }
+
+    /** Whether {@link #advance} has buckets to visit; lets callers skip building the consumer. */
+    boolean due(long nowNanos) {
+        return Math.floorDiv(nowNanos, tickNanos) > currentTick;
+    }
+
+    /** Hands every key whose deadline is at or before {@code nowNanos} to {@code expired}. */
+    void advance(long nowNanos, Consumer<? super K> expired) {
+        long target = Math.floorDiv(nowNanos, tickNanos);
+        if (target <= currentTick) return;
+        // after a pause longer than a lap, one visit of every bucket is enough
+        long from = Math.max(currentTick + 1, target - mask);
+        for (long tick = from; tick <= target; tick++) {
+            List<Timer<K>> bucket = buckets.get((int) (tick & mask));
+            if (bucket.isEmpty()) continue;
+            List<Timer<K>> later = null;
+            for (Timer<K> timer : bucket) {
+                if (timer.deadline() <= nowNanos) {
+                    expired.accept(timer.key());
+                } else {
+                    if (later == null) later = new ArrayList<>();
+                    later.add(timer);
+                }
+            }
+            bucket.clear();
+            if (later != null) bucket.addAll(later);
+        }
+        currentTick = target;
+    }
+
+    int scheduled() {
+        int count = 0;
+        for (List<Timer<K>> bucket : buckets) count += bucket.size();
+        return count;
+    }
+}
@@ -0,0 +1,327 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * W-TinyLFU: new entries land in a small LRU window (1% of capacity). Entries leaving the window compete
+ * with the main region's LRU victim and are only admitted if the {@link FrequencySketch} has seen them more
+ * often. The main region is a segmented LRU: probation for admitted entries, protected (80%) for entries
+ * hit again. One-off traffic such as scans and bulk back-fills stays in the window and cannot push hot ids
+ * out of the main region.
+ *
+ * With {@code maxBytes} set, entries are also evicted until the total {@link ProductWeigher} weight is within
+ * it, each time the less frequent of the window's and the main region's LRU entries. A product heavier than
+ * the whole budget is not cached, and its previous version is dropped.
+ */
+public class TinyLfuCache implements ProductCache {
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final long maxBytes;
+
+    private final LinkedHashMap<String, ProductRecord> window;
+    private final LinkedHashMap<String, ProductRecord> probation;
+    private final LinkedHashMap<String, ProductRecord> protectedSegment;
+    private final FrequencySketch sketch;
+    private final TypeIndex typeIndex = new TypeIndex();
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private long evictions;
+    private long weight;
+
+    public TinyLfuCache(int capacity) {
+        this(capacity, 0);
+    }
+
+    /** @param maxBytes bound on the total weight of the entries; zero for none */
+    public TinyLfuCache(int capacity, long maxBytes) {
+        this.capacity = Math.max(1, capacity);
+        this.maxBytes = Math.max(0, maxBytes);
+        this.windowCapacity = Math.max(1, this.capacity / 100);
+        this.mainCapacity = this.capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 80 / 100;
+        this.window = new LinkedHashMap<>(windowCapacity, 0.75f, true);
+        this.probation = new LinkedHashMap<>(16, 0.75f, true);
+        this.protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+        this.sketch = new FrequencySketch(this.capacity);
+    }
+
+    @Override
+    public Optional<ProductRecord> getById(String id) {
+        if (id == null) return Optional.empty();
+        lock.lock();
+        try {
+            return Optional.ofNullable(getLocked(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, ProductRecord> getAllById(Collection<String> ids) {
+        Map<String, ProductRecord> hits = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            for (String id : ids) {
+                if (id == null) continue;
+                ProductRecord p = getLocked(id);
+                if (p != null) hits.put(id, p);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return hits;
+    }
+
+    private ProductRecord getLocked(String id) {
+        sketch.increment(id);
+        ProductRecord p = window.get(id);
+        if (p == null) p = protectedSegment.get(id);
+        if (p == null) {
+            p = probation.remove(id);
+            if (p != null) promote(p);
+        }
+        return p;
+    }
+
+    @Override
+    public List<ProductRecord> getByType(String type) {
+        lock.lock();
+        try {
+            return typeIndex.get(type);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(ProductRecord product) {
+        if (product == null || product.id() == null) return;
+        lock.lock();
+        try {
+            putLocked(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putAll(Collection<ProductRecord> products) {
+        lock.lock();
+        try {
+            for (ProductRecord product : products) {
+                if (product != null && product.id() != null) putLocked(product);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putType(String type, List<ProductRecord> products) {
+        if (type == null || products == null) return;
+        lock.lock();
+        try {
+            Set<String> loaded = new HashSet<>();
+            products.forEach(p -> loaded.add(p.id()));
+            new ArrayList<>(typeIndex.bucket(type)).stream()
+                .filter(p -> !loaded.contains(p.id()))
+                .forEach(p -> removeLocked(p.id()));
+
+            products.forEach(this::putLocked);
+            // admission may have rejected some of them
+            if (loaded.stream().allMatch(this::containsLocked)) {
+                typeIndex.markComplete(type);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Optional<List<ProductRecord>> getTypeIfComplete(String type) {
+        lock.lock();
+        try {
+            return typeIndex.isComplete(type) ? Optional.of(typeIndex.get(type)) : Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(String id) {
+        if (id == null) return;
+        lock.lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        lock.lock();
+        try {
+            window.clear();
+            probation.clear();
+            protectedSegment.clear();
+            typeIndex.clear();
+            weight = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return window.size() + probation.size() + protectedSegment.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long evictions() {
+        lock.lock();
+        try {
+            return evictions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long estimatedBytes() {
+        lock.lock();
+        try {
+            return weight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Most frequently used first, by the sketch's estimate; ties keep protected, probation, window order. */
+    @Override
+    public List<String> hotIds(int limit) {
+        List<String> ids;
+        Map<String, Integer> frequencies = new HashMap<>();
+        lock.lock();
+        try {
+            ids = new ArrayList<>(protectedSegment.size() + probation.size() + window.size());
+            ids.addAll(HotKeys.mostRecentFirst(protectedSegment, Integer.MAX_VALUE));
+            ids.addAll(HotKeys.mostRecentFirst(probation, Integer.MAX_VALUE));
+            ids.addAll(HotKeys.mostRecentFirst(window, Integer.MAX_VALUE));
+            ids.forEach(id -> frequencies.put(id, sketch.frequency(id)));
+        } finally {
+            lock.unlock();
+        }
+        ids.sort(Comparator.comparingInt((String id) -> frequencies.get(id)).reversed());
+        return ids.size() <= limit ? ids : new ArrayList<>(ids.subList(0, Math.max(0, limit)));
+    }
+
+    private void putLocked(ProductRecord product) {
+        String id = product.id();
+        sketch.increment(id);
+        if (maxBytes > 0 && ProductWeigher.weigh(product) > maxBytes) {
+            // would evict everything else and then itself
+            removeLocked(id);
+            return;
+        }
+        if (!(replaceIn(window, product) || replaceIn(protectedSegment, product) || replaceIn(probation, product))) {
+            window.put(id, product);
+            typeIndex.add(product);
+            weight += ProductWeigher.weigh(product);
+            if (window.size() > windowCapacity) {
+                evictFromWindow();
+            }
+        }
+        if (maxBytes > 0) trimToBytesLocked();
+    }
+
+    private void trimToBytesLocked() {
+        while (weight > maxBytes) {
+            var main = probation.isEmpty() ? protectedSegment : probation;
+            var candidate = window.firstEntry();
+            var victim = main.firstEntry();
+            if (candidate == null && victim == null) return;
+            // the same contest as admission: the less frequent one goes
+            boolean fromMain = victim != null
+                && (candidate == null || sketch.frequency(victim.getKey()) <= sketch.frequency(candidate.getKey()));
+            evictLocked(pollEldest(fromMain ? main : window));
+        }
+    }
+
+    private boolean replaceIn(LinkedHashMap<String, ProductRecord> region, ProductRecord product) {
+        if (!region.containsKey(product.id())) return false;
+        var previous = region.put(product.id(), product);
+        typeIndex.replace(previous);
+        weight += ProductWeigher.weigh(product) - ProductWeigher.weigh(previous);
+        typeIndex.add(product);
+        return true;
+    }
+
+    private void evictFromWindow() {
+        ProductRecord candidate = pollEldest(window);
+        if (probation.size() + protectedSegment.size() < mainCapacity) {
+            probation.put(candidate.id(), candidate);
+            return;
+        }
+        var victimRegion = probation.isEmpty() ? protectedSegment : probation;
+        if (victimRegion.isEmpty()) {
+            evictLocked(candidate);
+            return;
+        }
+        ProductRecord victim = victimRegion.values().iterator().next();
+        if (sketch.frequency(candidate.id()) > sketch.frequency(victim.id())) {
+            victimRegion.remove(victim.id());
+            evictLocked(victim);
+            probation.put(candidate.id(), candidate);
+        } else {
+            evictLocked(candidate);
+        }
+    }
+
+    // the entry has already left its region
+    private void evictLocked(ProductRecord evicted) {
+        typeIndex.evict(evicted);
+        evictions++;
+        weight -= ProductWeigher.weigh(evicted);
+    }
+
+    private void promote(ProductRecord product) {
+        protectedSegment.put(product.id(), product);
+        if (protectedSegment.size() > protectedCapacity) {
+            ProductRecord demoted = pollEldest(protectedSegment);
+            probation.put(demoted.id(), demoted);
+        }
+    }
+
+    private void removeLocked(String id) {
+        ProductRecord removed = window.remove(id);
+        if (removed == null) removed = probation.remove(id);
+        if (removed == null) removed = protectedSegment.remove(id);
+        if (removed != null) {
+            typeIndex.evict(removed);
+            weight -= ProductWeigher.weigh(removed);
+        }
+    }
+
+    private boolean containsLocked(String id) {
+        return window.containsKey(id) || probation.containsKey(id) || protectedSegment.containsKey(id);
+    }
+
+    private static ProductRecord pollEldest(LinkedHashMap<String, ProductRecord> region) {
+        Iterator<ProductRecord> it = region.values().iterator();
+        ProductRecord eldest = it.next();
+        it.remove();
+        return eldest;
+    }
+}
@@ -4,39 +4,95 @@ import org.responsive.productsvc.dto.ProductRecord;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Keeps an LRU per type. Capacity is distributed across types using a simple per-type slice
- * (capacity/10) but never less than 1. This is intentionally simple — it's deterministic and predictable.
+ * Keeps an LRU per type under one global bound of {@code capacity} entries. Each type has a target share of
+ * that bound; when the cache is full, an insert evicts from its own type if that type is over its target,
+ * otherwise from the type furthest over its target (or, when none is over, the one least under it). Capacity
+ * no type claims is therefore used by the others. A new type starts with an even share, so until the next
+ * rebalance the targets need not add up to the capacity.
+ *
+ * Targets adapt to demand. Every type counts its hits and its ghost hits: puts of ids it evicted recently
+ * (a miss that a larger share would have turned into a hit). About once every {@code rebalanceInterval}
+ * puts (sampled, so puts share no counter), the thread that wins a non-blocking {@code tryLock} splits the
+ * capacity between the types in proportion to their decayed hits plus ghost hits, above a small floor per
+ * type. Misses are taken to cost the same for every type: each is one findById.
+ *
+ * With {@code maxBytes} set, the same victims are also evicted until the total {@link ProductWeigher} weight
+ * is within it. A product heavier than the whole budget is not cached, and its previous version is dropped.
+ *
+ * Each type's LRU is guarded by its own {@link ReentrantLock}, which does not pin virtual threads; a hit
+ * refreshes recency only if it gets its type's lock without waiting, and no operation holds more than one of
+ * them at a time.
  */
 public class TypeBasedLRUCache implements ProductCache {
 
+    // share of the capacity spread evenly over the types before demand decides the rest
+    private static final int FLOOR_DIVISOR = 8;
+    private static final int MIN_GHOSTS = 8;
+
     private final int capacity;
-    private final int perTypeCapacity;
-    private final Map<String, LinkedHashMap<String, ProductRecord>> mapByType;
-    private final Map<String, ProductRecord> indexById;
+    private final long maxBytes;
+    private final int rebalanceInterval;
+    private final Map<String, TypeBucket> mapByType;
+    private final Map<String, Slot> indexById;
+    private final AtomicInteger entries = new AtomicInteger();
+    // total weight, kept only with maxBytes set
+    private final AtomicLong totalWeight = new AtomicLong();
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Slot(ProductRecord product, TypeBucket bucket) {}
 
     public TypeBasedLRUCache(int capacity) {
+        this(capacity, 0);
+    }
+
+    /** @param maxBytes bound on the total weight of the entries; zero for none */
+    public TypeBasedLRUCache(int capacity, long maxBytes) {
         this.capacity = Math.max(1, capacity);
-        this.perTypeCapacity = Math.max(1, this.capacity / 10); // simple distribution
+        this.maxBytes = Math.max(0, maxBytes);
+        this.rebalanceInterval = Math.max(16, this.capacity / 4);
         this.mapByType = new ConcurrentHashMap<>();
         this.indexById = new ConcurrentHashMap<>();
     }
 
     @Override
     public Optional<ProductRecord> getById(String id) {
-        return Optional.ofNullable(indexById.get(id));
+        Slot slot = indexById.get(id);
+        if (slot == null) return Optional.empty();
+        TypeBucket bucket = slot.bucket();
+        bucket.hits.increment();
+        // recency is best effort: a hit never waits behind a put or an eviction in its type
+        if (bucket.lock.tryLock()) {
+            try {
+                bucket.lru.get(id);
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        return Optional.of(slot.product());
     }
 
     @Override
     public List<ProductRecord> getByType(String type) {
         if (type == null) return Collections.emptyList();
-        var lru = mapByType.get(type.toLowerCase());
-        if (lru == null) return Collections.emptyList();
-        synchronized (lru) {
+        var bucket = mapByType.get(type.toLowerCase());
+        if (bucket == null) return Collections.emptyList();
+        bucket.lock.lock();
+        try {
+            if (!bucket.lru.isEmpty()) bucket.hits.increment();
             // return copy to avoid mutation by caller
-            return new ArrayList<>(lru.values());
+            List<ProductRecord> products = new ArrayList<>(bucket.lru.size());
+            bucket.lru.values().forEach(slot -> products.add(slot.product()));
+            return products;
+        } finally {
+            bucket.lock.unlock();
         }
     }
 
@@ -44,49 +100,233 @@ public class TypeBasedLRUCache implements ProductCache {
     public void put(ProductRecord product) {
         if (product == null || product.id() == null) return;
         String id = product.id();
+        if (maxBytes > 0 && ProductWeigher.weigh(product) > maxBytes) {
+            // would evict everything else and then itself
+            remove(id);
+            return;
+        }
         String type = product.type() == null ? "" : product.type().toLowerCase();
 
-        indexById.put(id, product);
+        var bucket = mapByType.computeIfAbsent(type, k -> new TypeBucket(capacity / (mapByType.size() + 1)));
+        Slot slot = new Slot(product, bucket);
+        Slot previous = indexById.put(id, slot);
 
         // put into type LRU
-        var lru = mapByType.computeIfAbsent(type, k -> createLRU());
-        synchronized (lru) {
-            lru.put(id, product);
-            if (lru.size() > perTypeCapacity) {
-                Iterator<Map.Entry<String, ProductRecord>> it = lru.entrySet().iterator();
-                if (it.hasNext()) {
-                    Map.Entry<String, ProductRecord> eldest = it.next();
-                    it.remove();
-                    indexById.remove(eldest.getKey());
+        boolean added;
+        bucket.lock.lock();
+        try {
+            Slot replaced = bucket.lru.put(id, slot);
+            added = replaced == null;
+            addWeight(bucket, ProductWeigher.weigh(product) - (added ? 0 : ProductWeigher.weigh(replaced.product())));
+            bucket.size = bucket.lru.size();
+            if (added && bucket.ghosts.remove(id) != null) bucket.ghostHits.increment();
+        } finally {
+            bucket.lock.unlock();
+        }
+        // the product changed type: drop it from its old type
+        if (previous != null && previous.bucket() != bucket) removeFromBucket(id, previous);
+        // a concurrent put or remove of the id won the index: do not leave this one in the LRU
+        if (indexById.get(id) != slot) removeFromBucket(id, slot);
+
+        if (added) entries.incrementAndGet();
+        // loops, as concurrent puts may each have seen the other's entry and skipped evicting for it
+        while (entries.get() > capacity && evictOne(bucket)) {
+            // evict until within the entry bound
+        }
+        while (maxBytes > 0 && totalWeight.get() > maxBytes && evictOne(bucket)) {
+            // evict until within the byte bound
+        }
+        if (ThreadLocalRandom.current().nextInt(rebalanceInterval) == 0) rebalance();
+    }
+
+    private boolean evictOne(TypeBucket inserted) {
+        // a few attempts: the chosen type may have been emptied concurrently
+        for (int attempt = 0; attempt < 4; attempt++) {
+            TypeBucket victim = inserted.size > inserted.target ? inserted : mostOverTarget();
+            if (victim == null) return false;
+            Map.Entry<String, Slot> eldest;
+            victim.lock.lock();
+            try {
+                Iterator<Map.Entry<String, Slot>> it = victim.lru.entrySet().iterator();
+                if (!it.hasNext()) continue;
+                eldest = it.next();
+                it.remove();
+                addWeight(victim, -ProductWeigher.weigh(eldest.getValue().product()));
+                victim.size = victim.lru.size();
+                victim.ghosts.put(eldest.getKey(), Boolean.TRUE);
+                if (victim.ghosts.size() > Math.max(MIN_GHOSTS, victim.target)) {
+                    victim.ghosts.pollFirstEntry();
                 }
+            } finally {
+                victim.lock.unlock();
             }
+            indexById.remove(eldest.getKey(), eldest.getValue());
+            entries.decrementAndGet();
+            evictions.increment();
+            return true;
+        }
+        return false;
+    }
+
+    // caller holds the bucket's lock
+    private void addWeight(TypeBucket bucket, long delta) {
+        bucket.weight += delta;
+        if (maxBytes > 0) totalWeight.addAndGet(delta);
+    }
+
+    private TypeBucket mostOverTarget() {
+        TypeBucket victim = null;
+        long most = Long.MIN_VALUE;
+        for (TypeBucket bucket : mapByType.values()) {
+            long over = (long) bucket.size - bucket.target;
+            if (bucket.size > 0 && over > most) {
+                most = over;
+                victim = bucket;
+            }
+        }
+        return victim;
+    }
+
+    /** Recomputes the targets from the demand seen since the last run; skipped while another thread runs it. */
+    private void rebalance() {
+        if (!rebalanceLock.tryLock()) return;
+        try {
+            Collection<TypeBucket> buckets = mapByType.values();
+            int types = buckets.size();
+            if (types == 0) return;
+            double total = 0;
+            for (TypeBucket bucket : buckets) {
+                // halve the past so a shift in traffic moves the shares within a few intervals
+                bucket.demand = bucket.demand / 2 + bucket.hits.sumThenReset() + bucket.ghostHits.sumThenReset();
+                total += bucket.demand;
+            }
+            int floor = capacity / FLOOR_DIVISOR / types;
+            int shared = capacity - floor * types;
+            for (TypeBucket bucket : buckets) {
+                double share = total > 0 ? bucket.demand / total : 1.0 / types;
+                bucket.target = floor + (int) (shared * share);
+            }
+        } finally {
+            rebalanceLock.unlock();
         }
     }
 
     @Override
     public void remove(String id) {
         if (id == null) return;
-        var p = indexById.remove(id);
-        if (p == null) return;
-        String type = p.type() == null ? "" : p.type().toLowerCase();
-        var lru = mapByType.get(type);
-        if (lru != null) {
-            synchronized (lru) {
-                lru.remove(id);
-            }
+        var slot = indexById.remove(id);
+        if (slot == null) return;
+        removeFromBucket(id, slot);
+    }
+
+    private void removeFromBucket(String id, Slot slot) {
+        TypeBucket bucket = slot.bucket();
+        bucket.lock.lock();
+        try {
+            if (!bucket.lru.remove(id, slot)) return;
+            addWeight(bucket, -ProductWeigher.weigh(slot.product()));
+            bucket.size = bucket.lru.size();
+        } finally {
+            bucket.lock.unlock();
         }
+        entries.decrementAndGet();
     }
 
     @Override
     public void clear() {
         indexById.clear();
-        mapByType.values().forEach(lru -> {
-            synchronized (lru) { lru.clear(); }
+        mapByType.values().forEach(bucket -> {
+            bucket.lock.lock();
+            try {
+                entries.addAndGet(-bucket.lru.size());
+                bucket.lru.clear();
+                bucket.ghosts.clear();
+                addWeight(bucket, -bucket.weight);
+                bucket.size = 0;
+            } finally {
+                bucket.lock.unlock();
+            }
         });
         mapByType.clear();
     }
 
-    private LinkedHashMap<String, ProductRecord> createLRU() {
-        return new LinkedHashMap<>(perTypeCapacity, 0.75f, true);
+    @Override
+    public int size() {
+        return indexById.size();
+    }
+
+    @Override
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = 0;
+        for (TypeBucket bucket : mapByType.values()) {
+            bucket.lock.lock();
+            try {
+                bytes += bucket.weight;
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public Map<String, Integer> sizeByType() {
+        Map<String, Integer> sizes = new TreeMap<>();
+        mapByType.forEach((type, bucket) -> {
+            bucket.lock.lock();
+            try {
+                if (!bucket.lru.isEmpty()) sizes.put(type, bucket.lru.size());
+            } finally {
+                bucket.lock.unlock();
+            }
+        });
+        return sizes;
+    }
+
+    /** Current target share of every type. */
+    Map<String, Integer> targetByType() {
+        Map<String, Integer> targets = new TreeMap<>();
+        mapByType.forEach((type, bucket) -> targets.put(type, bucket.target));
+        return targets;
+    }
+
+    /** The per-type LRU orders interleaved, so every cached type keeps its hottest ids. */
+    @Override
+    public List<String> hotIds(int limit) {
+        List<List<String>> perType = new ArrayList<>(mapByType.size());
+        for (TypeBucket bucket : mapByType.values()) {
+            bucket.lock.lock();
+            try {
+                perType.add(HotKeys.mostRecentFirst(bucket.lru, limit));
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+        return HotKeys.interleave(perType, limit);
+    }
+
+    private static final class TypeBucket {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, Slot> lru = new LinkedHashMap<>(16, 0.75f, true);
+        // ids evicted recently, oldest first
+        final LinkedHashMap<String, Boolean> ghosts = new LinkedHashMap<>();
+        final LongAdder hits = new LongAdder();
+        final LongAdder ghostHits = new LongAdder();
+        // guarded by lock
+        long weight;
+        // written under lock, read without it to pick a victim
+        volatile int size;
+        // written by rebalance only
+        volatile int target;
+        double demand;
+
+        TypeBucket(int target) {
+            this.target = Math.max(1, target);
+        }
     }
 }
@@ -0,0 +1,70 @@
+package org.responsive.productsvc.cache;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.*;
+
+/**
+ * Secondary index type -> (id -> product) kept next to an id-keyed cache, plus the set of types whose
+ * every product is known to be cached. Not thread-safe: the owning cache guards it with its own lock.
+ *
+ * A type stays complete across puts and replacements (the cache still holds every product of it) and
+ * stops being complete as soon as one of its entries is evicted or removed.
+ */
+final class TypeIndex {
+
+    private final Map<String, Map<String, ProductRecord>> byType = new HashMap<>();
+    private final Set<String> completeTypes = new HashSet<>();
+
+    void add(ProductRecord product) {
+        if (product.type() == null) return;
+        byType.computeIfAbsent(product.type(), k -> new LinkedHashMap<>()).put(product.id(), product);
+    }
+
+    /** Drops a replaced entry; the product is still cached (possibly under another type). */
+    void replace(ProductRecord previous) {
+        detach(previous);
+    }
+
+    /** Drops an evicted or removed entry, which makes its type incomplete. */
+    void evict(ProductRecord product) {
+        if (product.type() == null) return;
+        completeTypes.remove(product.type());
+        detach(product);
+    }
+
+    List<ProductRecord> get(String type) {
+        if (type == null) return Collections.emptyList();
+        var bucket = byType.get(type);
+        return bucket == null ? Collections.emptyList() : new ArrayList<>(bucket.values());
+    }
+
+    Collection<ProductRecord> bucket(String type) {
+        var bucket = byType.get(type);
+        return bucket == null ? Collections.emptyList() : bucket.values();
+    }
+
+    void markComplete(String type) {
+        if (byType.containsKey(type)) completeTypes.add(type);
+    }
+
+    boolean isComplete(String type) {
+        return type != null && completeTypes.contains(type);
+    }
+
+    void clear() {
+        byType.clear();
+        completeTypes.clear();
+    }
+
+    private void detach(ProductRecord product) {
+        if (product.type() == null) return;
+        var bucket = byType.get(product.type());
+        if (bucket == null) return;
+        bucket.remove(product.id());
+        if (bucket.isEmpty()) {
+            byType.remove(product.type());
+            completeTypes.remove(product.type());
+        }
+    }
+}
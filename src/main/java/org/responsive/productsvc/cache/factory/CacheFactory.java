@@ -1,11 +1,23 @@
 package org.responsive.productsvc.cache.factory;
 
 import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
+import org.responsive.productsvc.cache.InstrumentedProductCache;
+import org.responsive.productsvc.cache.InstrumentedRecommendationCache;
+import org.responsive.productsvc.cache.ConcurrentLRUCache;
+import org.responsive.productsvc.cache.JsonCachingProductCache;
 import org.responsive.productsvc.cache.KeyBasedLRUCache;
+import org.responsive.productsvc.cache.OffHeapProductCache;
 import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.TieredProductCache;
+import org.responsive.productsvc.cache.TinyLfuCache;
 import org.responsive.productsvc.cache.TypeBasedLRUCache;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
 /**
  * Keeps factory methods for the various cache strategies.
  */
@@ -13,14 +25,50 @@ import org.springframework.stereotype.Component;
 public class CacheFactory {
 
     public ProductCache create(String strategy, int capacity) {
+        return create(strategy, capacity, 0);
+    }
+
+    /** A strategy bounded by {@code capacity} entries and, when positive, by {@code maxBytes} of weight. */
+    public ProductCache create(String strategy, int capacity, long maxBytes) {
         return switch (strategy == null ? "KEY_BASED" : strategy.toUpperCase()) {
-            case "TYPE_BASED" -> new TypeBasedLRUCache(capacity);
-            case "KEY_BASED" -> new KeyBasedLRUCache(capacity);
-            default -> new KeyBasedLRUCache(capacity);
+            case "TYPE_BASED" -> new TypeBasedLRUCache(capacity, maxBytes);
+            case "KEY_BASED" -> new KeyBasedLRUCache(capacity, maxBytes);
+            case "CONCURRENT" -> ConcurrentLRUCache.withMaxBytes(capacity, maxBytes);
+            case "TINY_LFU" -> new TinyLfuCache(capacity, maxBytes);
+            default -> new KeyBasedLRUCache(capacity, maxBytes);
         };
     }
 
+    /**
+     * Puts an off-heap second tier of {@code capacityBytes} behind the given on-heap cache.
+     */
+    public ProductCache withOffHeapTier(ProductCache onHeap, long capacityBytes) {
+        return new TieredProductCache(onHeap, new OffHeapProductCache(capacityBytes));
+    }
+
+    /**
+     * Keeps {@code json} in step with {@code cache}: every write or removal drops the product's encoded JSON.
+     */
+    public ProductCache withJsonInvalidation(ProductCache cache, ProductJsonCache json) {
+        return new JsonCachingProductCache(cache, json);
+    }
+
+    /** Counts hits and misses in front of {@code cache}; meant to be the outermost layer. */
+    public InstrumentedProductCache instrumented(ProductCache cache) {
+        return new InstrumentedProductCache(cache);
+    }
+
+    public InstrumentedRecommendationCache instrumented(RecommendationCache cache) {
+        return new InstrumentedRecommendationCache(cache);
+    }
+
     public CompositeKeyRecommendationCache createRecommendationCache(int capacity) {
         return new CompositeKeyRecommendationCache(capacity);
     }
+
+    /** Results expire after {@code ttl}; reads within {@code refreshAhead} of it refresh on {@code refreshExecutor}. */
+    public CompositeKeyRecommendationCache createRecommendationCache(int capacity, Duration ttl, Duration refreshAhead,
+                                                                     Executor refreshExecutor) {
+        return new CompositeKeyRecommendationCache(capacity, ttl, refreshAhead, refreshExecutor, System::nanoTime);
+    }
 }
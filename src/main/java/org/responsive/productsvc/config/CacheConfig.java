@@ -1,13 +1,27 @@
 package org.responsive.productsvc.config;
 
-import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
+import org.responsive.productsvc.cache.InstrumentedProductCache;
+import org.responsive.productsvc.cache.InstrumentedRecommendationCache;
+import org.responsive.productsvc.cache.MissingProductGuard;
 import org.responsive.productsvc.cache.ProductCache;
-import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
 import org.responsive.productsvc.cache.factory.CacheFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class CacheConfig {
 
@@ -19,21 +33,113 @@ public class CacheConfig {
     @Value("${product.cache.capacity:1000}")
     private int capacity;
 
+    @Value("${product.cache.max-bytes:0}")
+    private long maxBytes;
+
     @Value("${product.cache.recommendation.capacity:200}")
     private int recommendationCapacity;
 
+    @Value("${product.cache.recommendation.ttl:10m}")
+    private Duration recommendationTtl;
+
+    @Value("${product.cache.recommendation.refresh-ahead:1m}")
+    private Duration recommendationRefreshAhead;
+
+    @Value("${product.cache.recommendation.refresh-threads:2}")
+    private int recommendationRefreshThreads;
+
+    @Value("${product.cache.recommendation.refresh-queue:100}")
+    private int recommendationRefreshQueue;
+
+    @Value("${product.cache.offheap.enabled:false}")
+    private boolean offHeapEnabled;
+
+    @Value("${product.cache.offheap.capacity-bytes:268435456}")
+    private long offHeapCapacityBytes;
+
+    @Value("${product.cache.json.max-entries:1000}")
+    private int jsonMaxEntries;
+
+    @Value("${product.cache.single-flight.timeout:2s}")
+    private Duration singleFlightTimeout;
+
+    @Value("${product.cache.missing-ids.expected-insertions:1000000}")
+    private long missingIdsExpectedInsertions;
+
+    @Value("${product.cache.missing-ids.fpp:0.01}")
+    private double missingIdsFpp;
+
+    @Value("${product.cache.missing-ids.negative-ttl:5s}")
+    private Duration missingIdsNegativeTtl;
+
+    @Value("${product.cache.missing-ids.negative-max-entries:100000}")
+    private int missingIdsNegativeMaxEntries;
+
+    private ExecutorService recommendationRefreshExecutor;
+
     public CacheConfig(CacheFactory cacheFactory) {
         this.cacheFactory = cacheFactory;
     }
 
     @Bean
-    public ProductCache productCache() {
-        return cacheFactory.create(strategy, capacity);
+    public InstrumentedProductCache productCache(ObjectProvider<ProductJsonCache> productJsonCache) {
+        ProductCache onHeap = cacheFactory.create(strategy, capacity, maxBytes);
+        // the on-heap strategy stays in front as L1 when the off-heap tier is enabled
+        ProductCache cache = offHeapEnabled ? cacheFactory.withOffHeapTier(onHeap, offHeapCapacityBytes) : onHeap;
+        ProductJsonCache json = productJsonCache.getIfAvailable();
+        if (json != null) cache = cacheFactory.withJsonInvalidation(cache, json);
+        // outermost, so hits and misses are counted once whatever the layers below
+        return cacheFactory.instrumented(cache);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.json.enabled", havingValue = "true")
+    public ProductJsonCache productJsonCache(ObjectMapper objectMapper) {
+        // encoded with the same ObjectMapper as Spring MVC, so the bytes match what Jackson would write
+        return new ProductJsonCache(objectMapper, jsonMaxEntries);
+    }
+
+    @Bean
+    public SingleFlightLoader singleFlightLoader(ObjectProvider<MeterRegistry> meterRegistry) {
+        // shared by product and recommendation misses; keys are namespaced by the callers
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return registry == null
+            ? new SingleFlightLoader(singleFlightTimeout)
+            : new SingleFlightLoader(singleFlightTimeout, MetricsConfig.loadTimers(registry));
     }
 
     @Bean
-    public RecommendationCache recommendationCache() {
+    public MissingProductGuard missingProductGuard() {
+        // Bloom filter memory is about expected-insertions * 1.44 * log2(1/fpp) bits (~1.2 MB for 1M at 1%)
+        return new MissingProductGuard(missingIdsExpectedInsertions, missingIdsFpp,
+                                       missingIdsNegativeTtl, missingIdsNegativeMaxEntries);
+    }
+
+    @Bean
+    public InstrumentedRecommendationCache recommendationCache() {
         // Use a smaller capacity by default for recommendation queries
-        return cacheFactory.createRecommendationCache(recommendationCapacity);
+        return cacheFactory.instrumented(cacheFactory.createRecommendationCache(
+            recommendationCapacity, recommendationTtl, recommendationRefreshAhead, recommendationRefreshExecutor()));
+    }
+
+    // not a bean: an Executor bean would replace Spring Boot's applicationTaskExecutor
+    private synchronized ExecutorService recommendationRefreshExecutor() {
+        if (recommendationRefreshExecutor != null) return recommendationRefreshExecutor;
+        // bounded queue and AbortPolicy: when refreshes back up, entries just expire and reload on the next miss
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            Math.max(1, recommendationRefreshThreads), Math.max(1, recommendationRefreshThreads), 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(Math.max(1, recommendationRefreshQueue)), r -> {
+                Thread thread = new Thread(r, "recommendation-refresh");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        recommendationRefreshExecutor = executor;
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdownRefreshes() {
+        if (recommendationRefreshExecutor != null) recommendationRefreshExecutor.shutdownNow();
     }
 }
@@ -0,0 +1,40 @@
+package org.responsive.productsvc.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.responsive.productsvc.cache.ProductCache;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Per-type entry counts ({@code productsvc.cache.type.size}, tagged {@code type}) for strategies that
+ * partition by type. Types come and go with the cache contents, so the gauge rows are rebuilt on a fixed
+ * delay instead of being registered once.
+ */
+public class CacheTypeMetrics implements MeterBinder {
+
+    private final ProductCache cache;
+    private volatile MultiGauge sizes;
+
+    public CacheTypeMetrics(ProductCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        sizes = MultiGauge.builder("productsvc.cache.type.size")
+                          .description("Product cache entries per type (TYPE_BASED strategy)")
+                          .register(registry);
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${product.metrics.type-refresh:15s}")
+    public void refresh() {
+        MultiGauge current = sizes;
+        if (current == null) return;
+        current.register(cache.sizeByType().entrySet().stream()
+                              .map(e -> MultiGauge.Row.of(Tags.of("type", e.getKey()), e.getValue()))
+                              .toList(), true);
+    }
+}
@@ -0,0 +1,208 @@
+package org.responsive.productsvc.config;
+
+import jakarta.annotation.PreDestroy;
+import org.responsive.productsvc.cache.CacheSnapshot;
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.service.ProductWriteListener;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warm restarts: at shutdown the hottest product ids and recommendation keys go to a {@link CacheSnapshot};
+ * at startup, before the application reports ready, they are reloaded from Mongo in parallel batches, so
+ * values are revalidated rather than trusted and ids deleted in the meantime simply drop out.
+ *
+ * A product written while warmup runs may have been loaded just before the write; such ids are dropped from
+ * the caches again once their batch is done, and the next read loads them fresh.
+ */
+@Component
+@ConditionalOnProperty(name = "product.cache.snapshot.enabled", havingValue = "true")
+public class CacheWarmer implements ApplicationRunner, ProductWriteListener {
+
+    private final ProductRepository repository;
+    private final ProductCache productCache;
+    private final RecommendationCache recommendationCache;
+    private final Path path;
+    private final int maxProducts;
+    private final int maxRecommendations;
+    private final int batchSize;
+    private final int parallelism;
+    private final Duration timeout;
+
+    private volatile boolean warming;
+    // written while warming: id -> current version, empty when deleted
+    private final Map<String, Optional<ProductRecord>> writtenWhileWarming = new ConcurrentHashMap<>();
+
+    public CacheWarmer(ProductRepository repository, ProductCache productCache, RecommendationCache recommendationCache,
+                       @Value("${product.cache.snapshot.path:productsvc-cache.snapshot}") String path,
+                       @Value("${product.cache.snapshot.max-products:10000}") int maxProducts,
+                       @Value("${product.cache.snapshot.max-recommendations:1000}") int maxRecommendations,
+                       @Value("${product.cache.snapshot.warmup.batch-size:500}") int batchSize,
+                       @Value("${product.cache.snapshot.warmup.parallelism:4}") int parallelism,
+                       @Value("${product.cache.snapshot.warmup.timeout:30s}") Duration timeout) {
+        this.repository = repository;
+        this.productCache = productCache;
+        this.recommendationCache = recommendationCache;
+        this.path = Path.of(path);
+        this.maxProducts = Math.max(0, maxProducts);
+        this.maxRecommendations = Math.max(0, maxRecommendations);
+        this.batchSize = Math.max(1, batchSize);
+        this.parallelism = Math.max(1, parallelism);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Optional<CacheSnapshot> snapshot;
+        try {
+            snapshot = CacheSnapshot.read(path);
+        } catch (IOException e) {
+            // an unreadable or older-format snapshot only costs the warm start
+            System.err.println("⚠️ Cache snapshot ignored: " + e.getMessage());
+            return;
+        }
+        snapshot.ifPresent(this::warm);
+    }
+
+    void warm(CacheSnapshot snapshot) {
+        long start = System.nanoTime();
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger products = new AtomicInteger();
+        AtomicInteger recommendations = new AtomicInteger();
+        // hottest first, so a timeout cuts off the coldest entries
+        batches(snapshot.productIds()).forEach(batch -> tasks.add(() -> products.addAndGet(warmProducts(batch))));
+        batches(snapshot.recommendationKeys())
+            .forEach(batch -> tasks.add(() -> recommendations.addAndGet(warmRecommendations(batch))));
+        if (tasks.isEmpty()) return;
+
+        warming = true;
+        CountDownLatch done = new CountDownLatch(tasks.size());
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (Runnable task : tasks) {
+            pool.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    System.err.println("⚠️ Cache warmup batch failed: " + e.getMessage());
+                } finally {
+                    done.countDown();
+                    // writes are tracked until the last batch has landed, even one that outlived the timeout
+                    if (done.getCount() == 0) finishWarmup();
+                }
+            });
+        }
+        pool.shutdown();
+        try {
+            if (!done.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                System.err.println("⚠️ Cache warmup still running after " + timeout + "; reporting ready with a"
+                                       + " partly warm cache.");
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        System.out.println("✅ Cache warmed from snapshot of " + snapshot.createdAt() + " — " + products.get()
+                               + " products, " + recommendations.get() + " recommendations in "
+                               + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+    }
+
+    private void finishWarmup() {
+        warming = false;
+        dropWrittenWhileWarming();
+        writtenWhileWarming.clear();
+    }
+
+    private int warmProducts(List<String> ids) {
+        List<ProductRecord> loaded = new ArrayList<>(ids.size());
+        repository.findAllById(ids).forEach(d -> loaded.add(ProductMapper.toRecord(d)));
+        productCache.putAll(loaded);
+        dropWrittenWhileWarming();
+        return loaded.size();
+    }
+
+    private int warmRecommendations(List<String> keys) {
+        int warmed = 0;
+        for (String key : keys) {
+            RecommendationFilter filter;
+            try {
+                filter = RecommendationKeyUtil.parseKey(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            // the key's type and category are lower-cased, as the stored typeKey / categoryKey
+            List<ProductRecord> results = repository.findRecommendations(filter).stream()
+                                                    .map(ProductMapper::toRecord).toList();
+            recommendationCache.put(key, results);
+            warmed++;
+        }
+        dropWrittenWhileWarming();
+        return warmed;
+    }
+
+    private void dropWrittenWhileWarming() {
+        writtenWhileWarming.forEach((id, current) -> {
+            productCache.remove(id);
+            recommendationCache.invalidate(id, current.orElse(null));
+        });
+    }
+
+    private <T> List<List<T>> batches(List<T> keys) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            batches.add(keys.subList(from, Math.min(keys.size(), from + batchSize)));
+        }
+        return batches;
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        CacheSnapshot snapshot = new CacheSnapshot(Instant.now(), productCache.hotIds(maxProducts),
+                                                   recommendationCache.hotKeys(maxRecommendations));
+        try {
+            snapshot.write(path);
+            System.out.println("✅ Cache snapshot written — " + snapshot.productIds().size() + " products, "
+                                   + snapshot.recommendationKeys().size() + " recommendations.");
+        } catch (IOException e) {
+            System.err.println("⚠️ Cache snapshot not written: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onSaved(ProductRecord product) {
+        if (warming) writtenWhileWarming.put(product.id(), Optional.of(product));
+    }
+
+    @Override
+    public void onDeleted(String id) {
+        if (warming) writtenWhileWarming.put(id, Optional.empty());
+    }
+}
@@ -0,0 +1,203 @@
+package org.responsive.productsvc.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.responsive.productsvc.cache.InstrumentedProductCache;
+import org.responsive.productsvc.cache.InstrumentedRecommendationCache;
+import org.responsive.productsvc.cache.MissingProductGuard;
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import org.responsive.productsvc.util.StageTimer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Registers the application's own cache metrics with Micrometer (see /actuator/metrics and
+ * /actuator/prometheus). Cache meters share names and carry a {@code cache} tag.
+ */
+@Configuration
+@EnableScheduling
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder productCacheMetrics(InstrumentedProductCache cache) {
+        return registry -> {
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedProductCache::hits)
+                           .description("Product cache lookups by id")
+                           .tags("cache", "product", "result", "hit")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedProductCache::misses)
+                           .description("Product cache lookups by id")
+                           .tags("cache", "product", "result", "miss")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedProductCache::typeHits)
+                           .description("Type lookups answered from the product cache")
+                           .tags("cache", "product-type", "result", "hit")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedProductCache::typeMisses)
+                           .description("Type lookups that had to query Mongo")
+                           .tags("cache", "product-type", "result", "miss")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.evictions", cache, InstrumentedProductCache::evictions)
+                           .description("Entries dropped to make room")
+                           .tag("cache", "product")
+                           .register(registry);
+            Gauge.builder("productsvc.cache.size", cache, InstrumentedProductCache::size)
+                 .description("Entries currently cached")
+                 .tag("cache", "product")
+                 .register(registry);
+            Gauge.builder("productsvc.cache.estimated.bytes", cache, InstrumentedProductCache::estimatedBytes)
+                 .description("Approximate memory held by cached entries")
+                 .tag("cache", "product")
+                 .baseUnit("bytes")
+                 .register(registry);
+        };
+    }
+
+    /** The bound {@code productsvc.cache.estimated.bytes} is evicted against, when one is set. */
+    @Bean
+    public MeterBinder productCacheBudgetMetrics(@Value("${product.cache.max-bytes:0}") long maxBytes) {
+        return registry -> {
+            if (maxBytes <= 0) return;
+            Gauge.builder("productsvc.cache.max.bytes", () -> maxBytes)
+                 .description("Byte bound of the on-heap product cache")
+                 .tag("cache", "product")
+                 .baseUnit("bytes")
+                 .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder recommendationCacheMetrics(InstrumentedRecommendationCache cache) {
+        return registry -> {
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedRecommendationCache::hits)
+                           .description("Recommendation cache lookups")
+                           .tags("cache", "recommendation", "result", "hit")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.gets", cache, InstrumentedRecommendationCache::misses)
+                           .description("Recommendation cache lookups")
+                           .tags("cache", "recommendation", "result", "miss")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.evictions", cache, InstrumentedRecommendationCache::evictions)
+                           .description("Entries dropped to make room")
+                           .tag("cache", "recommendation")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.expirations", cache, InstrumentedRecommendationCache::expirations)
+                           .description("Entries dropped because their TTL passed")
+                           .tag("cache", "recommendation")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.refreshes", cache, InstrumentedRecommendationCache::refreshes)
+                           .description("Entries reloaded in the background before their TTL passed")
+                           .tag("cache", "recommendation")
+                           .register(registry);
+            Gauge.builder("productsvc.cache.size", cache, InstrumentedRecommendationCache::size)
+                 .description("Entries currently cached")
+                 .tag("cache", "recommendation")
+                 .register(registry);
+            Gauge.builder("productsvc.cache.estimated.bytes", cache, InstrumentedRecommendationCache::estimatedBytes)
+                 .description("Approximate memory held by cached entries")
+                 .tag("cache", "recommendation")
+                 .baseUnit("bytes")
+                 .register(registry);
+        };
+    }
+
+    @Bean
+    public CacheTypeMetrics cacheTypeMetrics(InstrumentedProductCache cache) {
+        return new CacheTypeMetrics(cache);
+    }
+
+    /**
+     * Times cache-miss loads run by the {@link SingleFlightLoader}, one histogram per key namespace
+     * ({@code product}, {@code type}, {@code recommendation}).
+     */
+    static ObjLongConsumer<String> loadTimers(MeterRegistry registry) {
+        Map<String, Timer> timers = new ConcurrentHashMap<>();
+        return (namespace, nanos) -> timers.computeIfAbsent(namespace, ns ->
+            Timer.builder("productsvc.cache.load")
+                 .description("Time to load a cache miss")
+                 .tag("cache", ns)
+                 .publishPercentileHistogram()
+                 .register(registry)
+        ).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Per-stage request histograms; with {@code product.metrics.stages.enabled=false} nothing is recorded. */
+    @Bean
+    public StageTimer stageTimer(ObjectProvider<MeterRegistry> registry,
+                                 @Value("${product.metrics.stages.enabled:true}") boolean enabled) {
+        return new StageTimer(enabled ? registry.getIfAvailable() : null);
+    }
+
+    @Bean
+    public MeterBinder singleFlightMetrics(SingleFlightLoader loader) {
+        return registry -> {
+            FunctionCounter.builder("productsvc.singleflight.loads", loader, SingleFlightLoader::loads)
+                           .description("Cache-miss loads actually executed")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.singleflight.coalesced", loader, SingleFlightLoader::coalesced)
+                           .description("Cache misses that joined an in-flight load instead of querying")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.singleflight.failures", loader, SingleFlightLoader::failures)
+                           .description("Shared loads that failed; all waiters got the error")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.singleflight.timeouts", loader, SingleFlightLoader::timeouts)
+                           .description("Waiters that gave up on an in-flight load and loaded themselves")
+                           .register(registry);
+            Gauge.builder("productsvc.singleflight.in.flight", loader, SingleFlightLoader::inFlight)
+                 .description("Loads currently in flight")
+                 .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder missingProductMetrics(MissingProductGuard guard) {
+        return registry -> {
+            FunctionCounter.builder("productsvc.missing.filter.rejections", guard, MissingProductGuard::filterRejections)
+                           .description("Lookups answered 'not found' by the Bloom filter")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.missing.negative.hits", guard, MissingProductGuard::negativeHits)
+                           .description("Lookups answered 'not found' by the negative cache")
+                           .register(registry);
+            Gauge.builder("productsvc.missing.negative.size", guard, MissingProductGuard::negativeSize)
+                 .description("Ids currently negatively cached")
+                 .register(registry);
+            Gauge.builder("productsvc.missing.filter.bytes", guard, MissingProductGuard::filterBytes)
+                 .description("Memory held by the Bloom filter of known ids")
+                 .baseUnit("bytes")
+                 .register(registry);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "product.cache.json.enabled", havingValue = "true")
+    public MeterBinder productJsonMetrics(ProductJsonCache jsonCache) {
+        return registry -> {
+            FunctionCounter.builder("productsvc.cache.json.hits", jsonCache, ProductJsonCache::hits)
+                           .description("Product responses written from pre-encoded JSON")
+                           .register(registry);
+            FunctionCounter.builder("productsvc.cache.json.misses", jsonCache, ProductJsonCache::misses)
+                           .description("Product responses that had to be serialized")
+                           .register(registry);
+            Gauge.builder("productsvc.cache.json.size", jsonCache, ProductJsonCache::size)
+                 .description("Products with cached JSON")
+                 .register(registry);
+            Gauge.builder("productsvc.cache.json.bytes", jsonCache, ProductJsonCache::estimatedBytes)
+                 .description("Encoded JSON held for cache hits")
+                 .baseUnit("bytes")
+                 .register(registry);
+        };
+    }
+}
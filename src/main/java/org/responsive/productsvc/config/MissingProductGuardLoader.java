@@ -0,0 +1,47 @@
+package org.responsive.productsvc.config;
+
+import org.responsive.productsvc.cache.MissingProductGuard;
+import org.responsive.productsvc.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds the {@link MissingProductGuard} Bloom filter from the ids in Mongo once the application is up, then
+ * rebuilds it every {@code product.cache.missing-ids.rebuild-interval}. Saves made through this instance reach
+ * the filter at once; the rebuild is what picks up products created through other instances.
+ */
+@Component
+public class MissingProductGuardLoader {
+
+    private final MissingProductGuard guard;
+    private final ProductRepository repository;
+
+    public MissingProductGuardLoader(MissingProductGuard guard, ProductRepository repository) {
+        this.guard = guard;
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            guard.rebuild(repository::streamIds);
+            System.out.println("✅ MissingProductGuard ready — Bloom filter of " + guard.filterBytes() + " bytes.");
+        } catch (RuntimeException e) {
+            // without a filter only the negative cache is used
+            System.err.println("⚠️ MissingProductGuard rebuild failed: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${product.cache.missing-ids.rebuild-interval:1m}",
+               fixedDelayString = "${product.cache.missing-ids.rebuild-interval:1m}")
+    public void refresh() {
+        try {
+            guard.rebuild(repository::streamIds);
+        } catch (RuntimeException e) {
+            // the previous filter stays in place until a rebuild succeeds
+            System.err.println("⚠️ MissingProductGuard rebuild failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.responsive.productsvc.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Optional Mongo driver tuning. The driver's default pool of 100 connections caps concurrent queries; with
+ * virtual threads there can be far more concurrent requests than that.
+ */
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    @ConditionalOnProperty("product.mongo.max-pool-size")
+    public MongoClientSettingsBuilderCustomizer connectionPoolCustomizer(
+        @Value("${product.mongo.max-pool-size}") int maxPoolSize) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize));
+    }
+}
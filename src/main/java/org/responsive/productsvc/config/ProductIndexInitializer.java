@@ -0,0 +1,101 @@
+package org.responsive.productsvc.config;
+
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.responsive.productsvc.repository.ProductDocument;
+import org.responsive.productsvc.util.AgeRange;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.function.Function;
+
+/**
+ * Creates the compound indexes used by recommend() and backfills the pre-parsed ageMin/ageMax fields, the
+ * normalized typeKey/categoryKey and the contentHash on documents written before they existed (including the
+ * DataSeeder samples). Idempotent: only documents missing those fields are touched.
+ */
+@Configuration
+@DependsOn("dataSeeder")
+public class ProductIndexInitializer {
+
+    private static final String COLLECTION = "products";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        var indexOps = mongoTemplate.indexOps(COLLECTION);
+        indexOps.createIndex(new Index().on("type", Sort.Direction.ASC).on("price", Sort.Direction.ASC)
+                                        .named("type_price"));
+        indexOps.createIndex(new Index().on("category", Sort.Direction.ASC).on("price", Sort.Direction.ASC)
+                                        .named("category_price"));
+        // recommend() matches the normalized keys
+        indexOps.createIndex(new Index().on("typeKey", Sort.Direction.ASC).on("price", Sort.Direction.ASC)
+                                        .named("typeKey_price"));
+        indexOps.createIndex(new Index().on("categoryKey", Sort.Direction.ASC).on("price", Sort.Direction.ASC)
+                                        .named("categoryKey_price"));
+
+        Query missingAges = Query.query(Criteria.where("ageMin").exists(false));
+        missingAges.fields().include("recommendedAgeGroup");
+        int ages = backfill(missingAges, Document.class, doc -> doc.get("_id"), doc -> {
+            AgeRange range = AgeRange.parse(doc.getString("recommendedAgeGroup"));
+            // explicit nulls so the document is not picked up again
+            return new Update().set("ageMin", ProductDocument.lowerBound(range))
+                               .set("ageMax", ProductDocument.upperBound(range));
+        });
+
+        Query missingKeys = Query.query(Criteria.where("typeKey").exists(false));
+        missingKeys.fields().include("type").include("category");
+        int keys = backfill(missingKeys, Document.class, doc -> doc.get("_id"), doc ->
+            new Update().set("typeKey", RecommendationFilter.normalize(doc.getString("type")))
+                        .set("categoryKey", RecommendationFilter.normalize(doc.getString("category"))));
+
+        // If-Match updates filter on contentHash, so every document needs one
+        Query missingHashes = Query.query(Criteria.where("contentHash").exists(false));
+        int hashes = backfill(missingHashes, ProductDocument.class, ProductDocument::getId, doc ->
+            new Update().set("contentHash", ProductETags.contentHash(ProductMapper.toRecord(doc))));
+
+        System.out.println("✅ ProductIndexInitializer executed — indexes ensured, " + ages
+                               + " documents backfilled with age bounds, " + keys + " with type/category keys, "
+                               + hashes + " with content hashes.");
+    }
+
+    /** Streams the documents matching {@code missing} and applies {@code update} to each in unordered bulks. */
+    private <T> int backfill(Query missing, Class<T> type, Function<T, Object> id, Function<T, Update> update) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        int pending = 0;
+        int backfilled = 0;
+        try (var documents = mongoTemplate.stream(missing, type, COLLECTION)) {
+            for (var it = documents.iterator(); it.hasNext(); ) {
+                T doc = it.next();
+                bulk.updateOne(Query.query(Criteria.where("_id").is(id.apply(doc))), update.apply(doc));
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    backfilled += pending;
+                    pending = 0;
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+            backfilled += pending;
+        }
+        return backfilled;
+    }
+}
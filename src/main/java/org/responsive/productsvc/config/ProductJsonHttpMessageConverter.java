@@ -0,0 +1,91 @@
+package org.responsive.productsvc.config;
+
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Writes {@link ProductRecord} and {@code List<ProductRecord>} responses from the {@link ProductJsonCache}
+ * bytes instead of serializing them with Jackson. Lists are assembled as {@code [fragment,fragment,...]}.
+ * Write-only: request bodies are still read by the Jackson converter.
+ */
+public class ProductJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ProductJsonCache jsonCache;
+
+    public ProductJsonHttpMessageConverter(ProductJsonCache jsonCache) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonCache = jsonCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ProductRecord.class || Collection.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return clazz == ProductRecord.class && canWrite(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+        return isProductType(type == null ? clazz : type) && canWrite(mediaType);
+    }
+
+    // ProductRecord itself, or a collection declared with ProductRecord elements
+    private static boolean isProductType(Type type) {
+        if (type == ProductRecord.class) return true;
+        return type instanceof ParameterizedType p
+            && p.getRawType() instanceof Class<?> raw && Collection.class.isAssignableFrom(raw)
+            && p.getActualTypeArguments().length == 1 && p.getActualTypeArguments()[0] == ProductRecord.class;
+    }
+
+    @Override
+    protected void writeInternal(Object body, @Nullable Type type, HttpOutputMessage outputMessage)
+        throws IOException {
+        OutputStream out = outputMessage.getBody();
+        if (body instanceof ProductRecord product) {
+            out.write(jsonCache.toJson(product));
+            return;
+        }
+        out.write('[');
+        boolean first = true;
+        for (Object item : (Collection<?>) body) {
+            if (!first) out.write(',');
+            out.write(jsonCache.toJson((ProductRecord) item));
+            first = false;
+        }
+        out.write(']');
+    }
+
+    @Override
+    public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("write-only converter");
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("write-only converter");
+    }
+}
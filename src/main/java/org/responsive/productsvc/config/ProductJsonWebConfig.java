@@ -0,0 +1,31 @@
+package org.responsive.productsvc.config;
+
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * With {@code product.cache.json.enabled=true}, product responses of the servlet stack are written from
+ * pre-encoded bytes: the {@link ProductJsonHttpMessageConverter} goes ahead of the Jackson converter.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "product.cache.json.enabled", havingValue = "true")
+public class ProductJsonWebConfig implements WebMvcConfigurer {
+
+    private final ProductJsonCache jsonCache;
+
+    public ProductJsonWebConfig(ProductJsonCache jsonCache) {
+        this.jsonCache = jsonCache;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new ProductJsonHttpMessageConverter(jsonCache));
+    }
+}
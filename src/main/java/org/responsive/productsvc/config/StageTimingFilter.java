@@ -0,0 +1,116 @@
+package org.responsive.productsvc.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.responsive.productsvc.util.StageTimer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opens a {@link StageTimer.Request} around every servlet request and times the serialization stage: from
+ * the moment the body is opened until the handler returns, recorded against the operation that timed the
+ * earlier stages.
+ *
+ * A sampled request ({@code product.metrics.stages.sample-rate}, or any request carrying the
+ * {@code product.metrics.stages.debug-header}) gets a {@code Server-Timing} header with its stage durations.
+ * Headers must go out before the body, so the header stops at the start of serialization.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "product.metrics.stages.enabled", havingValue = "true", matchIfMissing = true)
+public class StageTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final double sampleRate;
+    private final String debugHeader;
+
+    public StageTimingFilter(@Value("${product.metrics.stages.sample-rate:0.0}") double sampleRate,
+                             @Value("${product.metrics.stages.debug-header:X-Debug-Timing}") String debugHeader) {
+        this.sampleRate = sampleRate;
+        this.debugHeader = debugHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        StageTimer.Request timings = StageTimer.begin(sampled(request));
+        TimedResponse timed = new TimedResponse(response, timings);
+        try {
+            chain.doFilter(request, timed);
+        } finally {
+            StageTimer.end();
+            timed.finish();
+        }
+    }
+
+    private boolean sampled(HttpServletRequest request) {
+        if (!debugHeader.isEmpty() && request.getHeader(debugHeader) != null) return true;
+        return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /** Notices the first body write: adds the header while it still can and starts the serialization clock. */
+    private static final class TimedResponse extends HttpServletResponseWrapper {
+
+        private final StageTimer.Request timings;
+        private long bodyStart;
+        private boolean bodyOpened;
+
+        TimedResponse(HttpServletResponse response, StageTimer.Request timings) {
+            super(response);
+            this.timings = timings;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            openBody();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            openBody();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            openBody();
+            super.flushBuffer();
+        }
+
+        private void openBody() {
+            if (bodyOpened) return;
+            bodyOpened = true;
+            bodyStart = System.nanoTime();
+            addServerTiming();
+        }
+
+        void finish() {
+            if (!bodyOpened) {
+                // no body (304, 404 without content): the header can still go out
+                if (!isCommitted()) addServerTiming();
+                return;
+            }
+            StageTimer.Operation operation = timings.operation();
+            if (operation != null) operation.record(StageTimer.Stage.SERIALIZATION, System.nanoTime() - bodyStart);
+        }
+
+        private void addServerTiming() {
+            if (!timings.isSampled()) return;
+            String value = timings.serverTiming();
+            if (!value.isEmpty()) setHeader(SERVER_TIMING_HEADER, value);
+        }
+    }
+}
@@ -7,26 +7,48 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.responsive.productsvc.dto.BatchResult;
 import org.responsive.productsvc.dto.ProductRecord;
 import org.responsive.productsvc.service.ProductService;
+import org.responsive.productsvc.util.ProductETags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Tag(
     name = "Product Management",
     description = "APIs for creating, retrieving, updating, and deleting products"
 )
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/products")
 public class ProductController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final ProductService service;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+    private final int maxIds;
 
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service,
+                             ObjectMapper objectMapper,
+                             @Value("${product.api.max-page-size:1000}") int maxPageSize,
+                             @Value("${product.api.max-ids:100}") int maxIds) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.maxIds = Math.max(1, maxIds);
     }
 
     // -------------------- CREATE PRODUCT --------------------
@@ -72,12 +94,34 @@ public class ProductController {
             .body(saved);
     }
 
+    // -------------------- BATCH UPSERT PRODUCTS --------------------
+    @Operation(
+        summary = "Create or replace products in bulk",
+        description = "Validates every product and upserts the valid ones by ID with unordered bulk writes. "
+            + "Returns one result per submitted item; failures do not stop the rest of the batch",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; see per-item status")
+        }
+    )
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> upsertProducts(
+        @io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Products to create or replace",
+            required = true
+        )
+        @RequestBody List<ProductRecord> records) {
+        return ResponseEntity.ok(service.upsertAll(records));
+    }
+
     // -------------------- GET PRODUCT BY ID --------------------
     @Operation(
         summary = "Get a product by ID",
-        description = "Fetches a single product using its unique ID",
+        description = "Fetches a single product using its unique ID. The response carries an ETag of the "
+            + "product's content; a matching If-None-Match returns 304 without a body",
         responses = {
             @ApiResponse(responseCode = "200", description = "Product found successfully"),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the given ETag",
+                content = @Content),
             @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
         }
     )
@@ -85,46 +129,114 @@ public class ProductController {
     public ResponseEntity<ProductRecord> getById(
         @Parameter(description = "Unique product ID", example = "p1")
         @PathVariable String id) {
-        return ResponseEntity.of(service.getById(id));
+        // Spring answers a matching If-None-Match with 304 before the body is written
+        return service.getById(id)
+                      .map(product -> ResponseEntity.ok().eTag(ProductETags.of(product)).body(product))
+                      .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // -------------------- GET PRODUCTS BY IDS --------------------
+    @Operation(
+        summary = "Get several products by ID",
+        description = "Returns the products for a comma-separated list of IDs in request order, skipping unknown "
+            + "IDs. Cached products are served from the cache, the rest are loaded in one query",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Products found"),
+            @ApiResponse(responseCode = "400", description = "More IDs than product.api.max-ids",
+                content = @Content)
+        }
+    )
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductRecord>> getByIds(
+        @Parameter(description = "Comma-separated product IDs", example = "p1,p2,p3")
+        @RequestParam List<String> ids) {
+        if (ids.size() > maxIds) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(service.getByIds(ids));
     }
 
     // -------------------- GET PRODUCTS BY TYPE --------------------
     @Operation(
         summary = "Get products by type",
-        description = "Retrieves all products that belong to a specific type, e.g., 'Toy', 'Book', 'Gadget'"
+        description = "Retrieves all products that belong to a specific type, e.g., 'Toy', 'Book', 'Gadget'. "
+            + "The ETag covers the whole list; a matching If-None-Match returns 304 without a body"
     )
     @GetMapping("/type/{type}")
     public ResponseEntity<List<ProductRecord>> getByType(
         @Parameter(description = "Product type", example = "Toy")
         @PathVariable String type) {
-        return ResponseEntity.ok(service.getByType(type));
+        List<ProductRecord> products = service.getByType(type);
+        return ResponseEntity.ok().eTag(ProductETags.of(products)).body(products);
     }
 
     // -------------------- GET ALL PRODUCTS --------------------
     @Operation(
         summary = "Get all products",
-        description = "Returns all products from the catalog"
+        description = "Returns all products from the catalog. With 'after' and/or 'limit' it returns one page "
+            + "ordered by id; when the page is full the " + NEXT_CURSOR_HEADER + " header holds the 'after' "
+            + "value for the next page"
     )
     @GetMapping
-    public ResponseEntity<List<ProductRecord>> getAll() {
-        return ResponseEntity.ok(service.getAll());
+    public ResponseEntity<List<ProductRecord>> getAll(
+        @Parameter(description = "Cursor: only products with an id after this one", example = "p2")
+        @RequestParam(required = false) String after,
+        @Parameter(description = "Page size, capped at product.api.max-page-size", example = "100")
+        @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            return ResponseEntity.ok(service.getAll());
+        }
+        int pageSize = Math.max(1, Math.min(limit == null ? maxPageSize : limit, maxPageSize));
+        List<ProductRecord> page = service.getPage(after, pageSize);
+        var response = ResponseEntity.ok();
+        if (page.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, page.get(page.size() - 1).id());
+        }
+        return response.body(page);
+    }
+
+    // -------------------- STREAM ALL PRODUCTS --------------------
+    @Operation(
+        summary = "Stream all products as NDJSON",
+        description = "Writes one JSON product per line straight from a database cursor, so memory use does not "
+            + "grow with the catalog. Selected with 'Accept: application/x-ndjson'"
+    )
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = out -> {
+            try (Stream<ProductRecord> products = service.streamAll()) {
+                for (Iterator<ProductRecord> it = products.iterator(); it.hasNext(); ) {
+                    out.write(objectMapper.writeValueAsBytes(it.next()));
+                    out.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     // -------------------- UPDATE PRODUCT --------------------
     @Operation(
         summary = "Update product details",
-        description = "Updates an existing product identified by its ID"
+        description = "Updates an existing product identified by its ID. With If-Match the update only "
+            + "happens while the product still has that ETag",
+        responses = {
+            @ApiResponse(responseCode = "200", description = "Product updated"),
+            @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Product changed since the If-Match ETag",
+                content = @Content)
+        }
     )
     @PutMapping("/{id}")
     public ResponseEntity<ProductRecord> updateProduct(
         @Parameter(description = "Product ID to update", example = "p1")
         @PathVariable String id,
+        @Parameter(description = "ETag the product must still have")
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody ProductRecord record) {
-        var existing = service.getById(id);
-        if (existing.isEmpty()) {
+        if (service.getById(id).isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        ProductRecord updated = service.create(new ProductRecord(
+        ProductRecord replacement = new ProductRecord(
             id,
             record.name(),
             record.type(),
@@ -132,8 +244,15 @@ public class ProductController {
             record.price(),
             record.recommendedAgeGroup(),
             record.attributes()
-        ));
-        return ResponseEntity.ok(updated);
+        );
+        if (ifMatch == null) {
+            ProductRecord updated = service.create(replacement);
+            return ResponseEntity.ok().eTag(ProductETags.of(updated)).body(updated);
+        }
+        // the ETag is checked by the write itself, so a concurrent update cannot slip in between
+        return service.replaceIfMatch(replacement, ifMatch)
+                      .map(updated -> ResponseEntity.ok().eTag(ProductETags.of(updated)).body(updated))
+                      .orElseGet(() -> ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build());
     }
 
     // -------------------- DELETE PRODUCT --------------------
@@ -6,6 +6,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.responsive.productsvc.dto.ProductRecord;
 import org.responsive.productsvc.service.ProductRecommendationService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,6 +17,7 @@ import java.util.List;
     description = "APIs that recommend similar products based on type, category, and price"
 )
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/recommendations")
 public class ProductRecommendationController {
 
@@ -0,0 +1,158 @@
+package org.responsive.productsvc.controller.reactive;
+
+import org.responsive.productsvc.controller.ProductController;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.service.ReactiveProductService;
+import org.responsive.productsvc.util.ProductETags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Functional counterpart of {@link ProductController} for the "reactive" profile; same paths, parameters,
+ * status codes and headers. List endpoints write the {@link reactor.core.publisher.Flux} as it is produced.
+ */
+@Component
+@Profile("reactive")
+public class ProductHandler {
+
+    private static final ParameterizedTypeReference<List<ProductRecord>> PRODUCT_LIST =
+        new ParameterizedTypeReference<>() {};
+
+    private final ReactiveProductService service;
+    private final int maxPageSize;
+    private final int maxIds;
+
+    public ProductHandler(ReactiveProductService service,
+                          @Value("${product.api.max-page-size:1000}") int maxPageSize,
+                          @Value("${product.api.max-ids:100}") int maxIds) {
+        this.service = service;
+        this.maxPageSize = Math.max(1, maxPageSize);
+        this.maxIds = Math.max(1, maxIds);
+    }
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(ProductRecord.class)
+                      .flatMap(service::create)
+                      .flatMap(saved -> ServerResponse.created(URI.create("/api/products/" + saved.id()))
+                                                      .bodyValue(saved));
+    }
+
+    public Mono<ServerResponse> upsertProducts(ServerRequest request) {
+        // a list rather than a Flux: null items must reach validation and be reported
+        return request.bodyToMono(PRODUCT_LIST)
+                      .flatMap(service::upsertAll)
+                      .flatMap(result -> ServerResponse.ok().bodyValue(result));
+    }
+
+    public Mono<ServerResponse> getById(ServerRequest request) {
+        return service.getById(request.pathVariable("id"))
+                      .flatMap(product -> withETag(request, ProductETags.of(product), product))
+                      .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    public Mono<ServerResponse> getByIds(ServerRequest request) {
+        List<String> ids = request.queryParams().get("ids").stream()
+                                  .flatMap(v -> Arrays.stream(StringUtils.commaDelimitedListToStringArray(v)))
+                                  .toList();
+        if (ids.size() > maxIds) {
+            return ServerResponse.badRequest().build();
+        }
+        return ServerResponse.ok().body(service.getByIds(ids), ProductRecord.class);
+    }
+
+    public Mono<ServerResponse> getByType(ServerRequest request) {
+        // the ETag covers the whole list, so it is collected first
+        return service.getByType(request.pathVariable("type"))
+                      .collectList()
+                      .flatMap(products -> withETag(request, ProductETags.of(products), products));
+    }
+
+    public Mono<ServerResponse> getAll(ServerRequest request) {
+        String after = request.queryParam("after").orElse(null);
+        String limitParam = request.queryParam("limit").orElse(null);
+        if (after == null && limitParam == null) {
+            return ServerResponse.ok().body(service.getAll(), ProductRecord.class);
+        }
+        int limit;
+        try {
+            limit = limitParam == null ? maxPageSize : Integer.parseInt(limitParam);
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        // the cursor header depends on the page size, so the page is collected first
+        return service.getPage(after, pageSize)
+                      .collectList()
+                      .flatMap(page -> {
+                          var response = ServerResponse.ok();
+                          if (page.size() == pageSize) {
+                              response.header(ProductController.NEXT_CURSOR_HEADER, page.get(page.size() - 1).id());
+                          }
+                          return response.bodyValue(page);
+                      });
+    }
+
+    public Mono<ServerResponse> streamAll(ServerRequest request) {
+        return ServerResponse.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(service.getAll(), ProductRecord.class);
+    }
+
+    public Mono<ServerResponse> update(ServerRequest request) {
+        String id = request.pathVariable("id");
+        String ifMatch = request.headers().firstHeader(HttpHeaders.IF_MATCH);
+        return service.getById(id)
+                      .flatMap(existing -> applyUpdate(id, ifMatch, request))
+                      .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    private Mono<ServerResponse> applyUpdate(String id, String ifMatch, ServerRequest request) {
+        return request.bodyToMono(ProductRecord.class)
+                      .map(record -> new ProductRecord(
+                          id,
+                          record.name(),
+                          record.type(),
+                          record.category(),
+                          record.price(),
+                          record.recommendedAgeGroup(),
+                          record.attributes()
+                      ))
+                      .flatMap(replacement -> {
+                          if (ifMatch == null) return service.create(replacement).flatMap(ProductHandler::updated);
+                          // the ETag is checked by the write itself, so a concurrent update cannot slip in between
+                          return service.replaceIfMatch(replacement, ifMatch)
+                                        .flatMap(ProductHandler::updated)
+                                        .switchIfEmpty(ServerResponse.status(HttpStatus.PRECONDITION_FAILED).build());
+                      });
+    }
+
+    private static Mono<ServerResponse> updated(ProductRecord product) {
+        return ServerResponse.ok().eTag(ProductETags.of(product)).bodyValue(product);
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return service.getById(id)
+                      .flatMap(existing -> service.delete(id).then(ServerResponse.noContent().build()))
+                      .switchIfEmpty(ServerResponse.notFound().build());
+    }
+
+    // 304 when If-None-Match names the current ETag, otherwise the body with its ETag
+    private static Mono<ServerResponse> withETag(ServerRequest request, String etag, Object body) {
+        return request.checkNotModified(etag)
+                      .switchIfEmpty(Mono.defer(() -> ServerResponse.ok().eTag(etag).bodyValue(body)));
+    }
+}
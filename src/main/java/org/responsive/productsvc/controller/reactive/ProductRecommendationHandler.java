@@ -0,0 +1,36 @@
+package org.responsive.productsvc.controller.reactive;
+
+import org.responsive.productsvc.service.ReactiveProductRecommendationService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Functional counterpart of {@link org.responsive.productsvc.controller.ProductRecommendationController}.
+ */
+@Component
+@Profile("reactive")
+public class ProductRecommendationHandler {
+
+    private final ReactiveProductRecommendationService recommendationService;
+
+    public ProductRecommendationHandler(ReactiveProductRecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    public Mono<ServerResponse> recommendSimilarProducts(ServerRequest request) {
+        int limit;
+        try {
+            limit = Integer.parseInt(request.queryParam("limit").orElse("5"));
+        } catch (NumberFormatException e) {
+            return ServerResponse.badRequest().build();
+        }
+        return recommendationService.recommendSimilarProducts(request.pathVariable("productId"), limit)
+                                    .collectList()
+                                    .flatMap(recommendations -> recommendations.isEmpty()
+                                        ? ServerResponse.notFound().build()
+                                        : ServerResponse.ok().bodyValue(recommendations));
+    }
+}
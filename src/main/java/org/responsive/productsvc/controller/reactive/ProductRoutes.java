@@ -0,0 +1,47 @@
+package org.responsive.productsvc.controller.reactive;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicates;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * Routes of the "reactive" profile, mirroring the annotated controllers. Order matters: the more specific
+ * GET /api/products variants (ids, NDJSON) come before the plain list.
+ */
+@Configuration
+@Profile("reactive")
+public class ProductRoutes {
+
+    @Bean
+    public RouterFunction<ServerResponse> productRoutes(ProductHandler handler) {
+        return RouterFunctions.route()
+                              .POST("/api/products/batch", handler::upsertProducts)
+                              .POST("/api/products", handler::create)
+                              .GET("/api/products/type/{type}", handler::getByType)
+                              .GET("/api/products/{id}", handler::getById)
+                              .GET("/api/products", RequestPredicates.queryParam("ids", v -> true), handler::getByIds)
+                              .GET("/api/products", ProductRoutes::acceptsNdjson, handler::streamAll)
+                              .GET("/api/products", handler::getAll)
+                              .PUT("/api/products/{id}", handler::update)
+                              .DELETE("/api/products/{id}", handler::delete)
+                              .build();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> recommendationRoutes(ProductRecommendationHandler handler) {
+        return RouterFunctions.route()
+                              .GET("/api/recommendations/{productId}", handler::recommendSimilarProducts)
+                              .build();
+    }
+
+    // an explicit NDJSON Accept only; */* keeps getting the JSON array
+    private static boolean acceptsNdjson(ServerRequest request) {
+        return request.headers().accept().stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype);
+    }
+}
@@ -0,0 +1,27 @@
+package org.responsive.productsvc.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch upsert: totals plus one entry per submitted item, in submission order.
+ */
+public record BatchResult(int upserted, int failed, List<Item> items) {
+
+    public enum Status { UPSERTED, FAILED }
+
+    public record Item(int index, String id, Status status, String error) {
+
+        public static Item upserted(int index, String id) {
+            return new Item(index, id, Status.UPSERTED, null);
+        }
+
+        public static Item failed(int index, String id, String error) {
+            return new Item(index, id, Status.FAILED, error);
+        }
+    }
+
+    public static BatchResult of(List<Item> items) {
+        int upserted = (int) items.stream().filter(i -> i.status() == Status.UPSERTED).count();
+        return new BatchResult(upserted, items.size() - upserted, items);
+    }
+}
@@ -0,0 +1,444 @@
+package org.responsive.productsvc.index;
+
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.service.ProductWriteListener;
+import org.responsive.productsvc.util.AgeRange;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory columnar copy of the catalog that answers recommend() filters without a Mongo round trip.
+ *
+ * Every product gets an ordinal; prices and pre-parsed age bounds live in primitive arrays by ordinal.
+ * Types and categories (case-insensitive) each have a membership {@link BitSet} and a {@link PriceColumn}
+ * of their ordinals sorted by price. A query binary-searches the price range in the smallest applicable
+ * column and tests the remaining filters against the bitmaps and age arrays, so results come back in
+ * ascending price order. {@link #similar(String, int)} walks the base product's type and category columns
+ * outward from its price, so the k nearest-priced products cost O(log n + k) instead of a full sort.
+ *
+ * The index is filled from the repository by {@link CatalogIndexLoader} and then follows
+ * {@link org.responsive.productsvc.service.ProductService} writes made through this instance; the loader
+ * reloads it periodically to pick up writes made through other instances. Writes that arrive while a load
+ * is running are replayed on top of it.
+ */
+@Component
+public class CatalogIndex implements ProductWriteListener {
+
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ProductRecord[] records = new ProductRecord[16];
+    private long[] prices = new long[16];
+    private int[] ageMin = new int[16];
+    private int[] ageMax = new int[16];
+    private int highWater;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+
+    private final Map<String, BitSet> typeBits = new HashMap<>();
+    private final Map<String, BitSet> categoryBits = new HashMap<>();
+    private final Map<String, PriceColumn> typeByPrice = new HashMap<>();
+    private final Map<String, PriceColumn> categoryByPrice = new HashMap<>();
+    private PriceColumn allByPrice = new PriceColumn();
+
+    private volatile boolean ready;
+    // non-null while the initial load is running
+    private List<Runnable> pendingWrites;
+
+    public CatalogIndex(@Value("${product.catalog-index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** True once the initial load has completed; until then callers must go to the repository. */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Starts a (re)load. Writes are queued until {@link #completeLoad}; on a reload the previous copy keeps
+     * answering queries meanwhile.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            pendingWrites = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void completeLoad(Collection<ProductRecord> snapshot) {
+        lock.writeLock().lock();
+        try {
+            rebuild(snapshot);
+            if (pendingWrites != null) pendingWrites.forEach(Runnable::run);
+            pendingWrites = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gives up on a failed load and applies the queued writes directly. An index that was never loaded stays not
+     * ready; a failed reload keeps the previous copy.
+     */
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            List<Runnable> queued = pendingWrites;
+            pendingWrites = null;
+            if (queued != null) queued.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onSaved(ProductRecord product) {
+        if (!enabled || product == null || product.id() == null) return;
+        write(() -> upsert(product));
+    }
+
+    @Override
+    public void onSavedAll(Collection<ProductRecord> products) {
+        if (!enabled || products.isEmpty()) return;
+        // last write of an id wins, as if the batch had been applied one by one
+        Map<String, ProductRecord> batch = new LinkedHashMap<>();
+        for (ProductRecord p : products) {
+            if (p != null && p.id() != null) batch.put(p.id(), p);
+        }
+        if (batch.isEmpty()) return;
+        List<ProductRecord> upserts = List.copyOf(batch.values());
+        write(() -> upsertAll(upserts));
+    }
+
+    @Override
+    public void onDeleted(String id) {
+        if (!enabled || id == null) return;
+        write(() -> {
+            Integer ordinal = ordinalsById.get(id);
+            if (ordinal != null) release(ordinal);
+        });
+    }
+
+    public List<ProductRecord> recommend(RecommendationFilter filter) {
+        lock.readLock().lock();
+        try {
+            PriceColumn column = allByPrice;
+            BitSet mustBeIn = null;
+            if (filter.type() != null && filter.category() != null) {
+                PriceColumn types = typeByPrice.get(filter.type());
+                PriceColumn categories = categoryByPrice.get(filter.category());
+                if (types == null || categories == null) return List.of();
+                // drive with the smaller column, intersect with the other's bitmap
+                boolean typesSmaller = types.size() <= categories.size();
+                column = typesSmaller ? types : categories;
+                mustBeIn = typesSmaller ? categoryBits.get(filter.category()) : typeBits.get(filter.type());
+            } else if (filter.type() != null) {
+                column = typeByPrice.get(filter.type());
+            } else if (filter.category() != null) {
+                column = categoryByPrice.get(filter.category());
+            }
+            if (column == null) return List.of();
+
+            int from = filter.minPrice() == null ? 0 : column.lowerBound(filter.minPrice());
+            int to = filter.maxPrice() == null ? column.size() : column.upperBound(filter.maxPrice());
+            Integer age = filter.age();
+            List<ProductRecord> results = new ArrayList<>(Math.max(0, Math.min(to - from, 256)));
+            for (int i = from; i < to; i++) {
+                int ordinal = column.ordinalAt(i);
+                if (mustBeIn != null && !mustBeIn.get(ordinal)) continue;
+                if (age != null && (age < ageMin[ordinal] || age > ageMax[ordinal])) continue;
+                results.add(records[ordinal]);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} products sharing the base product's type or category, nearest in price first.
+     * Empty when the base product is not indexed.
+     */
+    public List<ProductRecord> similar(String productId, int limit) {
+        if (productId == null || limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            Integer base = ordinalsById.get(productId);
+            if (base == null) return List.of();
+            ProductRecord product = records[base];
+            long price = prices[base];
+            Outward byType = Outward.from(typeByPrice.get(key(product.type())), price);
+            Outward byCategory = Outward.from(categoryByPrice.get(key(product.category())), price);
+
+            List<ProductRecord> results = new ArrayList<>(Math.min(limit, 64));
+            // a product in both columns is met twice
+            Set<Integer> seen = new HashSet<>();
+            while (results.size() < limit) {
+                long typeDistance = byType == null ? Long.MAX_VALUE : byType.nextDistance();
+                long categoryDistance = byCategory == null ? Long.MAX_VALUE : byCategory.nextDistance();
+                if (typeDistance == Long.MAX_VALUE && categoryDistance == Long.MAX_VALUE) break;
+                int ordinal = typeDistance <= categoryDistance ? byType.take() : byCategory.take();
+                if (ordinal != base && seen.add(ordinal)) results.add(records[ordinal]);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<ProductRecord> get(String id) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalsById.get(id);
+            return ordinal == null ? Optional.empty() : Optional.of(records[ordinal]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinalsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (pendingWrites != null) pendingWrites.add(change);
+            else change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void upsert(ProductRecord product) {
+        Integer existing = ordinalsById.get(product.id());
+        if (existing != null) release(existing);
+
+        int ordinal = freeOrdinals.isEmpty() ? highWater++ : freeOrdinals.pop();
+        ensureCapacity(ordinal + 1);
+        store(ordinal, product);
+
+        allByPrice.add(product.price(), ordinal);
+        String type = key(product.type());
+        if (type != null) {
+            typeBits.computeIfAbsent(type, k -> new BitSet()).set(ordinal);
+            typeByPrice.computeIfAbsent(type, k -> new PriceColumn()).add(product.price(), ordinal);
+        }
+        String category = key(product.category());
+        if (category != null) {
+            categoryBits.computeIfAbsent(category, k -> new BitSet()).set(ordinal);
+            categoryByPrice.computeIfAbsent(category, k -> new PriceColumn()).add(product.price(), ordinal);
+        }
+    }
+
+    /**
+     * Applies a batch with one pass per affected {@link PriceColumn}: the replaced ordinals are compacted out of
+     * each column at once, then the new ones are merged in sorted, instead of shifting a column tail per product.
+     */
+    private void upsertAll(List<ProductRecord> batch) {
+        BitSet replaced = new BitSet();
+        Set<String> replacedTypes = new HashSet<>();
+        Set<String> replacedCategories = new HashSet<>();
+        for (ProductRecord product : batch) {
+            Integer existing = ordinalsById.get(product.id());
+            if (existing == null) continue;
+            replaced.set(existing);
+            String type = key(records[existing].type());
+            if (type != null) {
+                clearBit(typeBits, type, existing);
+                replacedTypes.add(type);
+            }
+            String category = key(records[existing].category());
+            if (category != null) {
+                clearBit(categoryBits, category, existing);
+                replacedCategories.add(category);
+            }
+        }
+        if (!replaced.isEmpty()) {
+            allByPrice.removeAll(replaced);
+            compact(typeByPrice, replacedTypes, replaced);
+            compact(categoryByPrice, replacedCategories, replaced);
+            replaced.stream().forEach(ordinal -> {
+                ordinalsById.remove(records[ordinal].id());
+                records[ordinal] = null;
+                freeOrdinals.push(ordinal);
+            });
+        }
+
+        int[] added = new int[batch.size()];
+        Map<String, List<Integer>> addedByType = new HashMap<>();
+        Map<String, List<Integer>> addedByCategory = new HashMap<>();
+        for (int i = 0; i < added.length; i++) {
+            ProductRecord product = batch.get(i);
+            int ordinal = freeOrdinals.isEmpty() ? highWater++ : freeOrdinals.pop();
+            ensureCapacity(ordinal + 1);
+            store(ordinal, product);
+            added[i] = ordinal;
+            String type = key(product.type());
+            if (type != null) {
+                typeBits.computeIfAbsent(type, k -> new BitSet()).set(ordinal);
+                addedByType.computeIfAbsent(type, k -> new ArrayList<>()).add(ordinal);
+            }
+            String category = key(product.category());
+            if (category != null) {
+                categoryBits.computeIfAbsent(category, k -> new BitSet()).set(ordinal);
+                addedByCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(ordinal);
+            }
+        }
+        allByPrice.addAll(added, added.length, prices);
+        merge(typeByPrice, addedByType);
+        merge(categoryByPrice, addedByCategory);
+    }
+
+    private static void clearBit(Map<String, BitSet> bits, String key, int ordinal) {
+        BitSet set = bits.get(key);
+        if (set == null) return;
+        set.clear(ordinal);
+        if (set.isEmpty()) bits.remove(key);
+    }
+
+    private static void compact(Map<String, PriceColumn> columns, Set<String> keys, BitSet replaced) {
+        for (String key : keys) {
+            PriceColumn column = columns.get(key);
+            if (column == null) continue;
+            column.removeAll(replaced);
+            if (column.isEmpty()) columns.remove(key);
+        }
+    }
+
+    private void merge(Map<String, PriceColumn> columns, Map<String, List<Integer>> groups) {
+        groups.forEach((key, group) -> columns.computeIfAbsent(key, k -> new PriceColumn())
+                                              .addAll(group.stream().mapToInt(Integer::intValue).toArray(),
+                                                      group.size(), prices));
+    }
+
+    private void release(int ordinal) {
+        ProductRecord product = records[ordinal];
+        long price = prices[ordinal];
+        allByPrice.remove(price, ordinal);
+        unlink(typeBits, typeByPrice, key(product.type()), price, ordinal);
+        unlink(categoryBits, categoryByPrice, key(product.category()), price, ordinal);
+        ordinalsById.remove(product.id());
+        records[ordinal] = null;
+        freeOrdinals.push(ordinal);
+    }
+
+    private static void unlink(Map<String, BitSet> bits, Map<String, PriceColumn> columns,
+                               String key, long price, int ordinal) {
+        if (key == null) return;
+        clearBit(bits, key, ordinal);
+        PriceColumn column = columns.get(key);
+        if (column != null) {
+            column.remove(price, ordinal);
+            if (column.isEmpty()) columns.remove(key);
+        }
+    }
+
+    private void rebuild(Collection<ProductRecord> snapshot) {
+        int size = snapshot.size();
+        records = new ProductRecord[Math.max(16, size)];
+        prices = new long[records.length];
+        ageMin = new int[records.length];
+        ageMax = new int[records.length];
+        ordinalsById.clear();
+        freeOrdinals.clear();
+        typeBits.clear();
+        categoryBits.clear();
+
+        int ordinal = 0;
+        for (ProductRecord product : snapshot) {
+            if (product == null || product.id() == null || ordinalsById.containsKey(product.id())) continue;
+            store(ordinal, product);
+            String type = key(product.type());
+            if (type != null) typeBits.computeIfAbsent(type, k -> new BitSet()).set(ordinal);
+            String category = key(product.category());
+            if (category != null) categoryBits.computeIfAbsent(category, k -> new BitSet()).set(ordinal);
+            ordinal++;
+        }
+        highWater = ordinal;
+
+        int[] all = new int[highWater];
+        for (int i = 0; i < highWater; i++) all[i] = i;
+        allByPrice = PriceColumn.of(all, highWater, prices);
+        rebuildColumns(typeBits, typeByPrice);
+        rebuildColumns(categoryBits, categoryByPrice);
+    }
+
+    private void rebuildColumns(Map<String, BitSet> bits, Map<String, PriceColumn> columns) {
+        columns.clear();
+        bits.forEach((key, set) -> columns.put(key, PriceColumn.of(set.stream().toArray(), set.cardinality(), prices)));
+    }
+
+    private void store(int ordinal, ProductRecord product) {
+        AgeRange age = AgeRange.parse(product.recommendedAgeGroup());
+        records[ordinal] = product;
+        prices[ordinal] = product.price();
+        ageMin[ordinal] = age.min();
+        ageMax[ordinal] = age.max();
+        ordinalsById.put(product.id(), ordinal);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= records.length) return;
+        int grown = Math.max(needed, records.length + (records.length >> 1));
+        records = Arrays.copyOf(records, grown);
+        prices = Arrays.copyOf(prices, grown);
+        ageMin = Arrays.copyOf(ageMin, grown);
+        ageMax = Arrays.copyOf(ageMax, grown);
+    }
+
+    /** Two pointers moving away from a base price in a {@link PriceColumn}, nearest side first. */
+    private static final class Outward {
+        private final PriceColumn column;
+        private final long base;
+        private int down;
+        private int up;
+
+        private Outward(PriceColumn column, long base) {
+            this.column = column;
+            this.base = base;
+            this.up = column.lowerBound(base);
+            this.down = up - 1;
+        }
+
+        static Outward from(PriceColumn column, long base) {
+            return column == null ? null : new Outward(column, base);
+        }
+
+        long nextDistance() {
+            return Math.min(upDistance(), downDistance());
+        }
+
+        int take() {
+            return upDistance() <= downDistance() ? column.ordinalAt(up++) : column.ordinalAt(down--);
+        }
+
+        private long upDistance() {
+            return up < column.size() ? column.priceAt(up) - base : Long.MAX_VALUE;
+        }
+
+        private long downDistance() {
+            return down >= 0 ? base - column.priceAt(down) : Long.MAX_VALUE;
+        }
+    }
+
+    private static String key(String s) {
+        return s == null || s.isBlank() ? null : s.trim().toLowerCase();
+    }
+}
@@ -0,0 +1,50 @@
+package org.responsive.productsvc.index;
+
+import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.util.ProductMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the {@link CatalogIndex} from Mongo once the application (and DataSeeder) is up, then reloads it every
+ * {@code product.catalog-index.reload-interval}. Writes made through this instance reach the index at once; the
+ * reload is what picks up products written through other instances.
+ */
+@Component
+public class CatalogIndexLoader {
+
+    private final CatalogIndex index;
+    private final ProductRepository repository;
+
+    public CatalogIndexLoader(CatalogIndex index, ProductRepository repository) {
+        this.index = index;
+        this.repository = repository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!index.isEnabled()) return;
+        if (reload()) System.out.println("✅ CatalogIndex loaded — " + index.size() + " products indexed.");
+    }
+
+    @Scheduled(initialDelayString = "${product.catalog-index.reload-interval:5m}",
+               fixedDelayString = "${product.catalog-index.reload-interval:5m}")
+    public void refresh() {
+        if (index.isEnabled()) reload();
+    }
+
+    private boolean reload() {
+        index.beginLoad();
+        try {
+            index.completeLoad(repository.findAll().stream().map(ProductMapper::toRecord).toList());
+            return true;
+        } catch (RuntimeException e) {
+            // recommend() keeps using Mongo until a load succeeds; a failed reload keeps the previous copy
+            index.abortLoad();
+            System.err.println("⚠️ CatalogIndex load failed: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.responsive.productsvc.index;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Catalog ordinals kept sorted by price in two parallel primitive arrays. Lookups are binary searches;
+ * single inserts and removals shift the tail with {@link System#arraycopy}, batches are merged or compacted
+ * in one pass. Not thread-safe.
+ */
+final class PriceColumn {
+
+    private long[] prices;
+    private int[] ordinals;
+    private int size;
+
+    PriceColumn() {
+        this(8);
+    }
+
+    private PriceColumn(int capacity) {
+        this.prices = new long[capacity];
+        this.ordinals = new int[capacity];
+    }
+
+    /** Builds a column from unsorted ordinals in O(n log n). */
+    static PriceColumn of(int[] members, int count, long[] pricesByOrdinal) {
+        PriceColumn column = new PriceColumn(Math.max(8, count));
+        Integer[] sorted = sortedByPrice(members, count, pricesByOrdinal);
+        for (int i = 0; i < count; i++) {
+            column.ordinals[i] = sorted[i];
+            column.prices[i] = pricesByOrdinal[sorted[i]];
+        }
+        column.size = count;
+        return column;
+    }
+
+    void add(long price, int ordinal) {
+        ensureCapacity(size + 1);
+        int at = upperBound(price);
+        System.arraycopy(prices, at, prices, at + 1, size - at);
+        System.arraycopy(ordinals, at, ordinals, at + 1, size - at);
+        prices[at] = price;
+        ordinals[at] = ordinal;
+        size++;
+    }
+
+    void remove(long price, int ordinal) {
+        for (int i = lowerBound(price); i < size && prices[i] == price; i++) {
+            if (ordinals[i] == ordinal) {
+                System.arraycopy(prices, i + 1, prices, i, size - i - 1);
+                System.arraycopy(ordinals, i + 1, ordinals, i, size - i - 1);
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch of ordinals in O(n + k log k): the batch is sorted, then merged in from the tail so every
+     * existing entry moves at most once. Equal prices land after the entries already present, as with
+     * {@link #add}.
+     */
+    void addAll(int[] members, int count, long[] pricesByOrdinal) {
+        if (count == 0) return;
+        Integer[] sorted = sortedByPrice(members, count, pricesByOrdinal);
+        ensureCapacity(size + count);
+        int i = size - 1;
+        int j = count - 1;
+        for (int w = size + count - 1; j >= 0; w--) {
+            long price = pricesByOrdinal[sorted[j]];
+            if (i >= 0 && prices[i] > price) {
+                prices[w] = prices[i];
+                ordinals[w] = ordinals[i--];
+            } else {
+                prices[w] = price;
+                ordinals[w] = sorted[j--];
+            }
+        }
+        size += count;
+    }
+
+    /** Drops every ordinal set in {@code removed}, compacting the column in a single pass. */
+    void removeAll(BitSet removed) {
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            if (removed.get(ordinals[i])) continue;
+            prices[kept] = prices[i];
+            ordinals[kept++] = ordinals[i];
+        }
+        size = kept;
+    }
+
+    /** First position whose price is {@code >= price}. */
+    int lowerBound(long price) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] < price) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** First position whose price is {@code > price}. */
+    int upperBound(long price) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (prices[mid] <= price) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    long priceAt(int position) {
+        return prices[position];
+    }
+
+    int ordinalAt(int position) {
+        return ordinals[position];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= prices.length) return;
+        int grown = Math.max(needed, prices.length + (prices.length >> 1) + 1);
+        prices = Arrays.copyOf(prices, grown);
+        ordinals = Arrays.copyOf(ordinals, grown);
+    }
+
+    private static Integer[] sortedByPrice(int[] members, int count, long[] pricesByOrdinal) {
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) sorted[i] = members[i];
+        Arrays.sort(sorted, (a, b) -> Long.compare(pricesByOrdinal[a], pricesByOrdinal[b]));
+        return sorted;
+    }
+}
@@ -1,7 +1,12 @@
 package org.responsive.productsvc.repository;
 
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.AgeRange;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.RecommendationFilter;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import java.util.Map;
 
 @Document(collection = "products")
@@ -14,7 +19,20 @@ public class ProductDocument {
     private String category;
     private long price;
     private String recommendedAgeGroup;
+    // RecommendationFilter.normalize of type and category, so recommend() matches them with one equality query
+    @Field(write = Field.Write.ALWAYS)
+    private String typeKey;
+    @Field(write = Field.Write.ALWAYS)
+    private String categoryKey;
+    // pre-parsed recommendedAgeGroup bounds; null means open-ended (or unparseable, which matches any age)
+    @Field(write = Field.Write.ALWAYS)
+    private Integer ageMin;
+    @Field(write = Field.Write.ALWAYS)
+    private Integer ageMax;
     private Map<String, String> attributes;
+    // ProductETags.contentHash of the product fields, so If-Match updates can be a single conditional replace
+    @Field(write = Field.Write.ALWAYS)
+    private String contentHash;
 
     public ProductDocument() {}
 
@@ -23,31 +41,70 @@ public class ProductDocument {
         this.id = id;
         this.name = name;
         this.type = type;
+        this.typeKey = RecommendationFilter.normalize(type);
         this.category = category;
+        this.categoryKey = RecommendationFilter.normalize(category);
         this.price = price;
-        this.recommendedAgeGroup = recommendedAgeGroup;
         this.attributes = attributes;
+        applyAgeGroup(recommendedAgeGroup);
     }
 
     // Getters and setters
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) { this.id = id; refreshContentHash(); }
 
     public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
+    public void setName(String name) { this.name = name; refreshContentHash(); }
 
     public String getType() { return type; }
-    public void setType(String type) { this.type = type; }
+    public void setType(String type) {
+        this.type = type;
+        this.typeKey = RecommendationFilter.normalize(type);
+        refreshContentHash();
+    }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) {
+        this.category = category;
+        this.categoryKey = RecommendationFilter.normalize(category);
+        refreshContentHash();
+    }
 
     public long getPrice() { return price; }
-    public void setPrice(long price) { this.price = price; }
+    public void setPrice(long price) { this.price = price; refreshContentHash(); }
 
     public String getRecommendedAgeGroup() { return recommendedAgeGroup; }
-    public void setRecommendedAgeGroup(String recommendedAgeGroup) { this.recommendedAgeGroup = recommendedAgeGroup; }
+    public void setRecommendedAgeGroup(String recommendedAgeGroup) { applyAgeGroup(recommendedAgeGroup); }
+
+    private void applyAgeGroup(String recommendedAgeGroup) {
+        this.recommendedAgeGroup = recommendedAgeGroup;
+        AgeRange range = AgeRange.parse(recommendedAgeGroup);
+        this.ageMin = lowerBound(range);
+        this.ageMax = upperBound(range);
+        refreshContentHash();
+    }
+
+    private void refreshContentHash() {
+        this.contentHash = ProductETags.contentHash(
+            new ProductRecord(id, name, type, category, price, recommendedAgeGroup, attributes));
+    }
+
+    public String getTypeKey() { return typeKey; }
+    public String getCategoryKey() { return categoryKey; }
+
+    public Integer getAgeMin() { return ageMin; }
+    public Integer getAgeMax() { return ageMax; }
 
     public Map<String, String> getAttributes() { return attributes; }
-    public void setAttributes(Map<String, String> attributes) { this.attributes = attributes; }
+    public void setAttributes(Map<String, String> attributes) { this.attributes = attributes; refreshContentHash(); }
+
+    public String getContentHash() { return contentHash; }
+
+    public static Integer lowerBound(AgeRange range) {
+        return range.min() == Integer.MIN_VALUE ? null : range.min();
+    }
+
+    public static Integer upperBound(AgeRange range) {
+        return range.max() == Integer.MAX_VALUE ? null : range.max();
+    }
 }
@@ -5,7 +5,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends MongoRepository<ProductDocument, String> {
+public interface ProductRepository extends MongoRepository<ProductDocument, String>, ProductRepositoryCustom {
     List<ProductDocument> findByType(String type);
     List<ProductDocument> findByCategory(String category);
 }
@@ -0,0 +1,48 @@
+package org.responsive.productsvc.repository;
+
+import org.responsive.productsvc.util.RecommendationFilter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Queries that need {@link org.springframework.data.mongodb.core.MongoTemplate} rather than derived methods.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Runs all recommend() filters in Mongo as one query, ordered by price, matching type and category ignoring
+     * case as the in-memory filter does (through the stored typeKey / categoryKey).
+     */
+    List<ProductDocument> findRecommendations(RecommendationFilter filter);
+
+    /**
+     * Up to {@code limit} products sharing the base product's type or category (ignoring case), nearest in price
+     * first, without the base itself. Reads at most {@code limit + 1} documents on each side of the base price
+     * per key, each off the (typeKey, price) / (categoryKey, price) index.
+     */
+    List<ProductDocument> findSimilar(ProductDocument base, int limit);
+
+    /** Keyset page: up to {@code limit} documents with an id greater than {@code after} (null = from start), by id. */
+    List<ProductDocument> findPageAfter(String after, int limit);
+
+    /** Every product id, read lazily from a Mongo cursor projecting only _id. The stream must be closed. */
+    Stream<String> streamIds();
+
+    /** Every document, read lazily from a Mongo cursor. The stream must be closed. */
+    Stream<ProductDocument> streamAll();
+
+    /**
+     * Replaces the document with the same id in one replaceOne filtered on its id and stored content hash, so
+     * it only happens while that hash is one of {@code contentHashes} ({@code null} accepts any). False when no
+     * document matched: it is missing or was changed in the meantime.
+     */
+    boolean replaceIfMatch(ProductDocument document, List<String> contentHashes);
+
+    /**
+     * Upserts by id in one unordered bulk write. Returns the error message of each failed document keyed by
+     * its position in {@code documents}; all other documents were written.
+     */
+    Map<Integer, String> bulkUpsert(List<ProductDocument> documents);
+}
@@ -0,0 +1,167 @@
+package org.responsive.productsvc.repository;
+
+import org.bson.Document;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keyset paging, cursor streaming, conditional replaces and bulk upserts over the catalog, plus the single
+ * Criteria query for recommend(), served by the (typeKey, price) and (categoryKey, price) indexes created by
+ * {@link org.responsive.productsvc.config.ProductIndexInitializer}.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public ProductRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<ProductDocument> findRecommendations(RecommendationFilter filter) {
+        return mongoTemplate.find(recommendationQuery(filter), ProductDocument.class);
+    }
+
+    @Override
+    public List<ProductDocument> findSimilar(ProductDocument base, int limit) {
+        List<ProductDocument> candidates = new ArrayList<>();
+        similarQueries(base, limit).forEach(query -> candidates.addAll(mongoTemplate.find(query, ProductDocument.class)));
+        return nearest(base, candidates, limit);
+    }
+
+    @Override
+    public List<ProductDocument> findPageAfter(String after, int limit) {
+        return mongoTemplate.find(pageQuery(after, limit), ProductDocument.class);
+    }
+
+    @Override
+    public Stream<String> streamIds() {
+        Query query = new Query();
+        query.fields().include("_id");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(ProductDocument.class))
+                            .map(d -> String.valueOf(d.get("_id")));
+    }
+
+    @Override
+    public Stream<ProductDocument> streamAll() {
+        return mongoTemplate.stream(new Query(), ProductDocument.class);
+    }
+
+    @Override
+    public boolean replaceIfMatch(ProductDocument document, List<String> contentHashes) {
+        return mongoTemplate.replace(ifMatchQuery(document.getId(), contentHashes), document).getMatchedCount() > 0;
+    }
+
+    @Override
+    public Map<Integer, String> bulkUpsert(List<ProductDocument> documents) {
+        if (documents.isEmpty()) return Map.of();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ProductDocument.class);
+        for (ProductDocument document : documents) {
+            bulk.replaceOne(Query.query(Criteria.where("_id").is(document.getId())), document,
+                            FindAndReplaceOptions.options().upsert());
+        }
+        try {
+            bulk.execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            // unordered: everything except the reported indexes was applied
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            return failures;
+        } catch (DataAccessException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            for (int i = 0; i < documents.size(); i++) failures.put(i, e.getMessage());
+            return failures;
+        }
+    }
+
+    static Query ifMatchQuery(String id, List<String> contentHashes) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (contentHashes != null) criteria = criteria.and("contentHash").in(contentHashes);
+        return Query.query(criteria);
+    }
+
+    /**
+     * For the base's typeKey and categoryKey, the {@code limit + 1} nearest prices at or above the base price and
+     * the {@code limit} below it: the base itself takes at most one of the slots above, so the nearest
+     * {@code limit} others of each key are always among them.
+     */
+    static List<Query> similarQueries(ProductDocument base, int limit) {
+        List<Query> queries = new ArrayList<>(4);
+        // a Mongo limit of 0 means no limit
+        if (limit <= 0) return queries;
+        for (Criteria key : new Criteria[] {keyCriteria("typeKey", base.getTypeKey()),
+                                            keyCriteria("categoryKey", base.getCategoryKey())}) {
+            if (key == null) continue;
+            queries.add(Query.query(new Criteria().andOperator(key, Criteria.where("price").gte(base.getPrice())))
+                             .with(Sort.by(Sort.Direction.ASC, "price")).limit(limit + 1));
+            queries.add(Query.query(new Criteria().andOperator(key, Criteria.where("price").lt(base.getPrice())))
+                             .with(Sort.by(Sort.Direction.DESC, "price")).limit(limit));
+        }
+        return queries;
+    }
+
+    private static Criteria keyCriteria(String field, String key) {
+        return key == null ? null : Criteria.where(field).is(key);
+    }
+
+    /** The {@link #similarQueries} results merged: deduplicated, without the base, nearest price first. */
+    static List<ProductDocument> nearest(ProductDocument base, Collection<ProductDocument> candidates, int limit) {
+        Map<String, ProductDocument> unique = new LinkedHashMap<>();
+        for (ProductDocument candidate : candidates) {
+            if (!candidate.getId().equals(base.getId())) unique.putIfAbsent(candidate.getId(), candidate);
+        }
+        return unique.values().stream()
+                     .sorted(Comparator.comparingLong(p -> Math.abs(p.getPrice() - base.getPrice())))
+                     .limit(limit)
+                     .toList();
+    }
+
+    static Query pageQuery(String after, int limit) {
+        Query query = after == null ? new Query() : Query.query(Criteria.where("_id").gt(after));
+        return query.with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+    }
+
+    /**
+     * The recommend() filter as one query: the filter's normalized type and category are matched by equality on
+     * the stored typeKey / categoryKey, so ignoring case still stays on the (typeKey, price) and
+     * (categoryKey, price) indexes.
+     */
+    static Query recommendationQuery(RecommendationFilter filter) {
+        List<Criteria> filters = new ArrayList<>();
+        if (filter.type() != null) filters.add(Criteria.where("typeKey").is(filter.type()));
+        if (filter.category() != null) filters.add(Criteria.where("categoryKey").is(filter.category()));
+        Long minPrice = filter.minPrice();
+        Long maxPrice = filter.maxPrice();
+        if (minPrice != null || maxPrice != null) {
+            Criteria price = Criteria.where("price");
+            if (minPrice != null) price = price.gte(minPrice);
+            if (maxPrice != null) price = price.lte(maxPrice);
+            filters.add(price);
+        }
+        Integer age = filter.age();
+        if (age != null) {
+            // null / missing bounds are open-ended, like AgeRange
+            filters.add(new Criteria().orOperator(Criteria.where("ageMin").is(null), Criteria.where("ageMin").lte(age)));
+            filters.add(new Criteria().orOperator(Criteria.where("ageMax").is(null), Criteria.where("ageMax").gte(age)));
+        }
+        Criteria criteria = filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters);
+        return Query.query(criteria).with(Sort.by(Sort.Direction.ASC, "price"));
+    }
+}
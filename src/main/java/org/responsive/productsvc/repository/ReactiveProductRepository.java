@@ -0,0 +1,14 @@
+package org.responsive.productsvc.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link ProductRepository} over the same collection, used by the reactive profile.
+ */
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<ProductDocument, String>,
+    ReactiveProductRepositoryCustom {
+    Flux<ProductDocument> findByType(String type);
+}
@@ -0,0 +1,25 @@
+package org.responsive.productsvc.repository;
+
+import org.responsive.productsvc.util.RecommendationFilter;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Reactive versions of the {@link ProductRepositoryCustom} queries; both build the same Mongo queries.
+ */
+public interface ReactiveProductRepositoryCustom {
+
+    /** See {@link ProductRepositoryCustom#findRecommendations(RecommendationFilter)}. */
+    Flux<ProductDocument> findRecommendations(RecommendationFilter filter);
+
+    /** See {@link ProductRepositoryCustom#findSimilar}. */
+    Flux<ProductDocument> findSimilar(ProductDocument base, int limit);
+
+    /** See {@link ProductRepositoryCustom#findPageAfter}. */
+    Flux<ProductDocument> findPageAfter(String after, int limit);
+
+    /** See {@link ProductRepositoryCustom#replaceIfMatch}. */
+    Mono<Boolean> replaceIfMatch(ProductDocument document, List<String> contentHashes);
+}
@@ -0,0 +1,44 @@
+package org.responsive.productsvc.repository;
+
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Runs the queries of {@link ProductRepositoryCustomImpl} through {@link ReactiveMongoTemplate}.
+ */
+public class ReactiveProductRepositoryCustomImpl implements ReactiveProductRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveProductRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<ProductDocument> findRecommendations(RecommendationFilter filter) {
+        return mongoTemplate.find(ProductRepositoryCustomImpl.recommendationQuery(filter), ProductDocument.class);
+    }
+
+    @Override
+    public Flux<ProductDocument> findSimilar(ProductDocument base, int limit) {
+        return Flux.fromIterable(ProductRepositoryCustomImpl.similarQueries(base, limit))
+                   .flatMap(query -> mongoTemplate.find(query, ProductDocument.class))
+                   .collectList()
+                   .flatMapIterable(candidates -> ProductRepositoryCustomImpl.nearest(base, candidates, limit));
+    }
+
+    @Override
+    public Flux<ProductDocument> findPageAfter(String after, int limit) {
+        return mongoTemplate.find(ProductRepositoryCustomImpl.pageQuery(after, limit), ProductDocument.class);
+    }
+
+    @Override
+    public Mono<Boolean> replaceIfMatch(ProductDocument document, List<String> contentHashes) {
+        return mongoTemplate.replace(ProductRepositoryCustomImpl.ifMatchQuery(document.getId(), contentHashes), document)
+                            .map(result -> result.getMatchedCount() > 0);
+    }
+}
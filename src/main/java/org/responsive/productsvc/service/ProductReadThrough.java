@@ -0,0 +1,138 @@
+package org.responsive.productsvc.service;
+
+import org.responsive.productsvc.cache.MissingProductGuard;
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.index.CatalogIndex;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * What happens in memory around a product or recommendation read: answer from the caches or the CatalogIndex
+ * where possible, keep known-missing ids away from Mongo, and write what Mongo returned back into the caches.
+ * The counterpart of {@link ProductWriteEffects} for reads, shared by the blocking and the reactive services
+ * so both decide the same way; they only differ in how they run the Mongo call in between.
+ */
+@Component
+public class ProductReadThrough {
+
+    private final ProductCache cache;
+    private final RecommendationCache recommendationCache;
+    private final MissingProductGuard missingGuard;
+    private final CatalogIndex catalogIndex;
+
+    public ProductReadThrough(ProductCache cache, RecommendationCache recommendationCache,
+                              MissingProductGuard missingGuard, CatalogIndex catalogIndex) {
+        this.cache = cache;
+        this.recommendationCache = recommendationCache;
+        this.missingGuard = missingGuard;
+        this.catalogIndex = catalogIndex;
+    }
+
+    /**
+     * An id lookup before Mongo: answered when the product is cached or known to be missing, otherwise to be
+     * loaded and passed to {@link #loaded}. The guard epoch is read first, so a miss recorded afterwards
+     * cannot outlive a concurrent create.
+     */
+    public record Lookup(String id, ProductRecord cached, boolean knownMissing, long epoch) {
+        public boolean answered() {
+            return cached != null || knownMissing;
+        }
+
+        public Optional<ProductRecord> answer() {
+            return Optional.ofNullable(cached);
+        }
+    }
+
+    public Lookup lookup(String id) {
+        var cached = cache.getById(id);
+        if (cached.isPresent()) return new Lookup(id, cached.get(), false, 0);
+        // known-missing ids never reach Mongo
+        if (missingGuard.isDefinitelyMissing(id)) return new Lookup(id, null, true, 0);
+        return new Lookup(id, null, false, missingGuard.epoch());
+    }
+
+    /** Caches what Mongo returned for {@code lookup}, or records the id as missing. */
+    public Optional<ProductRecord> loaded(Lookup lookup, Optional<ProductRecord> found) {
+        found.ifPresentOrElse(cache::put, () -> missingGuard.recordMiss(lookup.id(), lookup.epoch()));
+        return found;
+    }
+
+    /** A multi-get before Mongo: the distinct ids in request order, those found cached, and those to load. */
+    public record BatchLookup(Set<String> ids, Map<String, ProductRecord> found, List<String> misses, long epoch) {}
+
+    public BatchLookup lookupAll(List<String> ids) {
+        Set<String> unique = new LinkedHashSet<>(ids);
+        unique.remove(null);
+        long epoch = missingGuard.epoch();
+        Map<String, ProductRecord> found = new HashMap<>(cache.getAllById(unique));
+        List<String> misses = unique.stream()
+                                    .filter(id -> !found.containsKey(id))
+                                    .filter(id -> !missingGuard.isDefinitelyMissing(id))
+                                    .toList();
+        return new BatchLookup(unique, found, misses, epoch);
+    }
+
+    /**
+     * Caches the products Mongo returned for the misses of {@code lookup} as one batch, records the rest as
+     * missing, and returns every product found in request order.
+     */
+    public List<ProductRecord> loadedAll(BatchLookup lookup, List<ProductRecord> loaded) {
+        Map<String, ProductRecord> found = lookup.found();
+        if (!loaded.isEmpty()) {
+            loaded.forEach(p -> found.put(p.id(), p));
+            cache.putAll(loaded);
+        }
+        lookup.misses().stream()
+              .filter(id -> !found.containsKey(id))
+              .forEach(id -> missingGuard.recordMiss(id, lookup.epoch()));
+        List<ProductRecord> results = new ArrayList<>(lookup.ids().size());
+        for (String id : lookup.ids()) {
+            ProductRecord product = found.get(id);
+            if (product != null) results.add(product);
+        }
+        return results;
+    }
+
+    /** The whole type from the cache; a partially cached type is not an answer. */
+    public Optional<List<ProductRecord>> cachedType(String type) {
+        return cache.getTypeIfComplete(type);
+    }
+
+    public List<ProductRecord> loadedType(String type, List<ProductRecord> records) {
+        cache.putType(type, records);
+        return records;
+    }
+
+    /** The cached result for the raw recommend() parameters, or null on a miss. */
+    public List<ProductRecord> cachedRecommendations(Long minPrice, Long maxPrice, String type, String category,
+                                                     Integer age) {
+        return recommendationCache.getIfPresent(minPrice, maxPrice, type, category, age);
+    }
+
+    /** The CatalogIndex answer once it is loaded, or null while the caller has to go to Mongo. */
+    public List<ProductRecord> indexedRecommendations(RecommendationFilter filter) {
+        return catalogIndex.isReady() ? catalogIndex.recommend(filter) : null;
+    }
+
+    /** See {@link #indexedRecommendations}. */
+    public List<ProductRecord> indexedSimilar(String productId, int limit) {
+        return catalogIndex.isReady() ? catalogIndex.similar(productId, limit) : null;
+    }
+
+    /** Caches the products of a result the recommendation cache refreshed itself, for later id lookups. */
+    public List<ProductRecord> reloadedRecommendations(List<ProductRecord> results) {
+        cache.putAll(results);
+        return results;
+    }
+
+    /** Caches a computed result under its key, and its products for later id lookups. */
+    public List<ProductRecord> loadedRecommendations(String key, List<ProductRecord> results) {
+        recommendationCache.put(key, results);
+        cache.putAll(results);
+        return results;
+    }
+}
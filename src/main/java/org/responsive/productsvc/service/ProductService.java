@@ -1,13 +1,28 @@
 package org.responsive.productsvc.service;
 
+import org.responsive.productsvc.dto.BatchResult;
 import org.responsive.productsvc.dto.ProductRecord;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductService {
     ProductRecord create(ProductRecord record);
+    /**
+     * Replaces the product only while its current ETag is one named by the {@code ifMatch} header value, as a
+     * single conditional write. Empty when nothing matched: the product is missing or has changed.
+     */
+    Optional<ProductRecord> replaceIfMatch(ProductRecord record, String ifMatch);
+    /** Validates and upserts {@code records} in bulk, reporting the outcome of every item. */
+    BatchResult upsertAll(List<ProductRecord> records);
     Optional<ProductRecord> getById(String id);
+    /** The products among {@code ids} that exist, in request order; unknown ids are skipped. */
+    List<ProductRecord> getByIds(List<String> ids);
     List<ProductRecord> getByType(String type);
     List<ProductRecord> getAll();
+    /** Up to {@code limit} products ordered by id, starting after the {@code after} cursor (null = first page). */
+    List<ProductRecord> getPage(String after, int limit);
+    /** All products straight from a database cursor; callers must close the stream. */
+    Stream<ProductRecord> streamAll();
     void delete(String id);
 }
@@ -0,0 +1,50 @@
+package org.responsive.productsvc.service;
+
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * What has to happen in memory after a product write reached Mongo: refresh the product cache, notify every
+ * {@link ProductWriteListener} and invalidate the affected recommendations. Shared by the blocking and the
+ * reactive service so both keep the caches and indexes consistent the same way.
+ *
+ * Recommendations are invalidated last: misses are filled from the CatalogIndex, so a miss landing between
+ * an invalidation and the index update would cache the old result for the whole TTL.
+ */
+@Component
+public class ProductWriteEffects {
+
+    private final ProductCache cache;
+    private final RecommendationCache recommendationCache;
+    private final List<ProductWriteListener> writeListeners;
+
+    public ProductWriteEffects(ProductCache cache, RecommendationCache recommendationCache,
+                               List<ProductWriteListener> writeListeners) {
+        this.cache = cache;
+        this.recommendationCache = recommendationCache;
+        this.writeListeners = writeListeners;
+    }
+
+    public void saved(ProductRecord product) {
+        cache.put(product);
+        writeListeners.forEach(l -> l.onSaved(product));
+        recommendationCache.invalidate(product.id(), product);
+    }
+
+    public void savedAll(List<ProductRecord> products) {
+        if (products.isEmpty()) return;
+        cache.putAll(products);
+        writeListeners.forEach(l -> l.onSavedAll(products));
+        recommendationCache.invalidateAll(products);
+    }
+
+    public void deleted(String id) {
+        cache.remove(id);
+        writeListeners.forEach(l -> l.onDeleted(id));
+        recommendationCache.invalidate(id, null);
+    }
+}
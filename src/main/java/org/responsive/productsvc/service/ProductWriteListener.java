@@ -0,0 +1,19 @@
+package org.responsive.productsvc.service;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.Collection;
+
+/**
+ * Notified by {@link ProductService} after a product write has been persisted, for in-memory structures
+ * that mirror the catalog and must follow it incrementally.
+ */
+public interface ProductWriteListener {
+    void onSaved(ProductRecord product);
+    void onDeleted(String id);
+
+    /** A batch of saved products; defaults to one {@link #onSaved} per product. */
+    default void onSavedAll(Collection<ProductRecord> products) {
+        products.forEach(this::onSaved);
+    }
+}
@@ -0,0 +1,13 @@
+package org.responsive.productsvc.service;
+
+import org.responsive.productsvc.dto.ProductRecord;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking {@link ProductRecommendationService}.
+ */
+public interface ReactiveProductRecommendationService {
+    /** See {@link ProductRecommendationService#recommend}. */
+    Flux<ProductRecord> recommend(Long minPrice, Long maxPrice, String type, String category, Integer age);
+    Flux<ProductRecord> recommendSimilarProducts(String productId, int limit);
+}
@@ -0,0 +1,28 @@
+package org.responsive.productsvc.service;
+
+import org.responsive.productsvc.dto.BatchResult;
+import org.responsive.productsvc.dto.ProductRecord;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking {@link ProductService}: same semantics, results as {@link Mono} / {@link Flux}.
+ */
+public interface ReactiveProductService {
+    Mono<ProductRecord> create(ProductRecord record);
+    /** See {@link ProductService#replaceIfMatch}; completes empty when nothing matched. */
+    Mono<ProductRecord> replaceIfMatch(ProductRecord record, String ifMatch);
+    /** Validates and upserts {@code records} in bulk, reporting the outcome of every item. */
+    Mono<BatchResult> upsertAll(List<ProductRecord> records);
+    Mono<ProductRecord> getById(String id);
+    /** The products among {@code ids} that exist, in request order; unknown ids are skipped. */
+    Flux<ProductRecord> getByIds(List<String> ids);
+    Flux<ProductRecord> getByType(String type);
+    /** All products from a database cursor, fetched as fast as the subscriber requests them. */
+    Flux<ProductRecord> getAll();
+    /** Up to {@code limit} products ordered by id, starting after the {@code after} cursor (null = first page). */
+    Flux<ProductRecord> getPage(String after, int limit);
+    Mono<Void> delete(String id);
+}
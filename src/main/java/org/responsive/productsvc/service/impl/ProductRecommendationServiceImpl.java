@@ -1,12 +1,17 @@
 package org.responsive.productsvc.service.impl;
 
-import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
-import org.responsive.productsvc.cache.ProductCache;
+import jakarta.annotation.PostConstruct;
 import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
 import org.responsive.productsvc.util.RecommendationKeyUtil;
+import org.responsive.productsvc.util.StageTimer;
+import org.responsive.productsvc.util.StageTimer.Stage;
 import org.responsive.productsvc.dto.ProductRecord;
 import org.responsive.productsvc.repository.ProductDocument;
 import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.service.ProductReadThrough;
 import org.responsive.productsvc.service.ProductRecommendationService;
 import org.springframework.stereotype.Service;
 
@@ -16,122 +21,120 @@ import java.util.stream.Collectors;
 /**
  * Simple recommendation implementation:
  * - Uses recommendationCache (composite key) to store results
- * - Otherwise fetches candidates from repo (by type or all), applies filters, caches result
+ * - Otherwise answers from the in-memory CatalogIndex once it is loaded (results ordered by price)
+ * - Before that, runs the whole filter as one Mongo query (ordered by price), caches result
+ * - Similar products come from the index's price-sorted type/category columns (top-k, no full sort),
+ *   or before that from bounded price-ordered Mongo queries around the base product
+ * - Cache, index and backfill decisions are shared with the reactive service through ProductReadThrough
+ * - Concurrent misses on the same key share one load through the SingleFlightLoader
+ * - Results close to their TTL are reloaded in the background through {@link #reload} (refresh-ahead)
+ * - Cache, repository, filter/sort and mapping time is recorded per stage through the StageTimer
  */
 @Service
 public class ProductRecommendationServiceImpl implements ProductRecommendationService {
 
     private final ProductRepository repository;
     private final RecommendationCache recommendationCache;
-    // also use main product cache for quick id lookup/populate
-    private final ProductCache productCache;
+    private final ProductReadThrough reads;
+    private final SingleFlightLoader singleFlight;
+    private final StageTimer.Operation recommendStages;
+    private final StageTimer.Operation similarStages;
 
     public ProductRecommendationServiceImpl(ProductRepository repository,
                                             RecommendationCache recommendationCache,
-                                            ProductCache productCache) {
+                                            ProductReadThrough reads,
+                                            SingleFlightLoader singleFlight,
+                                            StageTimer stageTimer) {
         this.repository = repository;
         this.recommendationCache = recommendationCache;
-        this.productCache = productCache;
+        this.reads = reads;
+        this.singleFlight = singleFlight;
+        this.recommendStages = stageTimer.operation("recommendations.filter");
+        this.similarStages = stageTimer.operation("recommendations.similar");
     }
 
-    @Override
-    public List<ProductRecord> recommend(Long minPrice, Long maxPrice, String type, String category, Integer age) {
-        String key = RecommendationKeyUtil.buildKey(minPrice, maxPrice, type, category, age);
-        var cached = recommendationCache.get(key);
-        if (cached.isPresent()) {
-            return cached.get();
-        }
+    // after construction, so the cache never sees a partly built service
+    @PostConstruct
+    void registerRefresher() {
+        recommendationCache.refreshWith(this::reload);
+    }
 
-        // Fetch candidates: if type provided, use repository.findByType, otherwise fetch all (could be optimized)
-        List<ProductDocument> candidates;
-        if (type != null && !type.isBlank()) {
-            candidates = repository.findByType(type);
-        } else if (category != null && !category.isBlank()) {
-            candidates = repository.findByCategory(category);
-        } else {
-            candidates = repository.findAll();
+    /** Recomputes a cached result from its key; runs on the cache's refresh executor. */
+    List<ProductRecord> reload(String key) {
+        RecommendationFilter filter = RecommendationKeyUtil.parseKey(key);
+        List<ProductRecord> results = reads.indexedRecommendations(filter);
+        if (results == null) {
+            results = repository.findRecommendations(filter).stream().map(ProductMapper::toRecord).toList();
         }
-
-        // filter by price & age & category/type if provided
-        List<ProductRecord> results = candidates.stream()
-                                                .filter(d -> matchesPrice(d, minPrice, maxPrice))
-                                                .filter(d -> matchesAge(d, age))
-                                                .filter(d -> matchesCategory(d, category))
-                                                .map(this::toRecord)
-                                                .collect(Collectors.toList());
-
-        // cache result and return
-        recommendationCache.put(key, results);
-        // also populate productCache for faster subsequent ID lookups
-        results.forEach(productCache::put);
-        return results;
+        return reads.reloadedRecommendations(results);
     }
 
     @Override
-    public List<ProductRecord> recommendSimilarProducts(String productId, int limit) {
-        var optionalProduct = repository.findById(productId);
-        if (optionalProduct.isEmpty()) return List.of();
+    public List<ProductRecord> recommend(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        long t = recommendStages.start();
+        // a hit neither builds the key string nor copies the shared result
+        List<ProductRecord> cached = reads.cachedRecommendations(minPrice, maxPrice, type, category, age);
+        recommendStages.stop(Stage.CACHE, t);
+        if (cached != null) {
+            return cached;
+        }
 
-        ProductDocument base = optionalProduct.get();
+        String key = RecommendationKeyUtil.buildKey(minPrice, maxPrice, type, category, age);
+        // concurrent misses on the same key share one load
+        return singleFlight.load("recommendation:" + key, () -> {
+            // normalized like the key, so every fill path matches type and category ignoring case
+            RecommendationFilter filter = RecommendationFilter.of(minPrice, maxPrice, type, category, age);
+            long start = recommendStages.start();
+            List<ProductRecord> results = reads.indexedRecommendations(filter);
+            if (results != null) {
+                recommendStages.stop(Stage.FILTER_SORT, start);
+            } else {
+                results = loadFromRepository(filter);
+            }
 
-        return repository.findAll().stream()
-                         .filter(p -> !p.getId().equals(productId)) // exclude same product
-                         .filter(p -> p.getType().equalsIgnoreCase(base.getType())
-                             || p.getCategory().equalsIgnoreCase(base.getCategory()))
-                         .sorted(Comparator.comparingLong(
-                             p -> Math.abs(p.getPrice() - base.getPrice())
-                         )) // price proximity sorting
-                         .limit(limit)
-                         .map(this::toRecord)
-                         .collect(Collectors.toList());
+            start = recommendStages.start();
+            // cache the result, and its products for faster subsequent ID lookups
+            reads.loadedRecommendations(key, results);
+            recommendStages.stop(Stage.CACHE, start);
+            return results;
+        });
     }
 
-    private boolean matchesPrice(ProductDocument d, Long minPrice, Long maxPrice) {
-        long p = d.getPrice();
-        if (minPrice != null && p < minPrice) return false;
-        if (maxPrice != null && p > maxPrice) return false;
-        return true;
+    private List<ProductRecord> loadFromRepository(RecommendationFilter filter) {
+        long t = recommendStages.start();
+        // every filter runs in Mongo as one query against the (typeKey, price) / (categoryKey, price) indexes
+        List<ProductDocument> documents = repository.findRecommendations(filter);
+        t = recommendStages.stop(Stage.REPOSITORY, t);
+        List<ProductRecord> results = documents.stream()
+                                               .map(ProductMapper::toRecord)
+                                               .collect(Collectors.toList());
+        recommendStages.stop(Stage.MAPPING, t);
+        return results;
     }
 
-    private boolean matchesCategory(ProductDocument d, String category) {
-        if (category == null || category.isBlank()) return true;
-        return category.equalsIgnoreCase(d.getCategory());
-    }
+    @Override
+    public List<ProductRecord> recommendSimilarProducts(String productId, int limit) {
+        long t = similarStages.start();
+        List<ProductRecord> indexed = reads.indexedSimilar(productId, limit);
+        if (indexed != null) {
+            similarStages.stop(Stage.FILTER_SORT, t);
+            return indexed;
+        }
 
-    private boolean matchesAge(ProductDocument d, Integer age) {
-        if (age == null) return true;
-        String range = d.getRecommendedAgeGroup();
-        if (range == null || range.isBlank()) return true;
-        try {
-            // range like "5-10" or "18+" (handle approximate)
-            if (range.contains("-")) {
-                String[] parts = range.split("-");
-                int low = Integer.parseInt(parts[0].trim());
-                int high = Integer.parseInt(parts[1].trim());
-                return age >= low && age <= high;
-            } else if (range.endsWith("+")) {
-                int low = Integer.parseInt(range.replace("+", "").trim());
-                return age >= low;
-            } else {
-                // single number
-                int val = Integer.parseInt(range.trim());
-                return age == val;
-            }
-        } catch (Exception e) {
-            // if parse fails, be permissive
-            return true;
+        var optionalProduct = repository.findById(productId);
+        if (optionalProduct.isEmpty()) {
+            similarStages.stop(Stage.REPOSITORY, t);
+            return List.of();
         }
-    }
 
-    private ProductRecord toRecord(ProductDocument d) {
-        return new ProductRecord(
-            d.getId(),
-            d.getName(),
-            d.getType(),
-            d.getCategory(),
-            d.getPrice(),
-            d.getRecommendedAgeGroup(),
-            d.getAttributes()
-        );
+        // bounded price-ordered queries around the base product, not a scan of the catalog
+        List<ProductDocument> nearest = repository.findSimilar(optionalProduct.get(), limit);
+        t = similarStages.stop(Stage.REPOSITORY, t);
+
+        List<ProductRecord> results = nearest.stream()
+                                             .map(ProductMapper::toRecord)
+                                             .collect(Collectors.toList());
+        similarStages.stop(Stage.MAPPING, t);
+        return results;
     }
 }
@@ -1,91 +1,176 @@
 package org.responsive.productsvc.service.impl;
 
-import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import jakarta.validation.Validator;
+import org.responsive.productsvc.dto.BatchResult;
 import org.responsive.productsvc.dto.ProductRecord;
 import org.responsive.productsvc.repository.ProductDocument;
 import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.service.ProductReadThrough;
 import org.responsive.productsvc.service.ProductService;
+import org.responsive.productsvc.service.ProductWriteEffects;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.ProductMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository repository;
-    private final ProductCache cache;
+    private final ProductReadThrough reads;
+    private final ProductWriteEffects writeEffects;
+    private final SingleFlightLoader singleFlight;
+    private final Validator validator;
+    private final int batchChunkSize;
 
-    public ProductServiceImpl(ProductRepository repository, ProductCache cache) {
+    public ProductServiceImpl(ProductRepository repository, ProductReadThrough reads,
+                              ProductWriteEffects writeEffects,
+                              SingleFlightLoader singleFlight,
+                              Validator validator,
+                              @Value("${product.batch.chunk-size:1000}") int batchChunkSize) {
         this.repository = repository;
-        this.cache = cache;
+        this.reads = reads;
+        this.writeEffects = writeEffects;
+        this.singleFlight = singleFlight;
+        this.validator = validator;
+        this.batchChunkSize = Math.max(1, batchChunkSize);
     }
 
     @Override
     public ProductRecord create(ProductRecord record) {
-        ProductDocument doc = new ProductDocument(
-            record.id(),
-            record.name(),
-            record.type(),
-            record.category(),
-            record.price(),
-            record.recommendedAgeGroup(),
-            record.attributes()
-        );
-        ProductDocument saved = repository.save(doc);
-        ProductRecord result = toRecord(saved);
-        cache.put(result);
+        ProductDocument saved = repository.save(ProductMapper.toDocument(record));
+        ProductRecord result = ProductMapper.toRecord(saved);
+        writeEffects.saved(result);
         return result;
     }
 
+    @Override
+    public Optional<ProductRecord> replaceIfMatch(ProductRecord record, String ifMatch) {
+        ProductDocument document = ProductMapper.toDocument(record);
+        if (!repository.replaceIfMatch(document, ProductETags.contentHashes(ifMatch))) return Optional.empty();
+        ProductRecord result = ProductMapper.toRecord(document);
+        writeEffects.saved(result);
+        return Optional.of(result);
+    }
+
+    @Override
+    public BatchResult upsertAll(List<ProductRecord> records) {
+        List<BatchResult.Item> items = new ArrayList<>(records.size());
+        List<Integer> positions = new ArrayList<>(batchChunkSize);
+        List<ProductRecord> chunk = new ArrayList<>(batchChunkSize);
+        for (int i = 0; i < records.size(); i++) {
+            ProductRecord record = records.get(i);
+            String invalid = validate(record);
+            if (invalid != null) {
+                items.add(BatchResult.Item.failed(i, record == null ? null : record.id(), invalid));
+                continue;
+            }
+            positions.add(i);
+            chunk.add(record);
+            if (chunk.size() == batchChunkSize) {
+                writeChunk(positions, chunk, items);
+                positions.clear();
+                chunk.clear();
+            }
+        }
+        writeChunk(positions, chunk, items);
+        items.sort(Comparator.comparingInt(BatchResult.Item::index));
+        return BatchResult.of(items);
+    }
+
+    private String validate(ProductRecord record) {
+        if (record == null) return "Product is required";
+        var violations = validator.validate(record);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                         .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                         .sorted()
+                         .collect(Collectors.joining("; "));
+    }
+
+    /** One bulk write per chunk, then one cache / recommendation / listener update for what was written. */
+    private void writeChunk(List<Integer> positions, List<ProductRecord> chunk, List<BatchResult.Item> items) {
+        if (chunk.isEmpty()) return;
+        Map<Integer, String> failures = repository.bulkUpsert(chunk.stream().map(ProductMapper::toDocument).toList());
+        List<ProductRecord> written = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ProductRecord record = chunk.get(i);
+            String error = failures.get(i);
+            if (error == null) {
+                written.add(record);
+                items.add(BatchResult.Item.upserted(positions.get(i), record.id()));
+            } else {
+                items.add(BatchResult.Item.failed(positions.get(i), record.id(), error));
+            }
+        }
+        writeEffects.savedAll(written);
+    }
+
     @Override
     public Optional<ProductRecord> getById(String id) {
-        var cached = cache.getById(id);
-        if (cached.isPresent()) return cached;
-
-        return repository.findById(id)
-                         .map(this::toRecord)
-                         .map(record -> {
-                             cache.put(record);
-                             return record;
-                         });
+        var lookup = reads.lookup(id);
+        if (lookup.answered()) return lookup.answer();
+
+        // concurrent misses on the same id share one repository lookup
+        return singleFlight.load("product:" + id,
+                                 () -> reads.loaded(lookup, repository.findById(id).map(ProductMapper::toRecord)));
+    }
+
+    @Override
+    public List<ProductRecord> getByIds(List<String> ids) {
+        var lookup = reads.lookupAll(ids);
+        // every miss in one $in query, then back into the cache as a batch
+        List<ProductRecord> loaded = new ArrayList<>(lookup.misses().size());
+        if (!lookup.misses().isEmpty()) {
+            repository.findAllById(lookup.misses()).forEach(d -> loaded.add(ProductMapper.toRecord(d)));
+        }
+        return reads.loadedAll(lookup, loaded);
     }
 
     @Override
     public List<ProductRecord> getByType(String type) {
-        var cached = cache.getByType(type);
-        if (cached != null && !cached.isEmpty()) return cached;
-
-        var records = repository.findByType(type).stream()
-                                .map(this::toRecord)
-                                .collect(Collectors.toList());
-        records.forEach(cache::put);
-        return records;
+        var cached = reads.cachedType(type);
+        if (cached.isPresent()) return cached.get();
+
+        return singleFlight.load("type:" + type, () -> {
+            var records = repository.findByType(type).stream()
+                                    .map(ProductMapper::toRecord)
+                                    .collect(Collectors.toList());
+            return reads.loadedType(type, records);
+        });
     }
 
     @Override
     public List<ProductRecord> getAll() {
         return repository.findAll().stream()
-                         .map(this::toRecord)
+                         .map(ProductMapper::toRecord)
                          .collect(Collectors.toList());
     }
 
     @Override
-    public void delete(String id) {
-        repository.deleteById(id);
-        cache.remove(id);
+    public List<ProductRecord> getPage(String after, int limit) {
+        return repository.findPageAfter(after, limit).stream()
+                         .map(ProductMapper::toRecord)
+                         .collect(Collectors.toList());
     }
 
-    private ProductRecord toRecord(ProductDocument d) {
-        return new ProductRecord(
-            d.getId(),
-            d.getName(),
-            d.getType(),
-            d.getCategory(),
-            d.getPrice(),
-            d.getRecommendedAgeGroup(),
-            d.getAttributes()
-        );
+    @Override
+    public Stream<ProductRecord> streamAll() {
+        return repository.streamAll().map(ProductMapper::toRecord);
+    }
+
+    @Override
+    public void delete(String id) {
+        repository.deleteById(id);
+        writeEffects.deleted(id);
     }
 }
@@ -0,0 +1,64 @@
+package org.responsive.productsvc.service.impl;
+
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.repository.ReactiveProductRepository;
+import org.responsive.productsvc.service.ProductReadThrough;
+import org.responsive.productsvc.service.ReactiveProductRecommendationService;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * Reactive recommendations for the "reactive" profile, answered like ProductRecommendationServiceImpl through
+ * the same ProductReadThrough: recommendationCache first, then the CatalogIndex once loaded, otherwise one
+ * Mongo query through the ReactiveProductRepository.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductRecommendationServiceImpl implements ReactiveProductRecommendationService {
+
+    private final ReactiveProductRepository repository;
+    private final ProductReadThrough reads;
+
+    public ReactiveProductRecommendationServiceImpl(ReactiveProductRepository repository, ProductReadThrough reads) {
+        this.repository = repository;
+        this.reads = reads;
+    }
+
+    @Override
+    public Flux<ProductRecord> recommend(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        return Flux.defer(() -> {
+            List<ProductRecord> cached = reads.cachedRecommendations(minPrice, maxPrice, type, category, age);
+            if (cached != null) return Flux.fromIterable(cached);
+
+            String key = RecommendationKeyUtil.buildKey(minPrice, maxPrice, type, category, age);
+            // normalized like the key, so every fill path matches type and category ignoring case
+            RecommendationFilter filter = RecommendationFilter.of(minPrice, maxPrice, type, category, age);
+
+            List<ProductRecord> indexed = reads.indexedRecommendations(filter);
+            if (indexed != null) return Flux.fromIterable(reads.loadedRecommendations(key, indexed));
+
+            return repository.findRecommendations(filter)
+                             .map(ProductMapper::toRecord)
+                             .collectList()
+                             .flatMapIterable(results -> reads.loadedRecommendations(key, results));
+        });
+    }
+
+    @Override
+    public Flux<ProductRecord> recommendSimilarProducts(String productId, int limit) {
+        return Flux.defer(() -> {
+            List<ProductRecord> indexed = reads.indexedSimilar(productId, limit);
+            if (indexed != null) return Flux.fromIterable(indexed);
+
+            return repository.findById(productId)
+                             .flatMapMany(base -> repository.findSimilar(base, limit))
+                             .map(ProductMapper::toRecord);
+        });
+    }
+}
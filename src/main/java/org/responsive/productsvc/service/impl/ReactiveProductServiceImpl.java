@@ -0,0 +1,127 @@
+package org.responsive.productsvc.service.impl;
+
+import org.responsive.productsvc.dto.BatchResult;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.repository.ProductDocument;
+import org.responsive.productsvc.repository.ReactiveProductRepository;
+import org.responsive.productsvc.service.ProductReadThrough;
+import org.responsive.productsvc.service.ProductService;
+import org.responsive.productsvc.service.ProductWriteEffects;
+import org.responsive.productsvc.service.ReactiveProductService;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.ProductMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive implementation for the "reactive" profile:
+ * - Cache, Bloom filter and negative-cache checks are in-memory and run inline, before any Mongo call
+ * - Misses go to Mongo through the ReactiveProductRepository; ProductReadThrough makes the same cache and
+ *   guard decisions around that call as for ProductServiceImpl
+ * - Writes apply the same ProductWriteEffects as ProductServiceImpl
+ * - Bulk upserts reuse ProductServiceImpl on the bounded-elastic scheduler (validation + chunked bulk writes)
+ */
+@Service
+@Profile("reactive")
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    private final ReactiveProductRepository repository;
+    private final ProductReadThrough reads;
+    private final ProductWriteEffects writeEffects;
+    private final ProductService blockingService;
+
+    public ReactiveProductServiceImpl(ReactiveProductRepository repository, ProductReadThrough reads,
+                                      ProductWriteEffects writeEffects,
+                                      ProductService blockingService) {
+        this.repository = repository;
+        this.reads = reads;
+        this.writeEffects = writeEffects;
+        this.blockingService = blockingService;
+    }
+
+    @Override
+    public Mono<ProductRecord> create(ProductRecord record) {
+        return Mono.defer(() -> repository.save(ProductMapper.toDocument(record)))
+                   .map(ProductMapper::toRecord)
+                   .doOnNext(writeEffects::saved);
+    }
+
+    @Override
+    public Mono<ProductRecord> replaceIfMatch(ProductRecord record, String ifMatch) {
+        return Mono.defer(() -> {
+            ProductDocument document = ProductMapper.toDocument(record);
+            return repository.replaceIfMatch(document, ProductETags.contentHashes(ifMatch))
+                             .filter(Boolean::booleanValue)
+                             .map(matched -> ProductMapper.toRecord(document))
+                             .doOnNext(writeEffects::saved);
+        });
+    }
+
+    @Override
+    public Mono<BatchResult> upsertAll(List<ProductRecord> records) {
+        return Mono.fromCallable(() -> blockingService.upsertAll(records))
+                   .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<ProductRecord> getById(String id) {
+        return Mono.defer(() -> {
+            var lookup = reads.lookup(id);
+            if (lookup.answered()) return Mono.justOrEmpty(lookup.answer());
+
+            return repository.findById(id)
+                             .map(ProductMapper::toRecord)
+                             .singleOptional()
+                             .flatMap(found -> Mono.justOrEmpty(reads.loaded(lookup, found)));
+        });
+    }
+
+    @Override
+    public Flux<ProductRecord> getByIds(List<String> ids) {
+        return Flux.defer(() -> {
+            var lookup = reads.lookupAll(ids);
+            if (lookup.misses().isEmpty()) return Flux.fromIterable(reads.loadedAll(lookup, List.of()));
+
+            // every miss in one $in query, then back into the cache as a batch
+            return repository.findAllById(lookup.misses())
+                             .map(ProductMapper::toRecord)
+                             .collectList()
+                             .flatMapIterable(loaded -> reads.loadedAll(lookup, loaded));
+        });
+    }
+
+    @Override
+    public Flux<ProductRecord> getByType(String type) {
+        return Flux.defer(() -> {
+            var cached = reads.cachedType(type);
+            if (cached.isPresent()) return Flux.fromIterable(cached.get());
+
+            return repository.findByType(type)
+                             .map(ProductMapper::toRecord)
+                             .collectList()
+                             .flatMapIterable(records -> reads.loadedType(type, records));
+        });
+    }
+
+    @Override
+    public Flux<ProductRecord> getAll() {
+        // the driver fetches cursor batches on demand, so a slow client holds back the query
+        return repository.findAll().map(ProductMapper::toRecord);
+    }
+
+    @Override
+    public Flux<ProductRecord> getPage(String after, int limit) {
+        return repository.findPageAfter(after, limit).map(ProductMapper::toRecord);
+    }
+
+    @Override
+    public Mono<Void> delete(String id) {
+        return repository.deleteById(id)
+                         .then(Mono.fromRunnable(() -> writeEffects.deleted(id)));
+    }
+}
@@ -0,0 +1,32 @@
+package org.responsive.productsvc.util;
+
+/**
+ * Parsed form of a product's {@code recommendedAgeGroup}: "5-10" is [5, 10], "18+" is [18, MAX] and "7" is
+ * [7, 7]. Blank or unparseable groups become {@link #ANY} so that they match every age, as before.
+ */
+public record AgeRange(int min, int max) {
+
+    public static final AgeRange ANY = new AgeRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    public static AgeRange parse(String group) {
+        if (group == null || group.isBlank()) return ANY;
+        try {
+            if (group.contains("-")) {
+                String[] parts = group.split("-");
+                return new AgeRange(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            } else if (group.endsWith("+")) {
+                return new AgeRange(Integer.parseInt(group.replace("+", "").trim()), Integer.MAX_VALUE);
+            } else {
+                int value = Integer.parseInt(group.trim());
+                return new AgeRange(value, value);
+            }
+        } catch (RuntimeException e) {
+            // if parse fails, be permissive
+            return ANY;
+        }
+    }
+
+    public boolean contains(int age) {
+        return age >= min && age <= max;
+    }
+}
@@ -0,0 +1,106 @@
+package org.responsive.productsvc.util;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Strong ETags derived from product content: a 64-bit FNV-1a hash over every field, so equal products get
+ * the same tag on every instance and across restarts, and any change to a product changes its tag. A list's
+ * tag covers its products in order. Hashing walks the fields directly and never serializes the product.
+ */
+public final class ProductETags {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private ProductETags() {}
+
+    public static String of(ProductRecord product) {
+        return quote(contentHash(product));
+    }
+
+    /** The unquoted hash behind {@link #of(ProductRecord)}, stored on the document for conditional writes. */
+    public static String contentHash(ProductRecord product) {
+        return hex(hash(FNV_OFFSET, product));
+    }
+
+    public static String of(List<ProductRecord> products) {
+        long h = mix(FNV_OFFSET, products.size());
+        for (ProductRecord product : products) h = hash(h, product);
+        return quote(hex(h));
+    }
+
+    /**
+     * True when an {@code If-Match} / {@code If-None-Match} header value names {@code etag}, either as one of
+     * its comma-separated tags or as {@code *}. Weak tags never match.
+     */
+    public static boolean matches(String header, String etag) {
+        if (header == null) return false;
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The content hashes named by the strong tags of an {@code If-Match} header value, or {@code null} when it
+     * is {@code *} and any current version matches. Weak and malformed tags are skipped.
+     */
+    public static List<String> contentHashes(String header) {
+        List<String> hashes = new ArrayList<>();
+        for (String candidate : header.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return null;
+            if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                hashes.add(tag.substring(1, tag.length() - 1));
+            }
+        }
+        return hashes;
+    }
+
+    private static long hash(long h, ProductRecord p) {
+        h = mix(h, p.id());
+        h = mix(h, p.name());
+        h = mix(h, p.type());
+        h = mix(h, p.category());
+        h = mix(h, p.price());
+        h = mix(h, p.recommendedAgeGroup());
+        Map<String, String> attributes = p.attributes();
+        if (attributes == null) return mix(h, -1L);
+        // order-independent, so equal maps hash alike whatever their iteration order
+        long entries = 0;
+        for (Map.Entry<String, String> e : attributes.entrySet()) {
+            entries += mix(mix(FNV_OFFSET, e.getKey()), e.getValue());
+        }
+        return mix(mix(h, attributes.size()), entries);
+    }
+
+    private static long mix(long h, String s) {
+        if (s == null) return mix(h, -1L);
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        // length terminates the string, so ("ab", "c") and ("a", "bc") differ
+        return mix(h, s.length());
+    }
+
+    private static long mix(long h, long value) {
+        for (int i = 0; i < 8; i++) {
+            h = (h ^ (value & 0xff)) * FNV_PRIME;
+            value >>>= 8;
+        }
+        return h;
+    }
+
+    private static String hex(long h) {
+        return String.format("%016x", h);
+    }
+
+    private static String quote(String hash) {
+        return "\"" + hash + "\"";
+    }
+}
@@ -0,0 +1,36 @@
+package org.responsive.productsvc.util;
+
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.repository.ProductDocument;
+
+/**
+ * Conversions between the Mongo document and the API record.
+ */
+public final class ProductMapper {
+
+    private ProductMapper() {}
+
+    public static ProductRecord toRecord(ProductDocument d) {
+        return new ProductRecord(
+            d.getId(),
+            d.getName(),
+            d.getType(),
+            d.getCategory(),
+            d.getPrice(),
+            d.getRecommendedAgeGroup(),
+            d.getAttributes()
+        );
+    }
+
+    public static ProductDocument toDocument(ProductRecord record) {
+        return new ProductDocument(
+            record.id(),
+            record.name(),
+            record.type(),
+            record.category(),
+            record.price(),
+            record.recommendedAgeGroup(),
+            record.attributes()
+        );
+    }
+}
@@ -0,0 +1,30 @@
+package org.responsive.productsvc.util;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+/**
+ * The filters of a recommend() query in normalized form (type and category trimmed and lower-cased, blanks
+ * as null). {@link #matches(ProductRecord)} mirrors the filtering done by recommend().
+ */
+public record RecommendationFilter(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+
+    public static final RecommendationFilter ANY = new RecommendationFilter(null, null, null, null, null);
+
+    /** Normalizes raw query params the same way {@link RecommendationKeyUtil#buildKey} does. */
+    public static RecommendationFilter of(Long minPrice, Long maxPrice, String type, String category, Integer age) {
+        return new RecommendationFilter(minPrice, maxPrice, normalize(type), normalize(category), age);
+    }
+
+    public boolean matches(ProductRecord p) {
+        if (minPrice != null && p.price() < minPrice) return false;
+        if (maxPrice != null && p.price() > maxPrice) return false;
+        if (type != null && !type.equalsIgnoreCase(p.type())) return false;
+        if (category != null && !category.equalsIgnoreCase(p.category())) return false;
+        return age == null || AgeRange.parse(p.recommendedAgeGroup()).contains(age);
+    }
+
+    /** Trimmed and lower-cased, blanks as null; also the form of ProductDocument's typeKey / categoryKey. */
+    public static String normalize(String s) {
+        return s == null || s.isBlank() ? null : s.trim().toLowerCase();
+    }
+}
@@ -20,7 +20,46 @@ public final class RecommendationKeyUtil {
         return sj.toString();
     }
 
+    /**
+     * Inverse of {@link #buildKey}: the filters a cached key was built from.
+     *
+     * @throws IllegalArgumentException if {@code key} was not produced by {@link #buildKey}
+     */
+    public static RecommendationFilter parseKey(String key) {
+        Objects.requireNonNull(key, "key");
+        int max = key.indexOf("|max:");
+        int type = max < 0 ? -1 : key.indexOf("|type:", max);
+        int category = type < 0 ? -1 : key.indexOf("|category:", type);
+        int age = key.lastIndexOf("|age:");
+        if (!key.startsWith("min:") || category < 0 || age < category) {
+            throw new IllegalArgumentException("Not a recommendation key: " + key);
+        }
+        try {
+            return new RecommendationFilter(
+                parseLong(key.substring("min:".length(), max)),
+                parseLong(key.substring(max + "|max:".length(), type)),
+                blankToNull(key.substring(type + "|type:".length(), category)),
+                blankToNull(key.substring(category + "|category:".length(), age)),
+                parseInt(key.substring(age + "|age:".length()))
+            );
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a recommendation key: " + key, e);
+        }
+    }
+
     private static String nullSafeLower(String s) {
         return s == null ? "" : s.trim().toLowerCase();
     }
+
+    private static Long parseLong(String s) {
+        return s.isEmpty() ? null : Long.valueOf(s);
+    }
+
+    private static Integer parseInt(String s) {
+        return s.isEmpty() ? null : Integer.valueOf(s);
+    }
+
+    private static String blankToNull(String s) {
+        return s.isEmpty() ? null : s;
+    }
 }
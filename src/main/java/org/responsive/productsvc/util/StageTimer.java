@@ -0,0 +1,163 @@
+package org.responsive.productsvc.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the stages of a request (cache, repository, filter/sort, mapping, serialization) into one
+ * {@code productsvc.request.stage} timer per {@code operation} and {@code stage}. Timers publish histogram
+ * buckets from 1µs to 10s (for {@code histogram_quantile} on /actuator/prometheus). Client-side HDR percentiles
+ * cost more per record and stay off unless
+ * {@code management.metrics.distribution.percentiles.productsvc.request.stage} asks for them.
+ *
+ * Callers resolve an {@link Operation} once and chain the stages with a single clock read each:
+ * <pre>
+ *   long t = op.start();
+ *   ... query ...
+ *   t = op.stop(Stage.REPOSITORY, t);
+ *   ... map ...
+ *   op.stop(Stage.MAPPING, t);
+ * </pre>
+ * While a request is in flight on the current thread ({@link #begin}), every stage also lands in its
+ * {@link Request}, which remembers the operation (to time serialization against it) and, when sampled, adds up
+ * the stage durations for the {@code Server-Timing} header.
+ */
+public class StageTimer {
+
+    public enum Stage {
+        CACHE, REPOSITORY, FILTER_SORT, MAPPING, SERIALIZATION;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final ThreadLocal<Request> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    /** {@code registry} may be null: stages are then only collected for sampled requests. */
+    public StageTimer(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static StageTimer noop() {
+        return new StageTimer(null);
+    }
+
+    public Operation operation(String name) {
+        return operations.computeIfAbsent(name, Operation::new);
+    }
+
+    /** Starts collecting stages on this thread; {@code sampled} also keeps the durations for the header. */
+    public static Request begin(boolean sampled) {
+        Request request = new Request(sampled);
+        CURRENT.set(request);
+        return request;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public final class Operation {
+
+        private final String name;
+        private final Timer[] timers;
+
+        private Operation(String name) {
+            this.name = name;
+            this.timers = new Timer[STAGES.length];
+            if (registry == null) return;
+            for (Stage stage : STAGES) {
+                timers[stage.ordinal()] = Timer.builder("productsvc.request.stage")
+                                               .description("Time spent in one stage of a request")
+                                               .tags("operation", name, "stage", stage.tag())
+                                               .publishPercentileHistogram()
+                                               .minimumExpectedValue(Duration.ofNanos(1_000))
+                                               .maximumExpectedValue(Duration.ofSeconds(10))
+                                               .register(registry);
+            }
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /** Records {@code stage} as ended now and returns now, the start of the next stage. */
+        public long stop(Stage stage, long start) {
+            long now = System.nanoTime();
+            record(stage, now - start);
+            return now;
+        }
+
+        public void record(Stage stage, long nanos) {
+            Timer timer = timers[stage.ordinal()];
+            if (timer != null) timer.record(nanos, TimeUnit.NANOSECONDS);
+            Request request = CURRENT.get();
+            if (request != null) request.add(this, stage, nanos);
+        }
+    }
+
+    /** Stages of one in-flight request. Confined to the request thread. */
+    public static final class Request {
+
+        private final boolean sampled;
+        private final long[] nanos;
+        private int recorded; // bit per stage
+        private Operation operation;
+
+        private Request(boolean sampled) {
+            this.sampled = sampled;
+            this.nanos = sampled ? new long[STAGES.length] : null;
+        }
+
+        private void add(Operation operation, Stage stage, long elapsed) {
+            this.operation = operation;
+            if (!sampled) return;
+            nanos[stage.ordinal()] += elapsed;
+            recorded |= 1 << stage.ordinal();
+        }
+
+        public boolean isSampled() {
+            return sampled;
+        }
+
+        /** The last operation that recorded a stage, or null if none did. */
+        public Operation operation() {
+            return operation;
+        }
+
+        /** Recorded stages as a {@code Server-Timing} value, e.g. {@code cache;dur=0.004, mapping;dur=0.120}. */
+        public String serverTiming() {
+            if (!sampled) return "";
+            StringBuilder header = new StringBuilder();
+            for (Stage stage : STAGES) {
+                if ((recorded & 1 << stage.ordinal()) == 0) continue;
+                if (!header.isEmpty()) header.append(", ");
+                // milliseconds with microsecond precision
+                long micros = nanos[stage.ordinal()] / 1_000;
+                long fraction = micros % 1_000;
+                header.append(stage.tag()).append(";dur=").append(micros / 1_000).append('.');
+                if (fraction < 100) header.append('0');
+                if (fraction < 10) header.append('0');
+                header.append(fraction);
+            }
+            return header.toString();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package org.responsive.productsvc;
+
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.Map;
+
+/**
+ * Product records for tests: a "Toy" for kids aged 5-10 priced 100 unless a test says otherwise.
+ */
+public final class TestProducts {
+
+    private TestProducts() {}
+
+    public static ProductRecord product(String id) {
+        return product(id, "Toy");
+    }
+
+    public static ProductRecord product(String id, String type) {
+        return product(id, type, "Kids", 100, "5-10");
+    }
+
+    public static ProductRecord product(String id, long price) {
+        return product(id, "Toy", "Kids", price, "5-10");
+    }
+
+    public static ProductRecord product(String id, String type, String category, long price, String ageGroup) {
+        return new ProductRecord(id, "Product " + id, type, category, price, ageGroup, Map.of());
+    }
+}
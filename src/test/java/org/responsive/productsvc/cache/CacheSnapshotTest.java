@@ -0,0 +1,88 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class CacheSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotShouldRoundTrip() throws IOException {
+        Path file = dir.resolve("cache.snapshot");
+        CacheSnapshot written = new CacheSnapshot(Instant.ofEpochMilli(1_700_000_000_000L),
+                                                  List.of("p3", "p1", "prodütkt-ß"),
+                                                  List.of("min:|max:|type:toy|category:|age:"));
+        written.write(file);
+
+        assertEquals(written, CacheSnapshot.read(file).orElseThrow());
+        assertFalse(Files.exists(dir.resolve("cache.snapshot.tmp")));
+    }
+
+    @Test
+    void missingFileShouldReadAsNoSnapshot() throws IOException {
+        assertTrue(CacheSnapshot.read(dir.resolve("absent")).isEmpty());
+    }
+
+    @Test
+    void otherVersionsAndCorruptFilesShouldBeRejected() throws IOException {
+        Path file = dir.resolve("cache.snapshot");
+        new CacheSnapshot(Instant.now(), List.of("p1", "p2"), List.of()).write(file);
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] otherVersion = bytes.clone();
+        ByteBuffer.wrap(otherVersion).putShort(Integer.BYTES, (short) (CacheSnapshot.VERSION + 1));
+        Files.write(file, otherVersion);
+        IOException e = assertThrows(IOException.class, () -> CacheSnapshot.read(file));
+        assertTrue(e.getMessage().contains("version"));
+
+        byte[] flipped = bytes.clone();
+        flipped[bytes.length - 6] ^= 1;
+        Files.write(file, flipped);
+        assertThrows(IOException.class, () -> CacheSnapshot.read(file));
+
+        Files.write(file, java.util.Arrays.copyOf(bytes, 10));
+        assertThrows(IOException.class, () -> CacheSnapshot.read(file));
+    }
+
+    @Test
+    void hotIdsShouldListMostRecentlyUsedFirst() {
+        KeyBasedLRUCache lru = new KeyBasedLRUCache(10);
+        ConcurrentLRUCache striped = new ConcurrentLRUCache(10, 1, 0);
+        for (ProductCache cache : List.<ProductCache>of(lru, striped)) {
+            cache.put(product("p1"));
+            cache.put(product("p2"));
+            cache.put(product("p3"));
+            cache.getById("p1");
+            assertEquals(List.of("p1", "p3", "p2"), cache.hotIds(10));
+            assertEquals(List.of("p1", "p3"), cache.hotIds(2));
+        }
+
+        CompositeKeyRecommendationCache recommendations = new CompositeKeyRecommendationCache(10);
+        recommendations.put("a", List.of());
+        recommendations.put("b", List.of());
+        recommendations.get("a");
+        assertEquals(List.of("a", "b"), recommendations.hotKeys(10));
+    }
+
+    @Test
+    void tinyLfuHotIdsShouldListMostFrequentlyUsedFirst() {
+        TinyLfuCache cache = new TinyLfuCache(100);
+        for (int i = 1; i <= 3; i++) cache.put(product("p" + i));
+        for (int i = 0; i < 5; i++) cache.getById("p2");
+        for (int i = 0; i < 2; i++) cache.getById("p3");
+
+        assertEquals(List.of("p2", "p3", "p1"), cache.hotIds(10));
+    }
+}
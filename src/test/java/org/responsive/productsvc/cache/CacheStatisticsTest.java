@@ -0,0 +1,164 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.cache.factory.CacheFactory;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+/**
+ * Eviction counts, sizes and byte estimates every strategy reports for metrics.
+ */
+class CacheStatisticsTest {
+
+    @Test
+    void everyStrategyShouldCountEvictionsAndTrackWeight() {
+        for (String strategy : List.of("KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU")) {
+            ProductCache cache = new CacheFactory().create(strategy, 100);
+            for (int i = 0; i < 300; i++) cache.put(product("p" + i, "Toy"));
+
+            assertTrue(cache.size() <= 100, strategy);
+            assertEquals(300 - cache.size(), cache.evictions(), strategy);
+            long expected = 0;
+            for (int i = 0; i < 300; i++) {
+                var hit = cache.getById("p" + i);
+                if (hit.isPresent()) expected += ProductWeigher.weigh(hit.get());
+            }
+            assertEquals(expected, cache.estimatedBytes(), strategy);
+
+            for (int i = 0; i < 300; i++) cache.remove("p" + i);
+            assertEquals(0, cache.size(), strategy);
+            assertEquals(0, cache.estimatedBytes(), strategy);
+        }
+    }
+
+    @Test
+    void everyStrategyShouldStayWithinItsByteBudget() {
+        long budget = 20 * ProductWeigher.weigh(product("p0", "Toy"));
+        for (String strategy : List.of("KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU")) {
+            ProductCache cache = new CacheFactory().create(strategy, 1000, budget);
+            for (int i = 0; i < 300; i++) {
+                cache.put(i % 2 == 0 ? product("p" + i, i % 4 == 0 ? "Toy" : "Book") : heavy("p" + i));
+            }
+
+            assertTrue(cache.estimatedBytes() <= budget, strategy);
+            assertTrue(cache.size() > 0, strategy);
+            assertEquals(300 - cache.size(), cache.evictions(), strategy);
+        }
+    }
+
+    @Test
+    void productHeavierThanTheBudgetShouldNotFlushAWarmCache() {
+        long budget = 20 * ProductWeigher.weigh(product("p0", "Toy"));
+        ProductRecord oversized = withAttributes("p0", 500);
+        assertTrue(ProductWeigher.weigh(oversized) > budget);
+        for (String strategy : List.of("KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU")) {
+            ProductCache cache = new CacheFactory().create(strategy, 1000, budget);
+            for (int i = 0; i < 10; i++) cache.put(product("p" + i, "Toy"));
+
+            cache.put(oversized);
+
+            assertEquals(9, cache.size(), strategy);
+            assertEquals(0, cache.evictions(), strategy);
+            // the previous version of the oversized product must not be served either
+            assertTrue(cache.getById("p0").isEmpty(), strategy);
+            assertTrue(cache.getById("p1").isPresent(), strategy);
+        }
+    }
+
+    @Test
+    void productWithinTheBudgetShouldOnlyEvictWhatIsNeeded() {
+        long light = ProductWeigher.weigh(product("p0", "Toy"));
+        ProductRecord heavy = withAttributes("heavy", 20);
+        long budget = 20 * light + ProductWeigher.weigh(heavy);
+        for (String strategy : List.of("KEY_BASED", "TYPE_BASED", "CONCURRENT", "TINY_LFU")) {
+            ProductCache cache = new CacheFactory().create(strategy, 1000, budget);
+            for (int i = 0; i < 20; i++) cache.put(product("p" + i, "Toy"));
+
+            cache.put(heavy);
+
+            // everything fits: not even the segment holding the heavy product is trimmed
+            assertEquals(21, cache.size(), strategy);
+            assertEquals(0, cache.evictions(), strategy);
+
+            cache.put(product("p20", "Toy"));
+            assertEquals(1, cache.evictions(), strategy);
+            assertTrue(cache.estimatedBytes() <= budget, strategy);
+        }
+    }
+
+    @Test
+    void typeListShouldNotBeCompleteWhenTheBudgetDroppedSomeOfIt() {
+        ProductCache cache = new KeyBasedLRUCache(1000, 5 * ProductWeigher.weigh(product("p0", "Toy")));
+        List<ProductRecord> toys = new ArrayList<>();
+        for (int i = 0; i < 10; i++) toys.add(product("p" + i, "Toy"));
+        cache.putType("Toy", toys);
+
+        assertTrue(cache.getByType("Toy").size() < 10);
+        assertTrue(cache.getTypeIfComplete("Toy").isEmpty());
+    }
+
+    @Test
+    void overwriteShouldReplaceWeightNotAddToIt() {
+        ProductCache cache = new KeyBasedLRUCache(10);
+        cache.put(product("p1", "Toy"));
+        cache.put(new ProductRecord("p1", "A much longer product name", "Toy", "Kids", 100, "5-10",
+                                    Map.of("brand", "Lego")));
+
+        assertEquals(ProductWeigher.weigh(cache.getById("p1").orElseThrow()), cache.estimatedBytes());
+        assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    void typeBasedStrategyShouldReportSizesPerType() {
+        ProductCache cache = new TypeBasedLRUCache(100);
+        for (int i = 0; i < 15; i++) cache.put(product("t" + i, "Toy"));
+        for (int i = 0; i < 3; i++) cache.put(product("b" + i, "Book"));
+
+        // both types fit under the global bound
+        assertEquals(Map.of("book", 3, "toy", 15), cache.sizeByType());
+        assertEquals(0, cache.evictions());
+    }
+
+    @Test
+    void instrumentedCachesShouldCountHitsAndMisses() {
+        InstrumentedProductCache products = new InstrumentedProductCache(new KeyBasedLRUCache(10));
+        products.put(product("p1", "Toy"));
+        products.getById("p1");
+        products.getById("p2");
+        products.getAllById(List.of("p1", "p2", "p3"));
+        products.getTypeIfComplete("Toy");
+
+        assertEquals(2, products.hits());
+        assertEquals(3, products.misses());
+        assertEquals(1, products.typeMisses());
+
+        InstrumentedRecommendationCache recommendations =
+            new InstrumentedRecommendationCache(new CompositeKeyRecommendationCache(1));
+        recommendations.put("a", List.of(product("p1", "Toy")));
+        recommendations.put("b", List.of(product("p2", "Toy")));
+        recommendations.get("a");
+        recommendations.get("b");
+
+        assertEquals(1, recommendations.hits());
+        assertEquals(1, recommendations.misses());
+        assertEquals(1, recommendations.evictions());
+        assertEquals(ProductWeigher.weigh(List.of(product("p2", "Toy"))), recommendations.estimatedBytes());
+    }
+
+    private static ProductRecord heavy(String id) {
+        return withAttributes(id, 50);
+    }
+
+    private static ProductRecord withAttributes(String id, int count) {
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 0; i < count; i++) attributes.put("attribute" + i, "value " + i);
+        return new ProductRecord(id, "Product " + id, "Toy", "Kids", 100, "5-10", attributes);
+    }
+}
@@ -0,0 +1,251 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class CompositeKeyRecommendationCacheTest {
+
+    private static final String CHEAP_TOYS = RecommendationKeyUtil.buildKey(null, 1000L, "Toy", null, null);
+    private static final String KIDS_AGE_7 = RecommendationKeyUtil.buildKey(null, null, null, "Kids", 7);
+    private static final String GAMES = RecommendationKeyUtil.buildKey(null, null, "Game", null, null);
+    private static final String BOOKS = RecommendationKeyUtil.buildKey(null, null, "Book", null, null);
+    private static final String EVERYTHING = RecommendationKeyUtil.buildKey(null, null, null, null, null);
+
+    @Test
+    void keysShouldParseBackIntoTheirFilters() {
+        assertEquals(new RecommendationFilter(10L, 1000L, "toy", "kids", 7),
+                     RecommendationKeyUtil.parseKey(RecommendationKeyUtil.buildKey(10L, 1000L, " Toy ", "KIDS", 7)));
+        assertEquals(RecommendationFilter.ANY, RecommendationKeyUtil.parseKey(EVERYTHING));
+        assertThrows(IllegalArgumentException.class, () -> RecommendationKeyUtil.parseKey("toy"));
+    }
+
+    @Test
+    void writeShouldOnlyInvalidateResultsItsNewVersionMatches() {
+        var cache = populated();
+
+        // a new cheap toy for kids aged 5-10
+        cache.invalidate("p9", product("p9", "Toy", "Kids", 500, "5-10"));
+
+        assertTrue(cache.get(CHEAP_TOYS).isEmpty());
+        assertTrue(cache.get(KIDS_AGE_7).isEmpty());
+        assertTrue(cache.get(EVERYTHING).isEmpty());
+        assertTrue(cache.get(GAMES).isPresent());
+        assertTrue(cache.get(BOOKS).isPresent());
+    }
+
+    @Test
+    void writeShouldInvalidateResultsHoldingThePreviousVersion() {
+        var cache = populated();
+
+        // p1 was a cheap kids' toy and is now an expensive game: the toy results hold the old version
+        cache.invalidate("p1", product("p1", "Game", "Adults", 5000, "18+"));
+
+        assertTrue(cache.get(CHEAP_TOYS).isEmpty());
+        assertTrue(cache.get(KIDS_AGE_7).isEmpty());
+        assertTrue(cache.get(GAMES).isEmpty());
+        assertTrue(cache.get(EVERYTHING).isEmpty());
+        assertTrue(cache.get(BOOKS).isPresent());
+    }
+
+    @Test
+    void deleteShouldOnlyInvalidateResultsContainingTheProduct() {
+        var cache = populated();
+
+        cache.invalidate("p2", null);
+
+        assertTrue(cache.get(GAMES).isEmpty());
+        assertTrue(cache.get(EVERYTHING).isEmpty());
+        assertTrue(cache.get(CHEAP_TOYS).isPresent());
+        assertTrue(cache.get(KIDS_AGE_7).isPresent());
+    }
+
+    @Test
+    void evictedKeysShouldLeaveNoIndexBehind() {
+        var cache = new CompositeKeyRecommendationCache(1);
+        cache.put(CHEAP_TOYS, List.of(product("p1", "Toy", "Kids", 100, "5-10")));
+        cache.put(GAMES, List.of(product("p2", "Game", "Adults", 1500, "18+")));
+
+        cache.invalidate("p1", null);
+
+        assertTrue(cache.get(GAMES).isPresent());
+    }
+
+    @Test
+    void rawParamsShouldFindTheEntryOfTheirKey() {
+        var cache = populated();
+
+        assertSame(cache.get(CHEAP_TOYS).orElseThrow(), cache.getIfPresent(null, 1000L, " TOY ", "", null));
+        assertSame(cache.get(KIDS_AGE_7).orElseThrow(), cache.getIfPresent(null, null, null, "kIDS", 7));
+        assertNull(cache.getIfPresent(null, 999L, "Toy", null, null));
+        assertNull(cache.getIfPresent(null, 1000L, "Toys", null, null));
+        assertEquals(RecommendationKey.parse(CHEAP_TOYS),
+                     RecommendationKey.probe().set(null, 1000L, "toy ", " ", null));
+        assertEquals(RecommendationKey.parse(CHEAP_TOYS).hashCode(),
+                     RecommendationKey.probe().set(null, 1000L, "tOy", null, null).hashCode());
+    }
+
+    @Test
+    void hitsShouldShareOneImmutableCopyOfTheResult() {
+        var cache = new CompositeKeyRecommendationCache(10);
+        List<ProductRecord> result = new ArrayList<>(List.of(product("p2", "Game", "Adults", 1500, "18+")));
+        cache.put(GAMES, result);
+        result.clear();
+
+        List<ProductRecord> hit = cache.getIfPresent(null, null, "Game", null, null);
+        assertEquals(1, hit.size());
+        assertSame(hit, cache.get(GAMES).orElseThrow());
+        assertThrows(UnsupportedOperationException.class, hit::clear);
+    }
+
+    @Test
+    void rawParamLookupNearExpiryShouldRefreshTheStoredKey() {
+        AtomicLong clock = new AtomicLong();
+        List<Runnable> queued = new ArrayList<>();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ofMinutes(1), queued::add,
+                                                        clock::get);
+        List<String> refreshed = new ArrayList<>();
+        cache.refreshWith(key -> {
+            refreshed.add(key);
+            return List.of();
+        });
+        cache.put(GAMES, List.of(product("p2", "Game", "Adults", 1500, "18+")));
+
+        clock.set(Duration.ofMinutes(9).toNanos() + 1);
+        assertNotNull(cache.getIfPresent(null, null, "GAME", null, null));
+        cache.getIfPresent(null, null, "Book", null, null); // reuses the probe before the refresh runs
+        queued.remove(0).run();
+
+        assertEquals(List.of(GAMES), refreshed);
+        assertEquals(List.of(), cache.get(GAMES).orElseThrow());
+    }
+
+    @Test
+    void expiredEntryShouldMissOnRead() {
+        AtomicLong clock = new AtomicLong();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ZERO, Runnable::run,
+                                                        clock::get);
+        cache.put(GAMES, List.of(product("p2", "Game", "Adults", 1500, "18+")));
+
+        clock.set(Duration.ofMinutes(10).toNanos() - 1);
+        assertTrue(cache.get(GAMES).isPresent());
+        clock.set(Duration.ofMinutes(10).toNanos());
+        assertTrue(cache.get(GAMES).isEmpty());
+        assertEquals(1, cache.expirations());
+    }
+
+    @Test
+    void timerWheelShouldDropExpiredEntriesNobodyReads() {
+        AtomicLong clock = new AtomicLong();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ZERO, Runnable::run,
+                                                        clock::get);
+        cache.put(GAMES, List.of(product("p2", "Game", "Adults", 1500, "18+")));
+        clock.set(Duration.ofMinutes(5).toNanos());
+        cache.put(BOOKS, List.of());
+        cache.put(GAMES, List.of()); // rewritten: its first timer must not expire it
+
+        clock.set(Duration.ofMinutes(12).toNanos());
+        cache.cleanUp();
+
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.scheduledExpiries());
+
+        clock.set(Duration.ofMinutes(16).toNanos());
+        cache.cleanUp();
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.expirations());
+        assertEquals(0, cache.scheduledExpiries());
+        assertEquals(0, cache.estimatedBytes());
+    }
+
+    @Test
+    void secondRefresherShouldBeRejected() {
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ofMinutes(1),
+                                                        Runnable::run, System::nanoTime);
+        cache.refreshWith(key -> List.of());
+
+        assertThrows(IllegalStateException.class, () -> cache.refreshWith(key -> List.of()));
+    }
+
+    @Test
+    void readNearExpiryShouldServeTheOldValueWhileRefreshing() {
+        AtomicLong clock = new AtomicLong();
+        List<Runnable> queued = new ArrayList<>();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ofMinutes(1), queued::add,
+                                                        clock::get);
+        var old = product("p2", "Game", "Adults", 1500, "18+");
+        var fresh = product("p3", "Game", "Adults", 900, "18+");
+        cache.refreshWith(key -> List.of(fresh));
+        cache.put(GAMES, List.of(old));
+
+        clock.set(Duration.ofMinutes(9).toNanos() + 1);
+        assertEquals(List.of(old), cache.get(GAMES).orElseThrow());
+        assertEquals(List.of(old), cache.get(GAMES).orElseThrow());
+        assertEquals(1, queued.size(), "one refresh per key at a time");
+
+        queued.remove(0).run();
+
+        assertEquals(List.of(fresh), cache.get(GAMES).orElseThrow());
+        assertEquals(1, cache.refreshes());
+        clock.set(Duration.ofMinutes(15).toNanos());
+        assertTrue(cache.get(GAMES).isPresent(), "a refreshed entry gets a full TTL");
+    }
+
+    @Test
+    void refreshShouldBeDiscardedWhenTheEntryWasInvalidatedMeanwhile() {
+        AtomicLong clock = new AtomicLong();
+        List<Runnable> queued = new ArrayList<>();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ofMinutes(1), queued::add,
+                                                        clock::get);
+        var game = product("p2", "Game", "Adults", 1500, "18+");
+        cache.refreshWith(key -> List.of(game));
+        cache.put(GAMES, List.of(game));
+
+        clock.set(Duration.ofMinutes(9).toNanos() + 1);
+        cache.get(GAMES);
+        cache.invalidate("p2", null);
+        queued.remove(0).run();
+
+        assertTrue(cache.get(GAMES).isEmpty());
+        assertEquals(0, cache.refreshes());
+    }
+
+    @Test
+    void rejectedRefreshShouldLetTheEntryExpire() {
+        AtomicLong clock = new AtomicLong();
+        var cache = new CompositeKeyRecommendationCache(10, Duration.ofMinutes(10), Duration.ofMinutes(1), r -> {
+            throw new RejectedExecutionException("full");
+        }, clock::get);
+        cache.refreshWith(key -> List.of());
+        cache.put(BOOKS, List.of(product("p4", "Book", "Adults", 20, "12+")));
+
+        clock.set(Duration.ofMinutes(9).toNanos() + 1);
+        assertTrue(cache.get(BOOKS).isPresent());
+        clock.set(Duration.ofMinutes(10).toNanos());
+        assertTrue(cache.get(BOOKS).isEmpty());
+        assertEquals(0, cache.refreshes());
+    }
+
+    private static CompositeKeyRecommendationCache populated() {
+        var toy = product("p1", "Toy", "Kids", 100, "5-10");
+        var game = product("p2", "Game", "Adults", 1500, "18+");
+        var cache = new CompositeKeyRecommendationCache(10);
+        cache.put(CHEAP_TOYS, List.of(toy));
+        cache.put(KIDS_AGE_7, List.of(toy));
+        cache.put(GAMES, List.of(game));
+        cache.put(BOOKS, List.of());
+        cache.put(EVERYTHING, List.of(toy, game));
+        return cache;
+    }
+}
@@ -0,0 +1,82 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class ConcurrentLRUCacheTest {
+
+    @Test
+    void singleSegmentShouldEvictLeastRecentlyUsed() {
+        ConcurrentLRUCache cache = new ConcurrentLRUCache(3, 1, 0);
+
+        cache.put(product("P1", "T"));
+        cache.put(product("P2", "T"));
+        cache.put(product("P3", "T"));
+        assertTrue(cache.getById("P1").isPresent());
+
+        cache.put(product("P4", "T"));
+
+        assertTrue(cache.getById("P1").isPresent());
+        assertFalse(cache.getById("P2").isPresent());
+        assertTrue(cache.getById("P3").isPresent());
+        assertTrue(cache.getById("P4").isPresent());
+    }
+
+    @Test
+    void segmentCountShouldNotStarveSmallCapacities() {
+        assertEquals(1, new ConcurrentLRUCache(10, 64, 0).segmentCount());
+        assertEquals(4, new ConcurrentLRUCache(64, 64, 0).segmentCount());
+        assertEquals(8, new ConcurrentLRUCache(10_000, 5, 0).segmentCount());
+    }
+
+    @Test
+    void defaultConstructorsShouldStripeByProcessorCount() {
+        int striped = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+        assertEquals(striped, new ConcurrentLRUCache(100_000).segmentCount());
+        assertEquals(striped, ConcurrentLRUCache.withMaxBytes(100_000, 1 << 20).segmentCount());
+    }
+
+    @Test
+    void getByTypeShouldCollectAcrossSegments() {
+        ConcurrentLRUCache cache = new ConcurrentLRUCache(1000, 16, 0);
+        for (int i = 0; i < 100; i++) {
+            cache.put(product("P" + i, i % 2 == 0 ? "Toy" : "Game"));
+        }
+
+        assertEquals(50, cache.getByType("Toy").size());
+        assertTrue(cache.getByType("Book").isEmpty());
+    }
+
+    @Test
+    void concurrentWritersShouldNeverExceedCapacity() throws Exception {
+        int capacity = 256;
+        ConcurrentLRUCache cache = new ConcurrentLRUCache(capacity, 16, 0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String id = "P" + random.nextInt(5_000);
+                    if (random.nextBoolean()) cache.put(product(id, "T"));
+                    else cache.getById(id);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertTrue(cache.size() <= capacity);
+        assertTrue(cache.size() > 0);
+    }
+}
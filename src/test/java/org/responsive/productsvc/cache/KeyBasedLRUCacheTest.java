@@ -37,5 +37,59 @@ class KeyBasedLRUCacheTest {
         assertTrue(cache.getById("P3").isPresent());
         assertTrue(cache.getById("P4").isPresent());
     }
-}
 
+    @Test
+    void typeIndexShouldFollowEvictionAndRemove() {
+        KeyBasedLRUCache cache = new KeyBasedLRUCache(3);
+
+        cache.put(new ProductRecord("P1","n","Toy","C",100,"18-45", Map.of()));
+        cache.put(new ProductRecord("P2","n","Game","C",200,"18-45", Map.of()));
+        cache.put(new ProductRecord("P3","n","Toy","C",300,"18-45", Map.of()));
+        assertEquals(2, cache.getByType("Toy").size());
+
+        // evicts P1
+        cache.put(new ProductRecord("P4","n","Game","C",400,"18-45", Map.of()));
+        assertEquals(1, cache.getByType("Toy").size());
+        assertEquals(2, cache.getByType("Game").size());
+
+        cache.remove("P3");
+        assertTrue(cache.getByType("Toy").isEmpty());
+
+        // re-typing a cached product moves it between buckets
+        cache.put(new ProductRecord("P2","n","Toy","C",200,"18-45", Map.of()));
+        assertEquals(1, cache.getByType("Toy").size());
+        assertEquals(1, cache.getByType("Game").size());
+    }
+
+    @Test
+    void typeShouldStayCompleteUntilOneOfItsEntriesIsEvicted() {
+        KeyBasedLRUCache cache = new KeyBasedLRUCache(3);
+        var toys = IntStream.range(0, 2)
+                            .mapToObj(i -> new ProductRecord("T" + i,"n","Toy","C",100,"18-45", Map.<String, String>of()))
+                            .toList();
+
+        cache.putType("Toy", toys);
+        assertTrue(cache.getTypeIfComplete("Toy").isPresent());
+
+        // a new product of the type keeps it complete
+        cache.put(new ProductRecord("T2","n","Toy","C",100,"18-45", Map.of()));
+        assertEquals(3, cache.getTypeIfComplete("Toy").orElseThrow().size());
+
+        // evicting T0 makes the cached list partial
+        cache.put(new ProductRecord("G1","n","Game","C",100,"18-45", Map.of()));
+        assertTrue(cache.getTypeIfComplete("Toy").isEmpty());
+    }
+
+    @Test
+    void typeLargerThanCapacityShouldNeverBeComplete() {
+        KeyBasedLRUCache cache = new KeyBasedLRUCache(2);
+        var toys = IntStream.range(0, 3)
+                            .mapToObj(i -> new ProductRecord("T" + i,"n","Toy","C",100,"18-45", Map.<String, String>of()))
+                            .toList();
+
+        cache.putType("Toy", toys);
+
+        assertTrue(cache.getTypeIfComplete("Toy").isEmpty());
+        assertEquals(2, cache.getByType("Toy").size());
+    }
+}
@@ -0,0 +1,76 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class MissingProductGuardTest {
+
+    @Test
+    void bloomFilterShouldHaveNoFalseNegativesAndRoughlyTheConfiguredFpp() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) filter.put("p" + i);
+
+        for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain("p" + i));
+        long falsePositives = IntStream.range(0, 100_000).filter(i -> filter.mightContain("x" + i)).count();
+        assertTrue(falsePositives < 2_000, "false positive rate too high: " + falsePositives);
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void saveDuringRebuildShouldNotBeLost() {
+        MissingProductGuard guard = new MissingProductGuard(1000, 0.01, Duration.ofSeconds(5), 100);
+        guard.rebuild(() -> {
+            // the snapshot cursor has already passed where p-new would be
+            guard.onSaved(product("p-new"));
+            return Stream.of("p1");
+        });
+
+        assertTrue(guard.isFilterReady());
+        assertFalse(guard.isDefinitelyMissing("p1"));
+        assertFalse(guard.isDefinitelyMissing("p-new"));
+        assertTrue(guard.isDefinitelyMissing("unknown"));
+    }
+
+    @Test
+    void rebuildShouldPickUpIdsSavedThroughAnotherInstance() {
+        MissingProductGuard guard = new MissingProductGuard(1000, 0.01, Duration.ofSeconds(5), 100);
+        guard.rebuild(() -> Stream.of("p1"));
+        assertTrue(guard.isDefinitelyMissing("p-elsewhere"));
+
+        // created through another instance: only the next rebuild sees it
+        guard.rebuild(() -> Stream.of("p1", "p-elsewhere"));
+        assertFalse(guard.isDefinitelyMissing("p-elsewhere"));
+    }
+
+    @Test
+    void negativeEntriesShouldExpireAndBeClearedBySaves() throws InterruptedException {
+        MissingProductGuard guard = new MissingProductGuard(1000, 0.01, Duration.ofMillis(50), 100);
+
+        guard.recordMiss("gone", guard.epoch());
+        assertTrue(guard.isDefinitelyMissing("gone"));
+        Thread.sleep(80);
+        assertFalse(guard.isDefinitelyMissing("gone"));
+
+        guard.recordMiss("soon", guard.epoch());
+        guard.onSaved(product("soon"));
+        assertFalse(guard.isDefinitelyMissing("soon"));
+    }
+
+    @Test
+    void missShouldNotBeRecordedWhenAWriteRacedWithTheLookup() {
+        MissingProductGuard guard = new MissingProductGuard(1000, 0.01, Duration.ofSeconds(5), 100);
+        long epoch = guard.epoch();
+        guard.onSaved(product("racy"));   // lands between the lookup and recordMiss
+
+        guard.recordMiss("racy", epoch);
+
+        assertFalse(guard.isDefinitelyMissing("racy"));
+        assertEquals(0, guard.negativeSize());
+    }
+}
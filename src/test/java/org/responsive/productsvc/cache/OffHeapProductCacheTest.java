@@ -0,0 +1,88 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class OffHeapProductCacheTest {
+
+    @Test
+    void shouldRoundTripRecordsIncludingNullsAndUnicode() {
+        OffHeapProductCache cache = new OffHeapProductCache(1024 * 1024);
+        Map<String, String> attributes = new HashMap<>();
+        attributes.put("brand", "Légo");
+        attributes.put("note", null);
+        var product = new ProductRecord("P1", "Starship 🚀", "Toy", null, 1999, "5-10", attributes);
+        var noAttributes = new ProductRecord("P2", "Kite", "Toy", "Kids", 5, "3-6", null);
+
+        cache.put(product);
+        cache.put(noAttributes);
+
+        assertEquals(product, cache.getById("P1").orElseThrow());
+        assertEquals(noAttributes, cache.getById("P2").orElseThrow());
+    }
+
+    @Test
+    void overwriteAndRemoveShouldHideOldVersions() {
+        OffHeapProductCache cache = new OffHeapProductCache(1024 * 1024);
+        cache.put(product("P1", 100));
+        cache.put(product("P1", 200));
+        assertEquals(200, cache.getById("P1").orElseThrow().price());
+
+        cache.remove("P1");
+        assertTrue(cache.getById("P1").isEmpty());
+    }
+
+    @Test
+    void shouldStayWithinByteCapacityByRecyclingOldestSegment() {
+        OffHeapProductCache cache = new OffHeapProductCache(64 * 1024);
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(product("P" + i, i));
+        }
+
+        assertTrue(cache.capacityBytes() <= 64 * 1024);
+        assertTrue(cache.getById("P9999").isPresent());
+        assertTrue(cache.getById("P0").isEmpty());
+        assertTrue(cache.size() < 10_000);
+    }
+
+    @Test
+    void tieredCacheShouldPromoteL2HitsIntoL1() {
+        KeyBasedLRUCache l1 = new KeyBasedLRUCache(1);
+        TieredProductCache cache = new TieredProductCache(l1, new OffHeapProductCache(1024 * 1024));
+
+        cache.put(product("P1", 100));
+        cache.put(product("P2", 200));
+        assertTrue(l1.getById("P1").isEmpty());
+
+        assertEquals(100, cache.getById("P1").orElseThrow().price());
+        assertTrue(l1.getById("P1").isPresent());
+    }
+
+    @Test
+    void promotionShouldNotResurrectAProductRemovedDuringTheL2Read() {
+        KeyBasedLRUCache l1 = new KeyBasedLRUCache(10);
+        TieredProductCache[] tiered = new TieredProductCache[1];
+        ProductCache l2 = new KeyBasedLRUCache(10) {
+            @Override
+            public Optional<ProductRecord> getById(String id) {
+                var hit = super.getById(id);
+                // the delete lands after L2 answered, before the promotion
+                tiered[0].remove(id);
+                return hit;
+            }
+        };
+        tiered[0] = new TieredProductCache(l1, l2);
+        l2.put(product("P1", 100));
+
+        assertTrue(tiered[0].getById("P1").isPresent());
+        assertTrue(l1.getById("P1").isEmpty());
+        assertTrue(tiered[0].getById("P1").isEmpty());
+    }
+}
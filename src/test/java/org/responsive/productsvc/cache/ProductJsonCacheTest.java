@@ -0,0 +1,91 @@
+package org.responsive.productsvc.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.dto.ProductRecord;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class ProductJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void sameRecordShouldReuseBytesMatchingJackson() throws Exception {
+        ProductJsonCache json = new ProductJsonCache(objectMapper, 10);
+        ProductRecord p = product("p1", 100);
+        json.admit(p);
+
+        byte[] first = json.toJson(p);
+        byte[] second = json.toJson(p);
+
+        assertSame(first, second);
+        assertArrayEquals(objectMapper.writeValueAsBytes(p), first);
+        assertEquals(1, json.hits());
+        assertEquals(1, json.misses());
+    }
+
+    @Test
+    void changedRecordShouldNeverGetStaleBytes() throws Exception {
+        ProductJsonCache json = new ProductJsonCache(objectMapper, 10);
+        ProductRecord p = product("p1", 100);
+        json.admit(p);
+        json.toJson(p);
+
+        ProductRecord repriced = product("p1", 200);
+        assertArrayEquals(objectMapper.writeValueAsBytes(repriced), json.toJson(repriced));
+        assertEquals(0, json.hits());
+    }
+
+    @Test
+    void cacheWritesAndRemovalsShouldDropEncodedJson() {
+        ProductJsonCache json = new ProductJsonCache(objectMapper, 10);
+        ProductCache cache = new JsonCachingProductCache(new KeyBasedLRUCache(10), json);
+        ProductRecord p1 = product("p1", 100);
+        ProductRecord p2 = product("p2", 100);
+        cache.putAll(List.of(p1, p2));
+        json.toJson(cache.getById("p1").orElseThrow());
+        json.toJson(cache.getById("p2").orElseThrow());
+        assertEquals(2, json.size());
+
+        cache.put(product("p1", 300));
+        cache.remove("p2");
+
+        assertEquals(0, json.size());
+        assertEquals(300, cache.getById("p1").orElseThrow().price());
+    }
+
+    @Test
+    void shouldStayWithinMaxEntriesEvictingTheLeastRecentlyServed() {
+        ProductJsonCache json = new ProductJsonCache(objectMapper, 2);
+        ProductRecord a = product("a", 100);
+        ProductRecord b = product("b", 100);
+        json.admit(a);
+        json.admit(b);
+        json.toJson(a);
+        json.admit(product("c", 100));
+
+        assertEquals(2, json.size());
+        json.toJson(a);
+        assertEquals(1, json.hits());
+        assertEquals(json.toJson(a).length, json.estimatedBytes());
+    }
+
+    @Test
+    void productsNotServedFromTheCacheShouldNotBeStored() {
+        ProductJsonCache json = new ProductJsonCache(objectMapper, 10);
+        ProductRecord hot = product("hot", 100);
+        json.admit(hot);
+        json.toJson(hot);
+
+        // a catalog page: encoded, never stored, the hot entry survives
+        for (int i = 0; i < 100; i++) json.toJson(product("p" + i, 100));
+
+        assertEquals(1, json.size());
+        json.toJson(hot);
+        assertEquals(1, json.hits());
+    }
+}
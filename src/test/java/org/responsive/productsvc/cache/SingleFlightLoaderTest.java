@@ -0,0 +1,124 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightLoaderTest {
+
+    @Test
+    void concurrentMissesShouldShareOneLoad() throws Exception {
+        SingleFlightLoader loader = new SingleFlightLoader(Duration.ofSeconds(5));
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(pool.submit(() -> loader.load("product:p1", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "p1";
+                })));
+            }
+            waitUntil(() -> loader.coalesced() == callers - 1);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("p1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, loader.loads());
+        assertEquals(0, loader.inFlight());
+    }
+
+    @Test
+    void waitersShouldSeeTheLoadersException() throws Exception {
+        SingleFlightLoader loader = new SingleFlightLoader(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = pool.submit(() -> loader.load("type:toy", () -> {
+                await(release);
+                throw new IllegalStateException("mongo down");
+            }));
+            waitUntil(() -> loader.inFlight() == 1);
+            Future<Object> waiter = pool.submit(() -> loader.load("type:toy", () -> fail("should not load")));
+            waitUntil(() -> loader.coalesced() == 1);
+            release.countDown();
+
+            for (Future<Object> f : List.of(leader, waiter)) {
+                ExecutionException e = assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                assertEquals("mongo down", e.getCause().getMessage());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, loader.failures());
+        // a failed flight is not remembered
+        assertEquals("ok", loader.load("type:toy", () -> "ok"));
+    }
+
+    @Test
+    void waiterShouldLoadItselfAfterTimeout() throws Exception {
+        SingleFlightLoader loader = new SingleFlightLoader(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            pool.submit(() -> loader.load("recommendation:k", () -> {
+                await(release);
+                return "slow";
+            }));
+            waitUntil(() -> loader.inFlight() == 1);
+
+            assertEquals("fast", loader.load("recommendation:k", () -> "fast"));
+            assertEquals(1, loader.timeouts());
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void everyLoadShouldBeTimedUnderItsNamespace() {
+        List<String> namespaces = new CopyOnWriteArrayList<>();
+        SingleFlightLoader loader = new SingleFlightLoader(Duration.ofSeconds(1),
+                                                           (namespace, nanos) -> namespaces.add(namespace));
+
+        loader.load("product:p1", () -> "p1");
+        assertThrows(IllegalStateException.class, () -> loader.load("type:Toy", () -> {
+            throw new IllegalStateException("down");
+        }));
+        loader.load("plain", () -> "x");
+
+        assertEquals(List.of("product", "type", "plain"), namespaces);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condition not reached");
+            Thread.sleep(5);
+        }
+    }
+}
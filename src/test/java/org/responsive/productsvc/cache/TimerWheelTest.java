@@ -0,0 +1,56 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    @Test
+    void advanceShouldOnlyHandOverPassedDeadlines() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 8, 0);
+        wheel.schedule("a", 15);
+        wheel.schedule("b", 20);
+        wheel.schedule("c", 25);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(20, expired::add);
+        assertEquals(List.of("a", "b"), expired);
+
+        wheel.advance(29, expired::add);
+        assertEquals(List.of("a", "b"), expired, "c is due at 25 but its tick ends at 30");
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("a", "b", "c"), expired);
+        assertEquals(0, wheel.scheduled());
+    }
+
+    @Test
+    void deadlinesBeyondOneLapShouldWaitForTheirLap() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        wheel.schedule("far", 95); // bucket of tick 10, two laps out
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(40, expired::add);
+        wheel.advance(80, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.scheduled());
+
+        wheel.advance(100, expired::add);
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void longPauseShouldVisitEveryBucketOnce() {
+        TimerWheel<String> wheel = new TimerWheel<>(10, 4, 0);
+        for (int i = 1; i <= 4; i++) wheel.schedule("k" + i, i * 10);
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(1_000_000, expired::add);
+
+        assertEquals(4, expired.size());
+        assertEquals(0, wheel.scheduled());
+    }
+}
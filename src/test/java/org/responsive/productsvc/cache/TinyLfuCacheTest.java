@@ -0,0 +1,54 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void scanShouldNotEvictFrequentlyReadProducts() {
+        TinyLfuCache cache = new TinyLfuCache(100);
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                String id = "HOT" + i;
+                if (cache.getById(id).isEmpty()) cache.put(product(id, "Toy"));
+            }
+        }
+
+        // a scan twice the size of the cache, each id seen once
+        for (int i = 0; i < 200; i++) {
+            cache.put(product("SCAN" + i, "Toy"));
+        }
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(cache.getById("HOT" + i).isPresent(), "HOT" + i + " was evicted by the scan");
+        }
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    void sizeShouldStayWithinCapacity() {
+        TinyLfuCache cache = new TinyLfuCache(10);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(product("P" + (i % 37), "Toy"));
+            cache.getById("P" + (i % 11));
+        }
+        assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    void typeIndexShouldFollowRejectionsAndRemovals() {
+        TinyLfuCache cache = new TinyLfuCache(5);
+        for (int i = 0; i < 20; i++) {
+            cache.put(product("P" + i, i % 2 == 0 ? "Toy" : "Game"));
+        }
+
+        int indexed = cache.getByType("Toy").size() + cache.getByType("Game").size();
+        assertEquals(cache.size(), indexed);
+
+        cache.getByType("Toy").forEach(p -> cache.remove(p.id()));
+        assertTrue(cache.getByType("Toy").isEmpty());
+    }
+}
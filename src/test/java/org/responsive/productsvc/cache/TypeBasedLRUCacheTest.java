@@ -0,0 +1,85 @@
+package org.responsive.productsvc.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class TypeBasedLRUCacheTest {
+
+    @Test
+    void fewTypesShouldShareTheWholeCapacity() {
+        TypeBasedLRUCache cache = new TypeBasedLRUCache(30);
+        for (int i = 0; i < 20; i++) {
+            for (String type : new String[] {"Toy", "Book", "Game"}) cache.put(product(type + i, type));
+        }
+
+        assertEquals(30, cache.size());
+        assertEquals(30, cache.sizeByType().values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(30, cache.evictions());
+    }
+
+    @Test
+    void manyTypesShouldStayUnderTheGlobalBound() {
+        TypeBasedLRUCache cache = new TypeBasedLRUCache(100);
+        for (int i = 0; i < 500; i++) {
+            cache.put(product("a" + i, "Type" + i));
+            cache.put(product("b" + i, "Type" + i));
+        }
+
+        assertEquals(100, cache.size());
+        assertEquals(900, cache.evictions());
+    }
+
+    @Test
+    void concurrentPutsShouldNotLeaveTheCacheOverCapacity() throws Exception {
+        TypeBasedLRUCache cache = new TypeBasedLRUCache(64);
+        Thread[] writers = new Thread[8];
+        for (int t = 0; t < writers.length; t++) {
+            String prefix = "t" + t + "-";
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    cache.put(product(prefix + i, "Type" + (i % 3)));
+                    cache.getById(prefix + (i / 2));
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) writer.join();
+
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+        assertEquals(cache.size(), cache.sizeByType().values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void typeWhoseEvictedIdsComeBackShouldGainShare() {
+        TypeBasedLRUCache cache = new TypeBasedLRUCache(40);
+        int scan = 0;
+        for (int round = 0; round < 50; round++) {
+            // a working set of 30 toys read over and over, against a scan of one-off books
+            for (int i = 0; i < 30; i++) {
+                if (cache.getById("toy" + i).isEmpty()) cache.put(product("toy" + i, "Toy"));
+                cache.put(product("book" + scan++, "Book"));
+            }
+        }
+
+        Map<String, Integer> targets = cache.targetByType();
+        assertTrue(targets.get("toy") > targets.get("book"), targets.toString());
+        assertEquals(30, cache.sizeByType().get("toy"));
+        assertEquals(40, cache.size());
+    }
+
+    @Test
+    void typeChangeShouldMoveTheProduct() {
+        TypeBasedLRUCache cache = new TypeBasedLRUCache(10);
+        cache.put(product("p1", "Toy"));
+        cache.put(product("p1", "Game"));
+
+        assertEquals(Map.of("game", 1), cache.sizeByType());
+        assertTrue(cache.getByType("Toy").isEmpty());
+        assertEquals(1, cache.size());
+        assertEquals(ProductWeigher.weigh(product("p1", "Game")), cache.estimatedBytes());
+    }
+}
@@ -0,0 +1,93 @@
+package org.responsive.productsvc.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.responsive.productsvc.cache.CacheSnapshot;
+import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
+import org.responsive.productsvc.cache.KeyBasedLRUCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.repository.ProductDocument;
+import org.responsive.productsvc.repository.ProductRepository;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class CacheWarmerTest {
+
+    @TempDir
+    Path dir;
+
+    private ProductRepository repository;
+    private KeyBasedLRUCache productCache;
+    private CompositeKeyRecommendationCache recommendationCache;
+    private CacheWarmer warmer;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(ProductRepository.class);
+        productCache = new KeyBasedLRUCache(100);
+        recommendationCache = new CompositeKeyRecommendationCache(100);
+        warmer = new CacheWarmer(repository, productCache, recommendationCache,
+                                 dir.resolve("cache.snapshot").toString(), 100, 100, 2, 2, Duration.ofSeconds(10));
+    }
+
+    @Test
+    void shutdownSnapshotShouldWarmTheNextStartFromMongo() throws Exception {
+        productCache.put(product("p1", 100));
+        productCache.put(product("p2", 200));
+        productCache.put(product("p3", 300));
+        String key = RecommendationKeyUtil.buildKey(null, null, "Toy", null, null);
+        recommendationCache.put(key, List.of(product("p1", 100)));
+
+        warmer.saveSnapshot();
+        productCache.clear();
+        recommendationCache.clear();
+
+        // p2 was deleted and p3 re-priced while the service was down
+        when(repository.findAllById(anyIterable())).thenAnswer(call -> {
+            Iterable<String> ids = call.getArgument(0);
+            List<ProductDocument> found = new java.util.ArrayList<>();
+            ids.forEach(id -> {
+                if (id.equals("p1")) found.add(ProductMapper.toDocument(product("p1", 100)));
+                if (id.equals("p3")) found.add(ProductMapper.toDocument(product("p3", 350)));
+            });
+            return found;
+        });
+        when(repository.findRecommendations(RecommendationKeyUtil.parseKey(key)))
+            .thenReturn(List.of(ProductMapper.toDocument(product("p1", 100))));
+
+        warmer.run(null);
+
+        assertEquals(2, productCache.size());
+        assertTrue(productCache.getById("p2").isEmpty());
+        assertEquals(350, productCache.getById("p3").orElseThrow().price());
+        assertEquals(List.of("p1"), recommendationCache.get(key).orElseThrow().stream().map(ProductRecord::id).toList());
+        verify(repository, times(2)).findAllById(anyIterable()); // two batches of two
+    }
+
+    @Test
+    void productWrittenDuringWarmupShouldNotBeOverwrittenByTheWarmedCopy() {
+        ProductRecord stale = product("p1", 100);
+        ProductRecord fresh = product("p1", 999);
+        when(repository.findAllById(anyIterable())).thenAnswer(call -> {
+            // the write lands after warmup read the old version
+            productCache.put(fresh);
+            warmer.onSaved(fresh);
+            return List.of(ProductMapper.toDocument(stale));
+        });
+
+        warmer.warm(new CacheSnapshot(Instant.now(), List.of("p1"), List.of()));
+
+        assertTrue(productCache.getById("p1").isEmpty(), "stale warmed copy must be dropped");
+    }
+}
@@ -0,0 +1,54 @@
+package org.responsive.productsvc.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.cache.InstrumentedProductCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import org.responsive.productsvc.cache.TypeBasedLRUCache;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class MetricsConfigTest {
+
+    private final MetricsConfig config = new MetricsConfig();
+
+    @Test
+    void productCacheMetersShouldFollowTheCache() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InstrumentedProductCache cache = new InstrumentedProductCache(new TypeBasedLRUCache(100));
+        config.productCacheMetrics(cache).bindTo(registry);
+        CacheTypeMetrics typeMetrics = config.cacheTypeMetrics(cache);
+        typeMetrics.bindTo(registry);
+
+        cache.put(product("p1", "Toy"));
+        cache.put(product("p2", "Book"));
+        cache.getById("p1");
+        cache.getById("nope");
+        typeMetrics.refresh();
+
+        assertEquals(1, registry.get("productsvc.cache.gets").tags("cache", "product", "result", "hit")
+                                .functionCounter().count());
+        assertEquals(1, registry.get("productsvc.cache.gets").tags("cache", "product", "result", "miss")
+                                .functionCounter().count());
+        assertEquals(2, registry.get("productsvc.cache.size").tag("cache", "product").gauge().value());
+        assertTrue(registry.get("productsvc.cache.estimated.bytes").gauge().value() > 0);
+        assertEquals(1, registry.get("productsvc.cache.type.size").tag("type", "toy").gauge().value());
+        assertEquals(1, registry.get("productsvc.cache.type.size").tag("type", "book").gauge().value());
+    }
+
+    @Test
+    void singleFlightLoadsShouldFeedLoadTimers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SingleFlightLoader loader = new SingleFlightLoader(Duration.ofSeconds(1), MetricsConfig.loadTimers(registry));
+
+        loader.load("product:p1", () -> "p1");
+        loader.load("product:p2", () -> "p2");
+        loader.load("recommendation:k", () -> "k");
+
+        assertEquals(2, registry.get("productsvc.cache.load").tag("cache", "product").timer().count());
+        assertEquals(1, registry.get("productsvc.cache.load").tag("cache", "recommendation").timer().count());
+    }
+}
@@ -0,0 +1,67 @@
+package org.responsive.productsvc.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.util.StageTimer;
+import org.responsive.productsvc.util.StageTimer.Stage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimingFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StageTimer.Operation operation = new StageTimer(registry).operation("recommendations.similar");
+
+    @Test
+    void stagesShouldFeedHistogramsAndTimeSerializationAgainstTheOperation() throws Exception {
+        StageTimingFilter filter = new StageTimingFilter(0.0, "X-Debug-Timing");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recommendations/p1"), response, (req, res) -> {
+            long t = operation.start();
+            t = operation.stop(Stage.REPOSITORY, t);
+            operation.stop(Stage.MAPPING, t);
+            res.getOutputStream().write("[]".getBytes());
+        });
+
+        assertNull(response.getHeader(StageTimingFilter.SERVER_TIMING_HEADER), "request was not sampled");
+        for (Stage stage : new Stage[] {Stage.REPOSITORY, Stage.MAPPING, Stage.SERIALIZATION}) {
+            assertEquals(1, registry.get("productsvc.request.stage")
+                                    .tags("operation", "recommendations.similar", "stage", stage.tag())
+                                    .timer().count(), stage.tag());
+        }
+        assertEquals(0, registry.get("productsvc.request.stage").tag("stage", "cache").timer().count());
+    }
+
+    @Test
+    void debugHeaderShouldAddServerTimingBeforeTheBody() throws Exception {
+        StageTimingFilter filter = new StageTimingFilter(0.0, "X-Debug-Timing");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recommendations/p1");
+        request.addHeader("X-Debug-Timing", "1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            operation.record(Stage.CACHE, 4_000);
+            operation.record(Stage.FILTER_SORT, 1_500_000);
+            res.getOutputStream().write("[]".getBytes());
+            res.flushBuffer();
+            operation.record(Stage.MAPPING, 1_000); // after the header went out
+        });
+
+        assertEquals("cache;dur=0.004, filter_sort;dur=1.500",
+                     response.getHeader(StageTimingFilter.SERVER_TIMING_HEADER));
+    }
+
+    @Test
+    void sampleRateShouldAddServerTimingWithoutTheDebugHeader() throws Exception {
+        StageTimingFilter filter = new StageTimingFilter(1.0, "X-Debug-Timing");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/recommendations/p1"), response,
+                        (req, res) -> operation.record(Stage.REPOSITORY, 2_000_000));
+
+        assertEquals("repository;dur=2.000", response.getHeader(StageTimingFilter.SERVER_TIMING_HEADER));
+    }
+}
@@ -0,0 +1,180 @@
+package org.responsive.productsvc.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.cache.ProductJsonCache;
+import org.responsive.productsvc.config.ProductJsonHttpMessageConverter;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.service.ProductService;
+import org.responsive.productsvc.util.ProductETags;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+import static org.responsive.productsvc.TestProducts.product;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Web-layer tests against a mocked {@link ProductService}; no Spring context or Mongo needed.
+ */
+class ProductControllerTest {
+
+    private ProductService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setup() {
+        service = mock(ProductService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(service, new ObjectMapper(), 2, 3)).build();
+    }
+
+    @Test
+    void plainGetShouldStillReturnWholeCatalogAsJson() throws Exception {
+        when(service.getAll()).thenReturn(List.of(product("p1"), product("p2"), product("p3")));
+
+        mockMvc.perform(get("/api/products").accept(MediaType.ALL))
+               .andExpect(status().isOk())
+               .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$", hasSize(3)));
+        verify(service, never()).streamAll();
+    }
+
+    @Test
+    void fullPageShouldCarryNextCursorAndLimitShouldBeCapped() throws Exception {
+        when(service.getPage("p1", 2)).thenReturn(List.of(product("p2"), product("p3")));
+        when(service.getPage("p3", 2)).thenReturn(List.of(product("p4")));
+
+        mockMvc.perform(get("/api/products").param("after", "p1").param("limit", "50"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(ProductController.NEXT_CURSOR_HEADER, "p3"))
+               .andExpect(jsonPath("$[*].id", contains("p2", "p3")));
+
+        mockMvc.perform(get("/api/products").param("after", "p3").param("limit", "2"))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist(ProductController.NEXT_CURSOR_HEADER))
+               .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void idsShouldBeLookedUpTogetherAndCapped() throws Exception {
+        when(service.getByIds(List.of("p3", "p1"))).thenReturn(List.of(product("p3"), product("p1")));
+
+        mockMvc.perform(get("/api/products").param("ids", "p3,p1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$[*].id", contains("p3", "p1")));
+        mockMvc.perform(get("/api/products").param("ids", "p1,p2,p3,p4"))
+               .andExpect(status().isBadRequest());
+        verify(service, never()).getAll();
+    }
+
+    @Test
+    void ndjsonShouldWriteOneProductPerLineAndCloseTheCursor() throws Exception {
+        var closed = new boolean[1];
+        when(service.streamAll()).thenReturn(Stream.of(product("p1"), product("p2")).onClose(() -> closed[0] = true));
+
+        MvcResult started = mockMvc.perform(get("/api/products").accept(MediaType.APPLICATION_NDJSON))
+                                   .andExpect(request().asyncStarted())
+                                   .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                             .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":\"p1\""));
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    void preEncodedJsonShouldMatchJacksonForSingleProductsAndLists() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ProductJsonCache jsonCache = new ProductJsonCache(objectMapper, 10);
+        MockMvc preEncoded = MockMvcBuilders.standaloneSetup(new ProductController(service, objectMapper, 2, 3))
+                                            .setMessageConverters(new ProductJsonHttpMessageConverter(jsonCache),
+                                                                  new MappingJackson2HttpMessageConverter(objectMapper))
+                                            .build();
+        List<ProductRecord> toys = List.of(product("p1"), product("p2"));
+        when(service.getById("p1")).thenReturn(Optional.of(toys.get(0)));
+        when(service.getByType("Toy")).thenReturn(toys);
+        // served from the product cache, as JsonCachingProductCache admits them
+        toys.forEach(jsonCache::admit);
+
+        preEncoded.perform(get("/api/products/p1"))
+                  .andExpect(status().isOk())
+                  .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                  .andExpect(content().string(objectMapper.writeValueAsString(toys.get(0))));
+        preEncoded.perform(get("/api/products/type/Toy"))
+                  .andExpect(status().isOk())
+                  .andExpect(content().string(objectMapper.writeValueAsString(toys)));
+
+        // p1 was encoded once and reused for the list
+        assertEquals(1, jsonCache.hits());
+        assertEquals(2, jsonCache.misses());
+    }
+
+    @Test
+    void matchingIfNoneMatchShouldReturn304WithoutBody() throws Exception {
+        when(service.getById("p1")).thenReturn(Optional.of(product("p1")));
+        String etag = ProductETags.of(product("p1"));
+
+        mockMvc.perform(get("/api/products/p1"))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", etag));
+        mockMvc.perform(get("/api/products/p1").header("If-None-Match", etag))
+               .andExpect(status().isNotModified())
+               .andExpect(content().string(""));
+        mockMvc.perform(get("/api/products/p1").header("If-None-Match", "\"stale\""))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void typeListETagShouldChangeWhenAnyProductChanges() throws Exception {
+        List<ProductRecord> before = List.of(product("p1"), product("p2"));
+        List<ProductRecord> after = List.of(product("p1"),
+                                            new ProductRecord("p2", "Product p2", "Toy", "Kids", 101, "5-10", Map.of()));
+        when(service.getByType("Toy")).thenReturn(before).thenReturn(after);
+
+        String etag = mockMvc.perform(get("/api/products/type/Toy"))
+                             .andExpect(status().isOk())
+                             .andReturn().getResponse().getHeader("ETag");
+        assertEquals(ProductETags.of(before), etag);
+        mockMvc.perform(get("/api/products/type/Toy").header("If-None-Match", etag))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", ProductETags.of(after)));
+    }
+
+    @Test
+    void putWithStaleIfMatchShouldFailWith412() throws Exception {
+        ProductRecord current = product("p1");
+        when(service.getById("p1")).thenReturn(Optional.of(current));
+        // the service reports whether the conditional write matched
+        when(service.replaceIfMatch(any(), eq("\"stale\""))).thenReturn(Optional.empty());
+        when(service.replaceIfMatch(any(), eq(ProductETags.of(current))))
+            .thenAnswer(inv -> Optional.of(inv.getArgument(0)));
+        String body = new ObjectMapper().writeValueAsString(current);
+
+        mockMvc.perform(put("/api/products/p1").header("If-Match", "\"stale\"")
+                                               .contentType(MediaType.APPLICATION_JSON).content(body))
+               .andExpect(status().isPreconditionFailed());
+        verify(service, never()).create(any());
+
+        mockMvc.perform(put("/api/products/p1").header("If-Match", ProductETags.of(current))
+                                               .contentType(MediaType.APPLICATION_JSON).content(body))
+               .andExpect(status().isOk())
+               .andExpect(header().string("ETag", ProductETags.of(current)));
+    }
+}
@@ -0,0 +1,132 @@
+package org.responsive.productsvc.controller.reactive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.controller.ProductController;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.service.ReactiveProductRecommendationService;
+import org.responsive.productsvc.service.ReactiveProductService;
+import org.responsive.productsvc.util.ProductETags;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+/**
+ * Functional routes against mocked reactive services; no Spring context or Mongo needed.
+ */
+class ProductRoutesTest {
+
+    private ReactiveProductService service;
+    private ReactiveProductRecommendationService recommendationService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setup() {
+        service = mock(ReactiveProductService.class);
+        recommendationService = mock(ReactiveProductRecommendationService.class);
+        ProductRoutes routes = new ProductRoutes();
+        client = WebTestClient.bindToRouterFunction(
+            routes.productRoutes(new ProductHandler(service, 2, 3))
+                  .and(routes.recommendationRoutes(new ProductRecommendationHandler(recommendationService))))
+                              .build();
+    }
+
+    @Test
+    void plainGetShouldReturnWholeCatalogAsJsonArray() {
+        when(service.getAll()).thenReturn(Flux.just(product("p1"), product("p2"), product("p3")));
+
+        client.get().uri("/api/products").accept(MediaType.ALL).exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+              .expectBody().jsonPath("$.length()").isEqualTo(3);
+    }
+
+    @Test
+    void ndjsonShouldWriteOneProductPerLine() {
+        when(service.getAll()).thenReturn(Flux.just(product("p1"), product("p2")));
+
+        client.get().uri("/api/products").accept(MediaType.APPLICATION_NDJSON).exchange()
+              .expectStatus().isOk()
+              .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+              .expectBodyList(ProductRecord.class).hasSize(2);
+    }
+
+    @Test
+    void fullPageShouldCarryNextCursorAndLimitShouldBeCapped() {
+        when(service.getPage("p1", 2)).thenReturn(Flux.just(product("p2"), product("p3")));
+        when(service.getPage("p3", 2)).thenReturn(Flux.just(product("p4")));
+
+        client.get().uri("/api/products?after=p1&limit=50").exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals(ProductController.NEXT_CURSOR_HEADER, "p3")
+              .expectBody().jsonPath("$[1].id").isEqualTo("p3");
+
+        client.get().uri("/api/products?after=p3&limit=2").exchange()
+              .expectStatus().isOk()
+              .expectHeader().doesNotExist(ProductController.NEXT_CURSOR_HEADER);
+    }
+
+    @Test
+    void multiGetShouldSplitIdsAndRejectTooMany() {
+        when(service.getByIds(List.of("p1", "p2"))).thenReturn(Flux.just(product("p1")));
+
+        client.get().uri("/api/products?ids=p1,p2").exchange()
+              .expectStatus().isOk()
+              .expectBody().jsonPath("$[0].id").isEqualTo("p1");
+
+        client.get().uri("/api/products?ids=a,b,c,d").exchange()
+              .expectStatus().isBadRequest();
+        verify(service, times(1)).getByIds(anyList());
+    }
+
+    @Test
+    void createShouldReturnLocationAndUnknownIdsShouldBe404() {
+        when(service.create(any())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(service.getById("nope")).thenReturn(Mono.empty());
+
+        client.post().uri("/api/products").contentType(MediaType.APPLICATION_JSON).bodyValue(product("p9"))
+              .exchange()
+              .expectStatus().isCreated()
+              .expectHeader().location("/api/products/p9");
+
+        client.get().uri("/api/products/nope").exchange().expectStatus().isNotFound();
+        client.delete().uri("/api/products/nope").exchange().expectStatus().isNotFound();
+        verify(service, never()).delete(any());
+    }
+
+    @Test
+    void similarShouldReturn404WhenEmpty() {
+        when(recommendationService.recommendSimilarProducts("p1", 5)).thenReturn(Flux.just(product("p2")));
+        when(recommendationService.recommendSimilarProducts("p0", 5)).thenReturn(Flux.empty());
+
+        client.get().uri("/api/recommendations/p1").exchange()
+              .expectStatus().isOk()
+              .expectBody().jsonPath("$[0].id").isEqualTo("p2");
+        client.get().uri("/api/recommendations/p0").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void conditionalRequestsShouldUseContentETags() {
+        ProductRecord current = product("p1");
+        String etag = ProductETags.of(current);
+        when(service.getById("p1")).thenReturn(Mono.just(current));
+        when(service.replaceIfMatch(any(), eq("\"stale\""))).thenReturn(Mono.empty());
+
+        client.get().uri("/api/products/p1").exchange()
+              .expectStatus().isOk()
+              .expectHeader().valueEquals("ETag", etag);
+        client.get().uri("/api/products/p1").header("If-None-Match", etag).exchange()
+              .expectStatus().isNotModified()
+              .expectBody().isEmpty();
+        client.put().uri("/api/products/p1").header("If-Match", "\"stale\"")
+              .contentType(MediaType.APPLICATION_JSON).bodyValue(current).exchange()
+              .expectStatus().isEqualTo(412);
+        verify(service, never()).create(any());
+    }
+}
@@ -0,0 +1,214 @@
+package org.responsive.productsvc.index;
+
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.util.RecommendationFilter;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.responsive.productsvc.TestProducts.product;
+
+class CatalogIndexTest {
+
+    private static final String[] TYPES = {"Toy", "Game", "Book", "Puzzle"};
+    private static final String[] CATEGORIES = {"Kids", "Teens", "Adults"};
+    private static final String[] AGE_GROUPS = {"3-6", "5-10", "12+", "18+", "7", "", "unknown"};
+
+    @Test
+    void recommendShouldMatchBruteForceFilteringInPriceOrder() {
+        Random random = new Random(42);
+        Map<String, ProductRecord> catalog = new LinkedHashMap<>();
+        for (int i = 0; i < 500; i++) {
+            ProductRecord p = randomProduct(random, "p" + i);
+            catalog.put(p.id(), p);
+        }
+        CatalogIndex index = loaded(catalog.values());
+
+        // incremental writes after the load: re-prices / re-types, deletes and new products
+        for (int i = 0; i < 200; i++) {
+            String id = "p" + random.nextInt(600);
+            if (random.nextInt(4) == 0) {
+                catalog.remove(id);
+                index.onDeleted(id);
+            } else {
+                ProductRecord p = randomProduct(random, id);
+                catalog.put(id, p);
+                index.onSaved(p);
+            }
+        }
+        assertEquals(catalog.size(), index.size());
+
+        for (int i = 0; i < 300; i++) {
+            RecommendationFilter filter = randomFilter(random);
+            List<ProductRecord> expected = catalog.values().stream().filter(filter::matches).toList();
+            List<ProductRecord> actual = index.recommend(filter);
+
+            assertEquals(idSet(expected), idSet(actual), filter.toString());
+            for (int j = 1; j < actual.size(); j++) {
+                assertTrue(actual.get(j - 1).price() <= actual.get(j).price(), "results not in price order");
+            }
+        }
+    }
+
+    @Test
+    void savedAllShouldMergeBatchesLikeSingleWrites() {
+        Random random = new Random(11);
+        Map<String, ProductRecord> catalog = new LinkedHashMap<>();
+        for (int i = 0; i < 300; i++) {
+            ProductRecord p = randomProduct(random, "p" + i);
+            catalog.put(p.id(), p);
+        }
+        CatalogIndex index = loaded(catalog.values());
+
+        // batches mix new ids, replaced ids and the same id twice; deletes free ordinals for reuse
+        for (int round = 0; round < 20; round++) {
+            List<ProductRecord> batch = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                ProductRecord p = randomProduct(random, "p" + random.nextInt(400));
+                batch.add(p);
+                catalog.put(p.id(), p);
+            }
+            index.onSavedAll(batch);
+            String deleted = "p" + random.nextInt(400);
+            catalog.remove(deleted);
+            index.onDeleted(deleted);
+        }
+        assertEquals(catalog.size(), index.size());
+
+        for (int i = 0; i < 300; i++) {
+            RecommendationFilter filter = randomFilter(random);
+            List<ProductRecord> expected = catalog.values().stream().filter(filter::matches).toList();
+            List<ProductRecord> actual = index.recommend(filter);
+
+            assertEquals(idSet(expected), idSet(actual), filter.toString());
+            for (int j = 1; j < actual.size(); j++) {
+                assertTrue(actual.get(j - 1).price() <= actual.get(j).price(), "results not in price order");
+            }
+        }
+    }
+
+    @Test
+    void similarShouldReturnNearestPricedProductsOfSameTypeOrCategory() {
+        Random random = new Random(7);
+        Map<String, ProductRecord> catalog = new LinkedHashMap<>();
+        for (int i = 0; i < 400; i++) {
+            ProductRecord p = randomProduct(random, "p" + i);
+            catalog.put(p.id(), p);
+        }
+        CatalogIndex index = loaded(catalog.values());
+        for (int i = 0; i < 50; i++) {
+            index.onDeleted("p" + random.nextInt(400));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            String id = "p" + random.nextInt(400);
+            int limit = 1 + random.nextInt(20);
+            Optional<ProductRecord> base = index.get(id);
+            List<ProductRecord> actual = index.similar(id, limit);
+            if (base.isEmpty()) {
+                assertTrue(actual.isEmpty());
+                continue;
+            }
+            ProductRecord b = base.get();
+            // ties may come back in any order, so compare the distances
+            List<Long> expected = catalog.values().stream()
+                                         .filter(p -> index.get(p.id()).isPresent())
+                                         .filter(p -> !p.id().equals(id))
+                                         .filter(p -> p.type().equalsIgnoreCase(b.type())
+                                             || p.category().equalsIgnoreCase(b.category()))
+                                         .map(p -> Math.abs(p.price() - b.price()))
+                                         .sorted()
+                                         .limit(limit)
+                                         .toList();
+            assertEquals(expected, actual.stream().map(p -> Math.abs(p.price() - b.price())).toList());
+            assertEquals(actual.size(), idSet(actual).size(), "duplicate results");
+            assertFalse(idSet(actual).contains(id));
+        }
+    }
+
+    @Test
+    void writesDuringLoadShouldBeReplayedOnTopOfTheSnapshot() {
+        CatalogIndex index = new CatalogIndex(true);
+        index.beginLoad();
+        index.onSaved(product("p2", "Toy", "Kids", 900, "5-10"));
+        index.onDeleted("p1");
+        assertFalse(index.isReady());
+
+        // snapshot was read before the writes above were visible
+        index.completeLoad(List.of(product("p1", "Toy", "Kids", 100, "5-10"),
+                                   product("p2", "Toy", "Kids", 200, "5-10")));
+
+        assertTrue(index.isReady());
+        assertTrue(index.get("p1").isEmpty());
+        assertEquals(900, index.get("p2").orElseThrow().price());
+        assertEquals(List.of("p2"), index.recommend(RecommendationFilter.of(null, null, "toy", null, null))
+                                         .stream().map(ProductRecord::id).toList());
+    }
+
+    @Test
+    void abortedLoadShouldLeaveIndexNotReady() {
+        CatalogIndex index = new CatalogIndex(true);
+        index.beginLoad();
+        index.abortLoad();
+        index.onSaved(product("p1", "Toy", "Kids", 100, "5-10"));
+
+        assertFalse(index.isReady());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void reloadShouldKeepServingThePreviousCopyUntilItCompletes() {
+        CatalogIndex index = loaded(List.of(product("p1", "Toy", "Kids", 100, "5-10")));
+        index.beginLoad();
+        index.onSaved(product("p3", "Toy", "Kids", 300, "5-10"));
+
+        assertTrue(index.isReady());
+        assertEquals(List.of("p1"), index.recommend(RecommendationFilter.of(null, null, "toy", null, null))
+                                         .stream().map(ProductRecord::id).toList());
+
+        // another instance deleted p1 and created p2
+        index.completeLoad(List.of(product("p2", "Toy", "Kids", 200, "5-10")));
+
+        assertEquals(List.of("p2", "p3"), index.recommend(RecommendationFilter.of(null, null, "toy", null, null))
+                                               .stream().map(ProductRecord::id).toList());
+    }
+
+    @Test
+    void failedReloadShouldKeepThePreviousCopyAndTheQueuedWrites() {
+        CatalogIndex index = loaded(List.of(product("p1", "Toy", "Kids", 100, "5-10")));
+        index.beginLoad();
+        index.onSaved(product("p2", "Toy", "Kids", 200, "5-10"));
+        index.abortLoad();
+
+        assertTrue(index.isReady());
+        assertEquals(2, index.size());
+    }
+
+    private static CatalogIndex loaded(Collection<ProductRecord> snapshot) {
+        CatalogIndex index = new CatalogIndex(true);
+        index.beginLoad();
+        index.completeLoad(snapshot);
+        return index;
+    }
+
+    private static RecommendationFilter randomFilter(Random random) {
+        Long min = random.nextBoolean() ? (long) random.nextInt(1000) : null;
+        Long max = random.nextBoolean() ? (long) random.nextInt(1000) : null;
+        String type = random.nextInt(3) == 0 ? TYPES[random.nextInt(TYPES.length)].toUpperCase() : null;
+        String category = random.nextInt(3) == 0 ? CATEGORIES[random.nextInt(CATEGORIES.length)] : null;
+        Integer age = random.nextBoolean() ? random.nextInt(25) : null;
+        return RecommendationFilter.of(min, max, type, category, age);
+    }
+
+    private static ProductRecord randomProduct(Random random, String id) {
+        return product(id, TYPES[random.nextInt(TYPES.length)], CATEGORIES[random.nextInt(CATEGORIES.length)],
+                       1 + random.nextInt(1000), AGE_GROUPS[random.nextInt(AGE_GROUPS.length)]);
+    }
+
+    private static Set<String> idSet(List<ProductRecord> products) {
+        Set<String> ids = new HashSet<>();
+        products.forEach(p -> ids.add(p.id()));
+        return ids;
+    }
+}
@@ -0,0 +1,193 @@
+package org.responsive.productsvc.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ProductRepositoryCustomImplTest {
+
+    @Test
+    void documentShouldCarryParsedAgeBounds() {
+        assertBounds("5-10", 5, 10);
+        assertBounds("18+", 18, null);
+        assertBounds("7", 7, 7);
+        assertBounds("", null, null);
+        assertBounds("toddlers", null, null);
+    }
+
+    @Test
+    void queryShouldMatchNormalizedTypeAndCategoryKeys() {
+        Query query = ProductRepositoryCustomImpl.recommendationQuery(
+            RecommendationFilter.of(100L, 2000L, " TOY", "Kids", null));
+        List<Document> filters = andClauses(query);
+
+        assertEquals(new Document("typeKey", "toy"), filters.get(0));
+        assertEquals(new Document("categoryKey", "kids"), filters.get(1));
+        assertEquals(new Document("price", new Document("$gte", 100L).append("$lte", 2000L)), filters.get(2));
+        assertEquals(new Document("price", 1), query.getSortObject());
+    }
+
+    @Test
+    void queryShouldTreatMissingAgeBoundsAsOpen() {
+        Query query = ProductRepositoryCustomImpl.recommendationQuery(RecommendationFilter.of(null, null, null, "Kids", 7));
+        List<Document> filters = andClauses(query);
+
+        assertEquals(new Document("categoryKey", "kids"), filters.get(0));
+        assertEquals(new Document("$or", List.of(new Document("ageMin", null),
+                                                 new Document("ageMin", new Document("$lte", 7)))), filters.get(1));
+        assertEquals(new Document("$or", List.of(new Document("ageMax", null),
+                                                 new Document("ageMax", new Document("$gte", 7)))), filters.get(2));
+    }
+
+    @Test
+    void queryWithoutFiltersShouldMatchEverything() {
+        Query query = ProductRepositoryCustomImpl.recommendationQuery(RecommendationFilter.of(null, null, " ", null, null));
+        assertEquals(new Document(), query.getQueryObject());
+    }
+
+    @Test
+    void recommendationMissShouldBeOneQuery() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(ProductDocument.class)))
+            .thenReturn(List.of(product("a", "Toy", 100), product("b", "TOY", 200)));
+        ProductRepositoryCustomImpl repository = new ProductRepositoryCustomImpl(mongoTemplate);
+
+        List<ProductDocument> results = repository.findRecommendations(
+            RecommendationKeyUtil.parseKey(RecommendationKeyUtil.buildKey(null, null, "Toy", "kids", null)));
+
+        assertEquals(List.of("a", "b"), results.stream().map(ProductDocument::getId).toList());
+        verify(mongoTemplate).find(any(Query.class), eq(ProductDocument.class));
+        verifyNoMoreInteractions(mongoTemplate);
+    }
+
+    @Test
+    void documentShouldCarryNormalizedTypeAndCategoryKeys() {
+        ProductDocument document = new ProductDocument("p", "n", " Board Game", "KIDS ", 1, "", Map.of());
+        assertEquals("board game", document.getTypeKey());
+        assertEquals("kids", document.getCategoryKey());
+
+        document.setType(" ");
+        assertNull(document.getTypeKey());
+    }
+
+    @Test
+    void ifMatchReplaceShouldFilterOnIdAndContentHashInOneWrite() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.replace(any(Query.class), any(ProductDocument.class)))
+            .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        ProductRepositoryCustomImpl repository = new ProductRepositoryCustomImpl(mongoTemplate);
+        ProductDocument document = product("p1", "Toy", 100);
+
+        assertFalse(repository.replaceIfMatch(document, List.of("00ff")));
+        verify(mongoTemplate).replace(
+            argThat(q -> q.getQueryObject().equals(new Document("_id", "p1")
+                                                       .append("contentHash", new Document("$in", List.of("00ff"))))),
+            same(document));
+        assertEquals(new Document("_id", "p1"), ProductRepositoryCustomImpl.ifMatchQuery("p1", null).getQueryObject());
+    }
+
+    @Test
+    void contentHashShouldFollowTheFieldsItCovers() {
+        ProductDocument document = product("p1", "Toy", 100);
+        String before = document.getContentHash();
+        document.setPrice(200);
+
+        assertNotEquals(before, document.getContentHash());
+        assertEquals(ProductETags.contentHash(ProductMapper.toRecord(document)), document.getContentHash());
+    }
+
+    @Test
+    void similarFallbackShouldMatchAFullScanFromBoundedQueries() {
+        Random random = new Random(7);
+        List<ProductDocument> catalog = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            catalog.add(new ProductDocument("p" + i, "n", "T" + random.nextInt(5), "C" + random.nextInt(4),
+                                            random.nextInt(50), "", Map.of()));
+        }
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(ProductDocument.class)))
+            .thenAnswer(invocation -> evaluate(invocation.getArgument(0), catalog));
+        ProductRepositoryCustomImpl repository = new ProductRepositoryCustomImpl(mongoTemplate);
+
+        for (ProductDocument base : catalog.subList(0, 30)) {
+            for (int limit : new int[] {1, 5, 20}) {
+                List<Long> expected = catalog.stream()
+                                             .filter(p -> !p.getId().equals(base.getId()))
+                                             .filter(p -> p.getType().equals(base.getType())
+                                                 || p.getCategory().equals(base.getCategory()))
+                                             .map(p -> Math.abs(p.getPrice() - base.getPrice()))
+                                             .sorted()
+                                             .limit(limit)
+                                             .toList();
+                List<ProductDocument> similar = repository.findSimilar(base, limit);
+
+                // ties on the price distance may pick different products, but never farther ones
+                assertEquals(expected, similar.stream().map(p -> Math.abs(p.getPrice() - base.getPrice())).toList());
+                assertTrue(similar.stream().noneMatch(p -> p.getId().equals(base.getId())));
+                assertEquals(similar.size(), similar.stream().map(ProductDocument::getId).distinct().count());
+            }
+        }
+        verify(mongoTemplate, never()).findAll(ProductDocument.class);
+    }
+
+    @Test
+    void similarQueriesShouldBeBoundedAndPriceOrdered() {
+        ProductDocument base = product("p", "Toy", 500);
+        List<Query> queries = ProductRepositoryCustomImpl.similarQueries(base, 5);
+
+        assertEquals(4, queries.size());
+        assertEquals(new Document("typeKey", "toy"), andClauses(queries.get(0)).get(0));
+        assertEquals(new Document("price", new Document("$gte", 500L)), andClauses(queries.get(0)).get(1));
+        assertEquals(new Document("price", 1), queries.get(0).getSortObject());
+        assertEquals(6, queries.get(0).getLimit());
+        assertEquals(new Document("price", new Document("$lt", 500L)), andClauses(queries.get(1)).get(1));
+        assertEquals(new Document("price", -1), queries.get(1).getSortObject());
+        assertEquals(5, queries.get(1).getLimit());
+        assertEquals(new Document("categoryKey", "kids"), andClauses(queries.get(2)).get(0));
+        assertTrue(ProductRepositoryCustomImpl.similarQueries(base, 0).isEmpty());
+    }
+
+    private static ProductDocument product(String id, String type, long price) {
+        return new ProductDocument(id, id, type, "Kids", price, "", Map.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Document> andClauses(Query query) {
+        return (List<Document>) query.getQueryObject().get("$and");
+    }
+
+    /** Runs one of the similarQueries over an in-memory catalog: key equality, price bound, sort and limit. */
+    private static List<ProductDocument> evaluate(Query query, List<ProductDocument> catalog) {
+        List<Document> clauses = andClauses(query);
+        Map.Entry<String, Object> key = clauses.get(0).entrySet().iterator().next();
+        Document price = (Document) clauses.get(1).get("price");
+        boolean above = price.containsKey("$gte");
+        long bound = ((Number) (above ? price.get("$gte") : price.get("$lt"))).longValue();
+        Comparator<ProductDocument> byPrice = Comparator.comparingLong(ProductDocument::getPrice);
+        return catalog.stream()
+                      .filter(p -> key.getValue().equals("typeKey".equals(key.getKey()) ? p.getTypeKey()
+                                                                                         : p.getCategoryKey()))
+                      .filter(p -> above ? p.getPrice() >= bound : p.getPrice() < bound)
+                      .sorted(above ? byPrice : byPrice.reversed())
+                      .limit(query.getLimit())
+                      .toList();
+    }
+
+    private static void assertBounds(String group, Integer min, Integer max) {
+        ProductDocument d = new ProductDocument("p", "n", "Toy", "Kids", 1, group, Map.of());
+        assertEquals(min, d.getAgeMin(), group);
+        assertEquals(max, d.getAgeMax(), group);
+    }
+}
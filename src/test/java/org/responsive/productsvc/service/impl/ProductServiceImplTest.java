@@ -1,13 +1,28 @@
 package org.responsive.productsvc.service.impl;
 
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.cache.CompositeKeyRecommendationCache;
+import org.responsive.productsvc.cache.MissingProductGuard;
 import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.cache.SingleFlightLoader;
+import org.responsive.productsvc.dto.BatchResult;
 import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.index.CatalogIndex;
 import org.responsive.productsvc.repository.ProductDocument;
 import org.responsive.productsvc.repository.ProductRepository;
-
+import org.responsive.productsvc.service.ProductReadThrough;
+import org.responsive.productsvc.service.ProductWriteEffects;
+import org.responsive.productsvc.util.ProductETags;
+import org.responsive.productsvc.util.ProductMapper;
+import org.responsive.productsvc.util.RecommendationFilter;
+import org.responsive.productsvc.util.RecommendationKeyUtil;
+
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -16,13 +31,22 @@ class ProductServiceImplTest {
 
     private ProductRepository repository;
     private ProductCache cache;
+    private RecommendationCache recommendationCache;
+    private MissingProductGuard missingGuard;
     private ProductServiceImpl service;
 
     @BeforeEach
     void setup() {
         repository = mock(ProductRepository.class);
         cache = mock(ProductCache.class);
-        service = new ProductServiceImpl(repository, cache);
+        recommendationCache = mock(RecommendationCache.class);
+        missingGuard = new MissingProductGuard(1000, 0.01, Duration.ofMinutes(1), 100);
+        service = new ProductServiceImpl(repository,
+                                         new ProductReadThrough(cache, recommendationCache, missingGuard,
+                                                                new CatalogIndex(false)),
+                                         new ProductWriteEffects(cache, recommendationCache, List.of()),
+                                         new SingleFlightLoader(Duration.ofSeconds(1)),
+                                         Validation.buildDefaultValidatorFactory().getValidator(), 2);
     }
 
     @Test
@@ -61,5 +85,157 @@ class ProductServiceImplTest {
         assertThat(result.id()).isEqualTo("p3");
         verify(repository).save(any());
         verify(cache).put(result);
+        verify(recommendationCache).invalidate("p3", result);
+    }
+
+    @Test
+    void ifMatchReplaceShouldOnlyUpdateCachesWhenTheConditionalWriteMatched() {
+        ProductRecord current = new ProductRecord("p3", "Plane", "Toy", "Kids", 800, "5-10", Map.of());
+        ProductRecord update = new ProductRecord("p3", "Plane", "Toy", "Kids", 900, "5-10", Map.of());
+        String hash = ProductETags.contentHash(current);
+        when(repository.replaceIfMatch(any(), eq(List.of(hash)))).thenReturn(true);
+
+        assertThat(service.replaceIfMatch(update, "W/\"weak\", \"stale\"")).isEmpty();
+        verify(cache, never()).put(any());
+
+        assertThat(service.replaceIfMatch(update, ProductETags.of(current))).contains(update);
+        verify(repository).replaceIfMatch(argThat(d -> d.getPrice() == 900), eq(List.of(hash)));
+        verify(cache).put(update);
+        verify(recommendationCache).invalidate("p3", update);
+    }
+
+    @Test
+    void shouldInvalidateRecommendationsOnDelete() {
+        service.delete("p3");
+
+        verify(repository).deleteById("p3");
+        verify(cache).remove("p3");
+        verify(recommendationCache).invalidate("p3", null);
+        verify(recommendationCache, never()).clear();
+    }
+
+    @Test
+    void shouldQueryRepositoryWhenTypeIsOnlyPartiallyCached() {
+        ProductDocument doc = new ProductDocument("p4", "Kite", "Toy", "Kids", 900, "5-10", Map.of());
+        when(cache.getTypeIfComplete("Toy")).thenReturn(Optional.empty());
+        when(repository.findByType("Toy")).thenReturn(List.of(doc));
+
+        List<ProductRecord> result = service.getByType("Toy");
+
+        assertThat(result).extracting(ProductRecord::id).containsExactly("p4");
+        verify(cache, never()).getByType("Toy");
+        verify(cache).putType(eq("Toy"), anyList());
+    }
+
+    @Test
+    void shouldServeCompleteTypeFromCache() {
+        ProductRecord cached = new ProductRecord("p5", "Ball", "Toy", "Kids", 200, "3-6", Map.of());
+        when(cache.getTypeIfComplete("Toy")).thenReturn(Optional.of(List.of(cached)));
+
+        List<ProductRecord> result = service.getByType("Toy");
+
+        assertThat(result).containsExactly(cached);
+        verify(repository, never()).findByType(any());
+    }
+
+    @Test
+    void multiGetShouldLoadAllMissesInOneQueryAndKeepRequestOrder() {
+        ProductRecord cached = new ProductRecord("m2", "Ball", "Toy", "Kids", 200, "3-6", Map.of());
+        when(cache.getAllById(any())).thenReturn(Map.of("m2", cached));
+        when(repository.findAllById(List.of("m3", "m1", "missing"))).thenReturn(List.of(
+            new ProductDocument("m1", "Kite", "Toy", "Kids", 900, "5-10", Map.of()),
+            new ProductDocument("m3", "Dice", "Game", "Adults", 100, "10+", Map.of())));
+
+        List<ProductRecord> result = service.getByIds(List.of("m3", "m2", "m1", "m3", "missing"));
+
+        assertThat(result).extracting(ProductRecord::id).containsExactly("m3", "m2", "m1");
+        verify(repository).findAllById(List.of("m3", "m1", "missing"));
+        verify(repository, never()).findById(any());
+        verify(cache).putAll(argThat(loaded -> loaded.size() == 2));
+    }
+
+    @Test
+    void missingIdShouldBeNegativelyCachedUntilCreated() {
+        when(cache.getById(any())).thenReturn(Optional.empty());
+        when(repository.findById("ghost")).thenReturn(Optional.empty());
+
+        assertThat(service.getById("ghost")).isEmpty();
+        assertThat(service.getById("ghost")).isEmpty();
+        verify(repository, times(1)).findById("ghost");
+
+        ProductDocument doc = new ProductDocument("ghost", "Kite", "Toy", "Kids", 900, "5-10", Map.of());
+        when(repository.save(any())).thenReturn(doc);
+        when(repository.findById("ghost")).thenReturn(Optional.of(doc));
+        // create goes through the listeners in production; here the guard is not registered as one
+        missingGuard.onSaved(service.create(ProductMapper.toRecord(doc)));
+
+        assertThat(service.getById("ghost")).isPresent();
+    }
+
+    @Test
+    void bloomFilterShouldRejectUnknownIdsWithoutQuerying() {
+        missingGuard.rebuild(() -> Stream.of("p1", "p2"));
+        when(cache.getById(any())).thenReturn(Optional.empty());
+        when(repository.findById("p1")).thenReturn(
+            Optional.of(new ProductDocument("p1", "Kite", "Toy", "Kids", 900, "5-10", Map.of())));
+
+        assertThat(service.getById("nope")).isEmpty();
+        assertThat(service.getById("p1")).isPresent();
+        verify(repository, never()).findById("nope");
+        assertThat(missingGuard.filterRejections()).isEqualTo(1);
+    }
+
+    @Test
+    void batchShouldReportEachItemAndUpdateCachesOncePerChunk() {
+        List<ProductRecord> batch = List.of(
+            new ProductRecord("b1", "Kite", "Toy", "Kids", 900, "5-10", Map.of()),
+            new ProductRecord("b2", "Free", "Toy", "Kids", 0, "5-10", Map.of()),
+            new ProductRecord("b3", "Ball", "Toy", "Kids", 200, "3-6", Map.of()),
+            new ProductRecord("b4", "Dice", "Game", "Adults", 100, "10+", Map.of()),
+            new ProductRecord("b5", "Yoyo", "Toy", "Kids", 150, "5-10", Map.of())
+        );
+        // chunk size is 2: [b1, b3] and [b4, b5]; b4 is rejected by Mongo
+        when(repository.bulkUpsert(anyList())).thenReturn(Map.of()).thenReturn(Map.of(0, "duplicate key"));
+
+        BatchResult result = service.upsertAll(batch);
+
+        assertThat(result.upserted()).isEqualTo(3);
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.items()).extracting(BatchResult.Item::status).containsExactly(
+            BatchResult.Status.UPSERTED, BatchResult.Status.FAILED, BatchResult.Status.UPSERTED,
+            BatchResult.Status.FAILED, BatchResult.Status.UPSERTED);
+        assertThat(result.items().get(1).error()).contains("price");
+        assertThat(result.items().get(3).error()).isEqualTo("duplicate key");
+
+        verify(repository, times(2)).bulkUpsert(anyList());
+        verify(cache).putAll(List.of(batch.get(0), batch.get(2)));
+        verify(cache).putAll(List.of(batch.get(4)));
+        verify(recommendationCache).invalidateAll(List.of(batch.get(4)));
+        verify(cache, never()).put(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void recommendationMissRightAfterTheInvalidationShouldSeeTheWrite() {
+        ProductRecord kite = new ProductRecord("p1", "Kite", "Toy", "Kids", 900, "5-10", Map.of());
+        ProductRecord repriced = new ProductRecord("p1", "Kite", "Toy", "Kids", 400, "5-10", Map.of());
+        CatalogIndex index = new CatalogIndex(true);
+        index.beginLoad();
+        index.completeLoad(List.of(kite));
+        RecommendationFilter toys = RecommendationFilter.of(null, null, "Toy", null, null);
+        String key = RecommendationKeyUtil.buildKey(null, null, "Toy", null, null);
+        RecommendationCache recommendations = new CompositeKeyRecommendationCache(10) {
+            @Override
+            public void invalidate(String productId, ProductRecord current) {
+                super.invalidate(productId, current);
+                // a concurrent recommend() misses and fills from the index
+                put(key, index.recommend(toys));
+            }
+        };
+        recommendations.put(key, List.of(kite));
+
+        new ProductWriteEffects(cache, recommendations, List.of(index)).saved(repriced);
+
+        assertThat(recommendations.get(key).orElseThrow()).containsExactly(repriced);
     }
 }
@@ -0,0 +1,119 @@
+package org.responsive.productsvc.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.responsive.productsvc.cache.MissingProductGuard;
+import org.responsive.productsvc.cache.ProductCache;
+import org.responsive.productsvc.cache.RecommendationCache;
+import org.responsive.productsvc.dto.ProductRecord;
+import org.responsive.productsvc.index.CatalogIndex;
+import org.responsive.productsvc.repository.ProductDocument;
+import org.responsive.productsvc.repository.ReactiveProductRepository;
+import org.responsive.productsvc.service.ProductService;
+import org.responsive.productsvc.service.ProductReadThrough;
+import org.responsive.productsvc.service.ProductWriteEffects;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ReactiveProductServiceImplTest {
+
+    private ReactiveProductRepository repository;
+    private ProductCache cache;
+    private RecommendationCache recommendationCache;
+    private MissingProductGuard missingGuard;
+    private ReactiveProductServiceImpl service;
+
+    @BeforeEach
+    void setup() {
+        repository = mock(ReactiveProductRepository.class);
+        cache = mock(ProductCache.class);
+        recommendationCache = mock(RecommendationCache.class);
+        missingGuard = new MissingProductGuard(1000, 0.01, Duration.ofMinutes(1), 100);
+        service = new ReactiveProductServiceImpl(repository,
+                                                 new ProductReadThrough(cache, recommendationCache, missingGuard,
+                                                                        new CatalogIndex(false)),
+                                                 new ProductWriteEffects(cache, recommendationCache, List.of()),
+                                                 mock(ProductService.class));
+    }
+
+    @Test
+    void cacheHitShouldNotSubscribeToMongo() {
+        ProductRecord cached = new ProductRecord("p1", "Toy Car", "Toy", "Kids", 500, "3-6", Map.of());
+        when(cache.getById("p1")).thenReturn(Optional.of(cached));
+
+        StepVerifier.create(service.getById("p1")).expectNext(cached).verifyComplete();
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void missShouldLoadCacheAndThenNegativelyCacheUnknownIds() {
+        when(cache.getById(any())).thenReturn(Optional.empty());
+        when(repository.findById("p2")).thenReturn(Mono.just(doc("p2")));
+        when(repository.findById("ghost")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.getById("p2")).expectNextMatches(p -> p.id().equals("p2")).verifyComplete();
+        verify(cache).put(argThat(p -> p.id().equals("p2")));
+
+        StepVerifier.create(service.getById("ghost")).verifyComplete();
+        StepVerifier.create(service.getById("ghost")).verifyComplete();
+        verify(repository, times(1)).findById("ghost");
+    }
+
+    @Test
+    void multiGetShouldLoadMissesInOneQueryAndKeepRequestOrder() {
+        ProductRecord cached = new ProductRecord("m2", "Ball", "Toy", "Kids", 200, "3-6", Map.of());
+        when(cache.getAllById(any())).thenReturn(Map.of("m2", cached));
+        when(repository.findAllById(List.of("m3", "m1"))).thenReturn(Flux.just(doc("m1"), doc("m3")));
+
+        StepVerifier.create(service.getByIds(List.of("m3", "m2", "m1", "m3")).map(ProductRecord::id))
+                    .expectNext("m3", "m2", "m1")
+                    .verifyComplete();
+        verify(cache).putAll(argThat(loaded -> loaded.size() == 2));
+    }
+
+    @Test
+    void getAllShouldOnlyPullWhatTheSubscriberRequests() {
+        List<Long> requests = new CopyOnWriteArrayList<>();
+        Flux<ProductDocument> cursor = Flux.fromStream(IntStream.range(0, 1000).mapToObj(i -> doc("p" + i)))
+                                           .doOnRequest(requests::add);
+        when(repository.findAll()).thenReturn(cursor);
+
+        StepVerifier.create(service.getAll(), 0)
+                    .thenRequest(3)
+                    .expectNextCount(3)
+                    .thenCancel()
+                    .verify();
+        assertThat(requests).containsExactly(3L);
+    }
+
+    @Test
+    void createAndDeleteShouldApplyTheSharedWriteEffects() {
+        when(repository.save(any())).thenReturn(Mono.just(doc("p3")));
+        when(repository.deleteById("p3")).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.create(new ProductRecord("p3", "p3", "Toy", "Kids", 100, "5-10", Map.of())))
+                    .expectNextCount(1)
+                    .verifyComplete();
+        verify(cache).put(argThat(p -> p.id().equals("p3")));
+        verify(recommendationCache).invalidate(eq("p3"), any());
+
+        StepVerifier.create(service.delete("p3")).verifyComplete();
+        verify(cache).remove("p3");
+        verify(recommendationCache).invalidate("p3", null);
+    }
+
+    private static ProductDocument doc(String id) {
+        return new ProductDocument(id, id, "Toy", "Kids", 100, "5-10", Map.of());
+    }
+}